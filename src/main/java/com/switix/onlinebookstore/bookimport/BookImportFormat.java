@@ -0,0 +1,137 @@
+package com.switix.onlinebookstore.bookimport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.switix.onlinebookstore.dto.ImportBookDto;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Formats of catalog import files, both holding one book per line so that files are read as a stream :
+ * <ul>
+ *     <li>CSV, whose first line names the columns, with the properties of {@link ImportBookDto} as names. Authors are
+ *     separated by {@value #CSV_AUTHORS_SEPARATOR}, following the quoting rules of fields : a name holding the separator
+ *     or a quote is quoted, its quotes being doubled (and doubled again if the whole field is quoted). Fields can't span
+ *     several lines</li>
+ *     <li>JSON Lines, one {@link ImportBookDto} object per line</li>
+ * </ul>
+ */
+public enum BookImportFormat {
+
+    CSV(new MediaType("text", "csv")) {
+        @Override
+        LineParser newParser(ObjectMapper objectMapper) {
+            return new CsvLineParser();
+        }
+    },
+
+    JSONL(MediaType.APPLICATION_NDJSON) {
+        @Override
+        LineParser newParser(ObjectMapper objectMapper) {
+            return line -> objectMapper.readValue(line, ImportBookDto.class);
+        }
+    };
+
+    public static final char CSV_AUTHORS_SEPARATOR = ';';
+
+    private final MediaType mediaType;
+
+    BookImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public static Optional<BookImportFormat> of(MediaType contentType) {
+        return Arrays.stream(values()).filter(format -> format.mediaType.isCompatibleWith(contentType)).findFirst();
+    }
+
+    abstract LineParser newParser(ObjectMapper objectMapper);
+
+    interface LineParser {
+
+        /**
+         * @return book of the line, null when the line holds no book (CSV header)
+         * @throws Exception if the line can't be parsed, reported as an error of the line
+         */
+        ImportBookDto parse(String line) throws Exception;
+    }
+
+    private static class CsvLineParser implements LineParser {
+
+        private Map<String, Integer> columnIndexes;
+
+        @Override
+        public ImportBookDto parse(String line) {
+            List<String> fields = splitFields(line, ',');
+            if (columnIndexes == null) {
+                columnIndexes = new HashMap<>();
+                for (int i = 0; i < fields.size(); i++) {
+                    // files saved by spreadsheets may start with a byte order mark
+                    columnIndexes.put(fields.get(i).replace("\uFEFF", "").trim(), i);
+                }
+                return null;
+            }
+            ImportBookDto book = new ImportBookDto();
+            book.setTitle(field(fields, "title"));
+            book.setDescription(field(fields, "description"));
+            String price = field(fields, "price");
+            book.setPrice(price == null ? null : new BigDecimal(price));
+            book.setImageUrl(field(fields, "imageUrl"));
+            String publicationYear = field(fields, "publicationYear");
+            book.setPublicationYear(publicationYear == null ? null : Integer.valueOf(publicationYear));
+            book.setIsbn(field(fields, "isbn"));
+            book.setCategory(field(fields, "category"));
+            String authors = field(fields, "authors");
+            book.setAuthors(authors == null ? List.of() : splitFields(authors, CSV_AUTHORS_SEPARATOR).stream().map(String::trim).filter(name -> !name.isEmpty()).toList());
+            String quantity = field(fields, "quantity");
+            book.setQuantity(quantity == null ? null : Integer.valueOf(quantity));
+            return book;
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columnIndexes.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        // RFC 4180 : fields may be quoted, a quote inside a quoted field being doubled
+        private static List<String> splitFields(String line, char separator) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == separator) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
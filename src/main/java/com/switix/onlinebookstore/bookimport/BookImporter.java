@@ -0,0 +1,293 @@
+package com.switix.onlinebookstore.bookimport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.switix.onlinebookstore.dto.BookImportReportDto;
+import com.switix.onlinebookstore.dto.ImportBookDto;
+import com.switix.onlinebookstore.model.Author;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.model.BookInventory;
+import com.switix.onlinebookstore.model.Category;
+import com.switix.onlinebookstore.repository.AuthorRepository;
+import com.switix.onlinebookstore.repository.CategoryRepository;
+import com.switix.onlinebookstore.search.CatalogSuggestions;
+import com.switix.onlinebookstore.service.BookCounts;
+import com.switix.onlinebookstore.service.BookCounts.Counted;
+import com.switix.onlinebookstore.service.CatalogChangedEvent;
+import com.switix.onlinebookstore.service.CatalogChangedEvent.Change;
+import com.switix.onlinebookstore.service.CatalogChangedEvent.Subject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Imports books in bulk from a CSV or JSON Lines stream, which is read line by line so that files of any size can be
+ * imported : only a chunk of books is held in memory.
+ * Each chunk is written in its own transaction by JDBC batches, book and inventory ids being taken from their identity
+ * sequences beforehand, so rows are inserted without reading generated keys back. Categories and authors are resolved
+ * by name from in-memory maps, loaded once, and created when unknown.
+ * Invalid lines are reported without stopping the import. A chunk that fails to be written is rolled back as a whole,
+ * all of its lines being reported.
+ */
+@Component
+public class BookImporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookImporter.class);
+    // column lengths of the book table
+    private static final int MAX_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 2048;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryRepository categoryRepository;
+    private final AuthorRepository authorRepository;
+    private final BookCounts bookCounts;
+    private final CatalogSuggestions catalogSuggestions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public BookImporter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, CategoryRepository categoryRepository,
+                        AuthorRepository authorRepository, BookCounts bookCounts, CatalogSuggestions catalogSuggestions,
+                        ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+                        @Value("${catalog.import.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.categoryRepository = categoryRepository;
+        this.authorRepository = authorRepository;
+        this.bookCounts = bookCounts;
+        this.catalogSuggestions = catalogSuggestions;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param content books to import, not closed by this method
+     */
+    public BookImportReportDto importBooks(InputStream content, BookImportFormat format) throws IOException {
+        BookImportFormat.LineParser parser = format.newParser(objectMapper);
+        Names categories = new Names(Subject.CATEGORY, "category", categoryRepository.findAll(), Category::getName, Category::getId);
+        Names authors = new Names(Subject.AUTHOR, "author", authorRepository.findAll(), Author::getName, Author::getId);
+        BookImportReportDto report = new BookImportReportDto();
+        List<Line> chunk = new ArrayList<>(chunkSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(content, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ImportBookDto book;
+            try {
+                book = parser.parse(line);
+            } catch (Exception e) {
+                report.addError(lineNumber, "Invalid line: " + e.getMessage());
+                continue;
+            }
+            if (book == null) {
+                continue;
+            }
+            String error = validate(book);
+            if (error != null) {
+                report.addError(lineNumber, error);
+                continue;
+            }
+            chunk.add(new Line(lineNumber, book));
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, categories, authors, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, categories, authors, report);
+        }
+        LOGGER.info("Catalog import done : {} books imported, {} lines failed", report.getImportedCount(), report.getFailedCount());
+        return report;
+    }
+
+    private void importChunk(List<Line> lines, Names categories, Names authors, BookImportReportDto report) {
+        try {
+            List<Book> books = transactionTemplate.execute(status -> insertChunk(lines, categories, authors));
+            categories.committed();
+            authors.committed();
+            // books are indexed from memory, reloading them through catalog change events would be a query per book.
+            // The change is published once they are, outside the transaction, so that the catalog version only moves
+            // with suggestions up-to-date
+            catalogSuggestions.indexBooks(books);
+            eventPublisher.publishEvent(new CatalogChangedEvent(Subject.BOOK, Change.IMPORTED, null));
+            report.addImported(books.size());
+            LOGGER.info("Catalog import : {} books imported, up to line {}", report.getImportedCount(), lines.get(lines.size() - 1).number());
+        } catch (RuntimeException e) {
+            categories.rolledBack();
+            authors.rolledBack();
+            String message = "Import of the chunk holding this line failed: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            lines.forEach(line -> report.addError(line.number(), message));
+            LOGGER.warn("Catalog import of lines {} to {} failed", lines.get(0).number(), lines.get(lines.size() - 1).number(), e);
+        }
+    }
+
+    private List<Book> insertChunk(List<Line> lines, Names categories, Names authors) {
+        List<Long> bookIds = nextIds("book", lines.size());
+        List<Long> inventoryIds = nextIds("book_inventory", lines.size());
+        List<Book> books = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            ImportBookDto importedBook = lines.get(i).book();
+            Book book = new Book();
+            book.setId(bookIds.get(i));
+            book.setTitle(importedBook.getTitle());
+            book.setDescription(importedBook.getDescription());
+            book.setPrice(importedBook.getPrice());
+            book.setImageUrl(importedBook.getImageUrl());
+            book.setPublicationYear(importedBook.getPublicationYear());
+            book.setIsbn(importedBook.getIsbn());
+            BookInventory inventory = new BookInventory();
+            inventory.setId(inventoryIds.get(i));
+            inventory.setQuantity(importedBook.getQuantity() == null ? 0 : importedBook.getQuantity());
+            book.setInventory(inventory);
+            if (importedBook.getCategory() != null) {
+                Category category = new Category();
+                category.setId(categories.resolve(importedBook.getCategory()));
+                category.setName(importedBook.getCategory().trim());
+                book.setCategory(category);
+            }
+            // an author named twice would be linked twice to the book
+            Map<Long, Author> bookAuthors = new HashMap<>();
+            if (importedBook.getAuthors() != null) {
+                for (String authorName : importedBook.getAuthors()) {
+                    Author author = new Author();
+                    author.setId(authors.resolve(authorName));
+                    author.setName(authorName.trim());
+                    bookAuthors.putIfAbsent(author.getId(), author);
+                }
+            }
+            book.setBookAuthors(new HashSet<>(bookAuthors.values()));
+            books.add(book);
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO book_inventory (id, quantity) VALUES (?, ?)", books, books.size(), (ps, book) -> {
+            ps.setLong(1, book.getInventory().getId());
+            ps.setInt(2, book.getInventory().getQuantity());
+        });
+        jdbcTemplate.batchUpdate("INSERT INTO book (id, is_removed, title, description, price, image_url, publication_year, isbn, category_id, inventory_id)" +
+                " VALUES (?, false, ?, ?, ?, ?, ?, ?, ?, ?)", books, books.size(), (ps, book) -> {
+            ps.setLong(1, book.getId());
+            ps.setString(2, book.getTitle());
+            ps.setString(3, book.getDescription());
+            ps.setBigDecimal(4, book.getPrice());
+            ps.setString(5, book.getImageUrl());
+            ps.setInt(6, book.getPublicationYear());
+            ps.setString(7, book.getIsbn());
+            ps.setObject(8, book.getCategory() == null ? null : book.getCategory().getId(), Types.BIGINT);
+            ps.setLong(9, book.getInventory().getId());
+        });
+        List<long[]> bookAuthorIds = new ArrayList<>();
+        books.forEach(book -> book.getBookAuthors().forEach(author -> bookAuthorIds.add(new long[]{book.getId(), author.getId()})));
+        jdbcTemplate.batchUpdate("INSERT INTO book_author (book_id, author_id) VALUES (?, ?)", bookAuthorIds, Math.max(1, bookAuthorIds.size()), (ps, ids) -> {
+            ps.setLong(1, ids[0]);
+            ps.setLong(2, ids[1]);
+        });
+
+        bookCounts.booksAdded(books.stream().map(Counted::of).toList());
+        return books;
+    }
+
+    // ids are taken from the identity sequence of the table in one round trip, as Hibernate would have done one by one
+    private List<Long> nextIds(String table, int count) {
+        return jdbcTemplate.queryForList("SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)", Long.class, table, count);
+    }
+
+    private static String validate(ImportBookDto book) {
+        if (isBlank(book.getTitle()) || isBlank(book.getDescription()) || isBlank(book.getImageUrl()) || isBlank(book.getIsbn())
+                || book.getPrice() == null || book.getPublicationYear() == null) {
+            return "title, description, price, imageUrl, publicationYear and isbn are required";
+        }
+        if (book.getTitle().length() > MAX_LENGTH || book.getImageUrl().length() > MAX_LENGTH || book.getIsbn().length() > MAX_LENGTH
+                || book.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            return "Field too long: title, imageUrl and isbn are limited to " + MAX_LENGTH + " characters, description to " + MAX_DESCRIPTION_LENGTH;
+        }
+        // price column is numeric(10, 2)
+        BigDecimal price = book.getPrice();
+        if (price.signum() < 0 || price.scale() > 2 || price.precision() - price.scale() > 8) {
+            return "Invalid price: " + price.toPlainString();
+        }
+        if (book.getQuantity() != null && book.getQuantity() < 0) {
+            return "Invalid quantity: " + book.getQuantity();
+        }
+        if (book.getCategory() != null && book.getCategory().length() > MAX_LENGTH
+                || book.getAuthors() != null && book.getAuthors().stream().anyMatch(name -> isBlank(name) || name.length() > MAX_LENGTH)) {
+            return "Category and author names must not be blank nor longer than " + MAX_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private record Line(long number, ImportBookDto book) {
+    }
+
+    /**
+     * Ids of categories or authors by name, ignoring case. Those created by a chunk are forgotten if it's rolled back.
+     */
+    private class Names {
+
+        private final Subject subject;
+        private final String table;
+        private final Map<String, Long> idsByName = new HashMap<>();
+        private final List<String> createdNames = new ArrayList<>();
+
+        private <T> Names(Subject subject, String table, List<T> entities, Function<T, String> nameGetter, Function<T, Long> idGetter) {
+            this.subject = subject;
+            this.table = table;
+            // duplicated names resolve to the first entity read
+            entities.forEach(entity -> idsByName.putIfAbsent(key(nameGetter.apply(entity)), idGetter.apply(entity)));
+        }
+
+        private Long resolve(String name) {
+            Long id = idsByName.get(key(name));
+            if (id == null) {
+                id = jdbcTemplate.queryForObject("INSERT INTO " + table + " (name) VALUES (?) RETURNING id", Long.class, name.trim());
+                idsByName.put(key(name), id);
+                createdNames.add(name);
+                eventPublisher.publishEvent(new CatalogChangedEvent(subject, Change.CREATED, id));
+            }
+            return id;
+        }
+
+        private void committed() {
+            createdNames.clear();
+        }
+
+        private void rolledBack() {
+            createdNames.forEach(name -> idsByName.remove(key(name)));
+            createdNames.clear();
+        }
+
+        private String key(String name) {
+            return name.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
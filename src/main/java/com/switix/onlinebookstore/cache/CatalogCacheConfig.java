@@ -0,0 +1,14 @@
+package com.switix.onlinebookstore.cache;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables catalog read caching. Caches are backed by Caffeine, their size and time to live are given by
+ * spring.cache.caffeine.spec in application.properties, hit / miss / eviction metrics are exposed by actuator
+ * under cache.gets and cache.evictions.
+ */
+@Configuration
+@EnableCaching
+public class CatalogCacheConfig {
+}
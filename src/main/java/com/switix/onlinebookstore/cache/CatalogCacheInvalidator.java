@@ -0,0 +1,61 @@
+package com.switix.onlinebookstore.cache;
+
+import com.switix.onlinebookstore.service.CatalogChangedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class CatalogCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    public CatalogCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    // invoked after commit, or immediately when the change was not made in a transaction
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.getSubject()) {
+            case BOOK -> {
+                // orders change stock all the time : lists keep the stock they were loaded with rather than being
+                // emptied by each checkout, only the pages of the books are refreshed
+                if (event.getChange() == CatalogChangedEvent.Change.STOCK_CHANGED) {
+                    event.getIds().forEach(bookId -> evict(CatalogCaches.BOOKS, bookId));
+                    return;
+                }
+                clear(CatalogCaches.BOOK_LISTS);
+                if (event.getChange() != CatalogChangedEvent.Change.CREATED && event.getChange() != CatalogChangedEvent.Change.IMPORTED) {
+                    event.getIds().forEach(bookId -> evict(CatalogCaches.BOOKS, bookId));
+                }
+            }
+            case CATEGORY, AUTHOR -> {
+                // a new category or author isn't referenced by any book yet, whereas other changes are visible
+                // through every book that embeds it
+                if (event.getChange() != CatalogChangedEvent.Change.CREATED) {
+                    clear(CatalogCaches.BOOK_LISTS);
+                    clear(CatalogCaches.BOOKS);
+                }
+            }
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
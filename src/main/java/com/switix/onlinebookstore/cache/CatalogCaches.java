@@ -0,0 +1,12 @@
+package com.switix.onlinebookstore.cache;
+
+public final class CatalogCaches {
+
+    // single books, by id
+    public static final String BOOKS = "books";
+    // book listings and pages (full books or summaries), by query and its arguments
+    public static final String BOOK_LISTS = "bookLists";
+
+    private CatalogCaches() {
+    }
+}
@@ -0,0 +1,81 @@
+package com.switix.onlinebookstore.cache;
+
+import com.switix.onlinebookstore.service.CatalogChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Version of the catalog served to clients, used as HTTP validator (ETag and Last-Modified) of catalog resources.
+ * It's incremented after each committed catalog change, stock changes made by orders excepted. Versions are prefixed
+ * with the application start time because the catalog is reloaded at startup and may then differ from the one of a
+ * previous run.
+ * Reference data (cities, pay and shipment methods) has its own version, which only changes when it's reloaded (see
+ * {@link ReferenceData#reload()}).
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicReference<Version> referenceDataVersion = new AtomicReference<>(new Version(0, System.currentTimeMillis()));
+    private final AtomicReference<Version> currentVersion = new AtomicReference<>(referenceDataVersion.get());
+
+    public Version current() {
+        return currentVersion.get();
+    }
+
+    public Version referenceData() {
+        return referenceDataVersion.get();
+    }
+
+    synchronized void referenceDataChanged() {
+        referenceDataVersion.set(nextVersion());
+    }
+
+    // ordered last among catalog change listeners : caches and indexes must be up-to-date before clients are told the
+    // catalog changed, else they could get stale data under the new version and keep it until the next change
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        // stock isn't part of what the version validates, else no conditional request would get a 304 under order traffic
+        if (event.getChange() == CatalogChangedEvent.Change.STOCK_CHANGED) {
+            return;
+        }
+        currentVersion.set(nextVersion());
+    }
+
+    // both versions share the epoch, so they're numbered from a common sequence for their ETags not to collide
+    private Version nextVersion() {
+        long number = Math.max(currentVersion.get().number(), referenceDataVersion.get().number()) + 1;
+        return new Version(number, System.currentTimeMillis());
+    }
+
+    public class Version {
+
+        private final long number;
+        private final long modifiedAt;
+
+        private Version(long number, long modifiedAt) {
+            this.number = number;
+            this.modifiedAt = modifiedAt;
+        }
+
+        public long number() {
+            return number;
+        }
+
+        /**
+         * @return time of the change, in milliseconds since epoch
+         */
+        public long modifiedAt() {
+            return modifiedAt;
+        }
+
+        public String eTag() {
+            return "\"" + epoch + "-" + number + "\"";
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.switix.onlinebookstore.cache;
+
+import com.switix.onlinebookstore.model.City;
+import com.switix.onlinebookstore.model.Country;
+import com.switix.onlinebookstore.model.OrderStatus;
+import com.switix.onlinebookstore.model.PayMethod;
+import com.switix.onlinebookstore.model.Role;
+import com.switix.onlinebookstore.model.ShipmentMethod;
+import com.switix.onlinebookstore.repository.CityRepository;
+import com.switix.onlinebookstore.repository.CountryRepository;
+import com.switix.onlinebookstore.repository.OrderStatusRepository;
+import com.switix.onlinebookstore.repository.PayMethodRepository;
+import com.switix.onlinebookstore.repository.RoleRepository;
+import com.switix.onlinebookstore.repository.ShipmentMethodRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of the reference data (roles, order statuses, pay and shipment methods, countries and cities), indexed
+ * by id and name : those tables only change through deployments, so reading them from the database on each order,
+ * registration or address save isn't necessary.
+ * Data is loaded on first access, and replaced as a whole by {@link #reload()} which readers never see half done.
+ * Returned entities are detached and shared between threads, they must not be modified.
+ */
+@Component
+public class ReferenceData {
+
+    private final RoleRepository roleRepository;
+    private final OrderStatusRepository orderStatusRepository;
+    private final PayMethodRepository payMethodRepository;
+    private final ShipmentMethodRepository shipmentMethodRepository;
+    private final CountryRepository countryRepository;
+    private final CityRepository cityRepository;
+    private final CatalogVersion catalogVersion;
+
+    private volatile Snapshot snapshot;
+
+    public ReferenceData(RoleRepository roleRepository, OrderStatusRepository orderStatusRepository, PayMethodRepository payMethodRepository, ShipmentMethodRepository shipmentMethodRepository, CountryRepository countryRepository, CityRepository cityRepository, CatalogVersion catalogVersion) {
+        this.roleRepository = roleRepository;
+        this.orderStatusRepository = orderStatusRepository;
+        this.payMethodRepository = payMethodRepository;
+        this.shipmentMethodRepository = shipmentMethodRepository;
+        this.countryRepository = countryRepository;
+        this.cityRepository = cityRepository;
+        this.catalogVersion = catalogVersion;
+    }
+
+    public Optional<Role> role(String name) {
+        return snapshot().roles().byName(name);
+    }
+
+    public Optional<OrderStatus> orderStatus(Long id) {
+        return snapshot().orderStatuses().byId(id);
+    }
+
+    public Optional<OrderStatus> orderStatus(String status) {
+        return snapshot().orderStatuses().byName(status);
+    }
+
+    public Optional<PayMethod> payMethod(Long id) {
+        return snapshot().payMethods().byId(id);
+    }
+
+    public List<PayMethod> payMethods() {
+        return snapshot().payMethods().all();
+    }
+
+    public Optional<ShipmentMethod> shipmentMethod(Long id) {
+        return snapshot().shipmentMethods().byId(id);
+    }
+
+    public List<ShipmentMethod> shipmentMethods() {
+        return snapshot().shipmentMethods().all();
+    }
+
+    public Optional<Country> country(Long id) {
+        return snapshot().countries().byId(id);
+    }
+
+    public Optional<City> city(Long id) {
+        return snapshot().cities().byId(id);
+    }
+
+    public List<City> cities() {
+        return snapshot().cities().all();
+    }
+
+    /**
+     * Reads reference data again from the database, to be called after it was changed there. Clients are told about
+     * the change through the {@link CatalogVersion#referenceData() reference data version}.
+     */
+    public synchronized void reload() {
+        snapshot = load();
+        catalogVersion.referenceDataChanged();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot result = snapshot;
+        if (result == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = load();
+                }
+                result = snapshot;
+            }
+        }
+        return result;
+    }
+
+    private Snapshot load() {
+        return new Snapshot(
+                new Entries<>(roleRepository.findAll(), Role::getId, Role::getName),
+                new Entries<>(orderStatusRepository.findAll(), OrderStatus::getId, OrderStatus::getStatus),
+                new Entries<>(payMethodRepository.findAll(), PayMethod::getId, PayMethod::getName),
+                new Entries<>(shipmentMethodRepository.findAll(), ShipmentMethod::getId, ShipmentMethod::getName),
+                new Entries<>(countryRepository.findAll(), Country::getId, Country::getCountryName),
+                new Entries<>(cityRepository.findAll(), City::getId, City::getCityName));
+    }
+
+    private record Snapshot(Entries<Role> roles,
+                            Entries<OrderStatus> orderStatuses,
+                            Entries<PayMethod> payMethods,
+                            Entries<ShipmentMethod> shipmentMethods,
+                            Entries<Country> countries,
+                            Entries<City> cities) {
+    }
+
+    private static final class Entries<T> {
+
+        private final List<T> all;
+        private final Map<Long, T> byId;
+        private final Map<String, T> byName;
+
+        private Entries(List<T> entities, Function<T, Long> idGetter, Function<T, String> nameGetter) {
+            this.all = List.copyOf(entities);
+            this.byId = all.stream().collect(Collectors.toUnmodifiableMap(idGetter, Function.identity()));
+            // names are unique in practice, first one wins otherwise
+            this.byName = all.stream().collect(Collectors.toUnmodifiableMap(nameGetter, Function.identity(), (first, other) -> first));
+        }
+
+        private List<T> all() {
+            return all;
+        }
+
+        private Optional<T> byId(Long id) {
+            return id == null ? Optional.empty() : Optional.ofNullable(byId.get(id));
+        }
+
+        private Optional<T> byName(String name) {
+            return name == null ? Optional.empty() : Optional.ofNullable(byName.get(name));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.switix.onlinebookstore.cart;
+
+import com.switix.onlinebookstore.dto.CartItemDto;
+import com.switix.onlinebookstore.exception.CartItemNotFoundException;
+import com.switix.onlinebookstore.exception.ShoppingSessionNotFoundException;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.model.CartItem;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Storage of shopping carts, keyed by shopping session id. Items are only visible to the session they were added to,
+ * operations on an item of another session fail with {@link CartItemNotFoundException}. Adding items to the cart of
+ * a session which doesn't exist fails with {@link ShoppingSessionNotFoundException}.
+ * Implementation is chosen by the shopping.cart.store property (see {@link CartStoreConfig}).
+ */
+public interface CartStore {
+
+    /**
+     * @return items of the cart ordered by id, i.e. by addition, with their book up-to-date
+     */
+    List<CartItemDto> getItems(Long shoppingSessionId);
+
+    /**
+     * Adds a book to the cart, or increases its quantity if it's already in it
+     *
+     * @return item of the book in the cart
+     */
+    CartItem addItem(Long shoppingSessionId, Book book, int quantity);
+
+    void updateItem(Long shoppingSessionId, Long cartItemId, int quantity);
+
+    /**
+     * Sets the quantity of several books in the cart at once : books already in the cart get the given quantity, others
+     * are added, and books given with a quantity of 0 or less are removed.
+     *
+     * @param items books and their quantity, at most one item per book, ids are ignored
+     */
+    void upsertItems(Long shoppingSessionId, List<CartItemDto> items);
+
+    void deleteItem(Long shoppingSessionId, Long cartItemId);
+
+    /**
+     * Removes ordered items from the cart. When called in a transaction, items are given back to the cart if it's rolled
+     * back.
+     *
+     * @throws CartItemNotFoundException if some items are no longer in the cart, e.g. ordered by a concurrent checkout
+     */
+    void deleteItems(Long shoppingSessionId, List<Long> cartItemIds);
+
+    BigDecimal getTotal(Long shoppingSessionId);
+}
@@ -0,0 +1,33 @@
+package com.switix.onlinebookstore.cart;
+
+import com.switix.onlinebookstore.repository.BookRepository;
+import com.switix.onlinebookstore.repository.CartItemRepository;
+import com.switix.onlinebookstore.repository.ShoppingSessionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+@EnableScheduling
+public class CartStoreConfig {
+
+    public static final String STORE_PROPERTY = "shopping.cart.store";
+
+    @Bean
+    @ConditionalOnProperty(name = STORE_PROPERTY, havingValue = "database", matchIfMissing = true)
+    public CartStore databaseCartStore(CartItemRepository cartItemRepository, ShoppingSessionRepository shoppingSessionRepository) {
+        return new DatabaseCartStore(cartItemRepository, shoppingSessionRepository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = STORE_PROPERTY, havingValue = "memory")
+    public CartStore inMemoryCartStore(BookRepository bookRepository, ShoppingSessionRepository shoppingSessionRepository,
+                                       @Value("${shopping.cart.memory.time-to-live:2h}") Duration timeToLive) {
+        return new InMemoryCartStore(bookRepository, shoppingSessionRepository, timeToLive, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,139 @@
+package com.switix.onlinebookstore.cart;
+
+import com.switix.onlinebookstore.dto.CartItemDto;
+import com.switix.onlinebookstore.exception.CartItemNotFoundException;
+import com.switix.onlinebookstore.exception.ShoppingSessionNotFoundException;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.model.CartItem;
+import com.switix.onlinebookstore.repository.CartItemRepository;
+import com.switix.onlinebookstore.repository.ShoppingSessionRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps carts in the cart_item table, the total of a cart being maintained in its shopping_session row by deltas
+ * (recomputed periodically by CartTotalReconciliation).
+ * Every change of a cart starts by locking its shopping_session row, either through the delta of an addition or
+ * explicitly, so that concurrent changes of a cart run one after the other and none of them computes its delta from
+ * a quantity that another one is changing.
+ */
+public class DatabaseCartStore implements CartStore {
+
+    private final CartItemRepository cartItemRepository;
+    private final ShoppingSessionRepository shoppingSessionRepository;
+
+    public DatabaseCartStore(CartItemRepository cartItemRepository, ShoppingSessionRepository shoppingSessionRepository) {
+        this.cartItemRepository = cartItemRepository;
+        this.shoppingSessionRepository = shoppingSessionRepository;
+    }
+
+    @Override
+    public List<CartItemDto> getItems(Long shoppingSessionId) {
+        return cartItemRepository.findAllByShoppingSession_IdOrderById(shoppingSessionId).stream()
+                .map(cartItem -> new CartItemDto(cartItem.getId(), cartItem.getBook(), cartItem.getQuantity()))
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public CartItem addItem(Long shoppingSessionId, Book book, int quantity) {
+        // also checks that the session exists, the item isn't inserted otherwise
+        if (shoppingSessionRepository.addToTotal(shoppingSessionId, lineTotal(book, quantity)) == 0) {
+            throw new ShoppingSessionNotFoundException("Shopping session not found");
+        }
+
+        Long cartItemId = cartItemRepository.upsertQuantity(shoppingSessionId, book.getId(), quantity);
+        return cartItemRepository.findById(cartItemId).orElseThrow();
+    }
+
+    @Override
+    @Transactional
+    public void updateItem(Long shoppingSessionId, Long cartItemId, int quantity) {
+        lockCart(shoppingSessionId);
+        CartItem cartItem = cartItemRepository.findByIdAndShoppingSession_Id(cartItemId, shoppingSessionId)
+                .orElseThrow(() -> new CartItemNotFoundException("Cart item not found"));
+
+        int quantityDelta = quantity - cartItem.getQuantity();
+        cartItem.setQuantity(quantity);
+        cartItemRepository.save(cartItem);
+
+        shoppingSessionRepository.addToTotal(shoppingSessionId, lineTotal(cartItem.getBook(), quantityDelta));
+    }
+
+    @Override
+    @Transactional
+    public void upsertItems(Long shoppingSessionId, List<CartItemDto> items) {
+        lockCart(shoppingSessionId);
+        Map<Long, CartItem> cartItemsByBookId = cartItemRepository.findAllByShoppingSession_IdOrderById(shoppingSessionId).stream()
+                .collect(Collectors.toMap(cartItem -> cartItem.getBook().getId(), Function.identity(), (first, other) -> first));
+        List<CartItem> savedCartItems = new ArrayList<>();
+        List<CartItem> deletedCartItems = new ArrayList<>();
+        for (CartItemDto item : items) {
+            CartItem cartItem = cartItemsByBookId.get(item.getBook().getId());
+            if (item.getQuantity() <= 0) {
+                if (cartItem != null) {
+                    deletedCartItems.add(cartItem);
+                }
+                continue;
+            }
+            if (cartItem == null) {
+                cartItem = new CartItem();
+                cartItem.setBook(item.getBook());
+                cartItem.setShoppingSession(shoppingSessionRepository.getReferenceById(shoppingSessionId));
+            }
+            cartItem.setQuantity(item.getQuantity());
+            savedCartItems.add(cartItem);
+        }
+        // inserts and updates are sent as JDBC batches at flush, deletes as one statement
+        cartItemRepository.saveAll(savedCartItems);
+        cartItemRepository.deleteAllInBatch(deletedCartItems);
+        shoppingSessionRepository.recomputeTotal(shoppingSessionId);
+    }
+
+    @Override
+    @Transactional
+    public void deleteItem(Long shoppingSessionId, Long cartItemId) {
+        lockCart(shoppingSessionId);
+        CartItem cartItem = cartItemRepository.findByIdAndShoppingSession_Id(cartItemId, shoppingSessionId)
+                .orElseThrow(() -> new CartItemNotFoundException("Cart item not found"));
+
+        cartItemRepository.delete(cartItem);
+
+        shoppingSessionRepository.addToTotal(shoppingSessionId, lineTotal(cartItem.getBook(), -cartItem.getQuantity()));
+    }
+
+    @Override
+    @Transactional
+    public void deleteItems(Long shoppingSessionId, List<Long> cartItemIds) {
+        lockCart(shoppingSessionId);
+        // items missing from the cart were removed since it was read : they mustn't be ordered twice
+        if (cartItemRepository.deleteAllByShoppingSessionIdAndIdIn(shoppingSessionId, cartItemIds) < cartItemIds.size()) {
+            throw new CartItemNotFoundException("Cart item not found");
+        }
+        // items added since the cart was read stay in it, and so does their price in the total
+        shoppingSessionRepository.recomputeTotal(shoppingSessionId);
+    }
+
+    @Override
+    public BigDecimal getTotal(Long shoppingSessionId) {
+        return shoppingSessionRepository.findById(shoppingSessionId)
+                .orElseThrow(() -> new ShoppingSessionNotFoundException("Shopping session not found"))
+                .getTotal();
+    }
+
+    private void lockCart(Long shoppingSessionId) {
+        if (shoppingSessionRepository.lockById(shoppingSessionId).isEmpty()) {
+            throw new ShoppingSessionNotFoundException("Shopping session not found");
+        }
+    }
+
+    private static BigDecimal lineTotal(Book book, int quantity) {
+        return book.getPrice().multiply(BigDecimal.valueOf(quantity));
+    }
+}
@@ -0,0 +1,253 @@
+package com.switix.onlinebookstore.cart;
+
+import com.switix.onlinebookstore.dto.CartItemDto;
+import com.switix.onlinebookstore.exception.CartItemNotFoundException;
+import com.switix.onlinebookstore.exception.ShoppingSessionNotFoundException;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.model.CartItem;
+import com.switix.onlinebookstore.repository.BookRepository;
+import com.switix.onlinebookstore.repository.ShoppingSessionRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps carts in memory, so that cart changes don't write to the database : only orders made from them are persisted.
+ * Carts are lost on restart, and evicted once not accessed for their time-to-live.
+ * A cart is only read and changed through atomic operations of the map holding it, which lock the bin of its session
+ * id : operations on different carts rarely contend, and a cart can't be changed while being evicted.
+ * Only book ids and quantities are kept, books are read from the database when items are listed, and a session is
+ * only checked to exist in the database when its cart is created.
+ */
+public class InMemoryCartStore implements CartStore {
+
+    private final BookRepository bookRepository;
+    private final ShoppingSessionRepository shoppingSessionRepository;
+    private final long timeToLive;
+    private final Clock clock;
+    private final Map<Long, Cart> carts = new ConcurrentHashMap<>();
+    private final AtomicLong cartItemIds = new AtomicLong();
+
+    public InMemoryCartStore(BookRepository bookRepository, ShoppingSessionRepository shoppingSessionRepository, Duration timeToLive, Clock clock) {
+        this.bookRepository = bookRepository;
+        this.shoppingSessionRepository = shoppingSessionRepository;
+        this.timeToLive = timeToLive.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public List<CartItemDto> getItems(Long shoppingSessionId) {
+        List<Line> lines = new ArrayList<>();
+        carts.computeIfPresent(shoppingSessionId, (id, cart) -> {
+            lines.addAll(cart.lines.values());
+            return cart.touch(clock);
+        });
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> booksById = bookRepository.findAllById(lines.stream().map(Line::bookId).distinct().toList()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<CartItemDto> cartItems = new ArrayList<>(lines.size());
+        for (Line line : lines) {
+            Book book = booksById.get(line.bookId());
+            // book may have been deleted since it was added to the cart
+            if (book != null) {
+                cartItems.add(new CartItemDto(line.cartItemId(), book, line.quantity()));
+            }
+        }
+        // prices in the cart follow the ones of the catalog
+        carts.computeIfPresent(shoppingSessionId, (id, cart) -> {
+            cart.lines.replaceAll((cartItemId, line) -> {
+                Book book = booksById.get(line.bookId());
+                return book == null ? line : new Line(cartItemId, line.bookId(), book.getPrice(), line.quantity());
+            });
+            return cart;
+        });
+        return cartItems;
+    }
+
+    @Override
+    public CartItem addItem(Long shoppingSessionId, Book book, int quantity) {
+        checkSession(shoppingSessionId);
+        Line[] added = new Line[1];
+        carts.compute(shoppingSessionId, (id, cart) -> {
+            Cart result = cart == null ? new Cart() : cart;
+            Line line = result.lines.values().stream()
+                    .filter(existingLine -> existingLine.bookId().equals(book.getId()))
+                    .findFirst()
+                    .map(existingLine -> new Line(existingLine.cartItemId(), book.getId(), book.getPrice(), existingLine.quantity() + quantity))
+                    .orElseGet(() -> new Line(cartItemIds.incrementAndGet(), book.getId(), book.getPrice(), quantity));
+            result.lines.put(line.cartItemId(), line);
+            added[0] = line;
+            return result.touch(clock);
+        });
+
+        CartItem cartItem = new CartItem();
+        cartItem.setId(added[0].cartItemId());
+        cartItem.setBook(book);
+        cartItem.setQuantity(added[0].quantity());
+        return cartItem;
+    }
+
+    @Override
+    public void updateItem(Long shoppingSessionId, Long cartItemId, int quantity) {
+        boolean[] updated = new boolean[1];
+        carts.computeIfPresent(shoppingSessionId, (id, cart) -> {
+            updated[0] = cart.lines.computeIfPresent(cartItemId, (lineId, line) -> new Line(lineId, line.bookId(), line.price(), quantity)) != null;
+            return cart.touch(clock);
+        });
+        if (!updated[0]) {
+            throw new CartItemNotFoundException("Cart item not found");
+        }
+    }
+
+    @Override
+    public void upsertItems(Long shoppingSessionId, List<CartItemDto> items) {
+        checkSession(shoppingSessionId);
+        carts.compute(shoppingSessionId, (id, cart) -> {
+            Cart result = cart == null ? new Cart() : cart;
+            Map<Long, Long> cartItemIdsByBookId = new HashMap<>();
+            result.lines.values().forEach(line -> cartItemIdsByBookId.putIfAbsent(line.bookId(), line.cartItemId()));
+            for (CartItemDto item : items) {
+                Book book = item.getBook();
+                Long cartItemId = cartItemIdsByBookId.get(book.getId());
+                if (item.getQuantity() <= 0) {
+                    if (cartItemId != null) {
+                        result.lines.remove(cartItemId);
+                    }
+                } else if (cartItemId != null) {
+                    result.lines.put(cartItemId, new Line(cartItemId, book.getId(), book.getPrice(), item.getQuantity()));
+                } else {
+                    Line line = new Line(cartItemIds.incrementAndGet(), book.getId(), book.getPrice(), item.getQuantity());
+                    result.lines.put(line.cartItemId(), line);
+                }
+            }
+            return result.lines.isEmpty() ? null : result.touch(clock);
+        });
+    }
+
+    @Override
+    public void deleteItem(Long shoppingSessionId, Long cartItemId) {
+        boolean[] deleted = new boolean[1];
+        carts.computeIfPresent(shoppingSessionId, (id, cart) -> {
+            deleted[0] = cart.lines.remove(cartItemId) != null;
+            return cart.touch(clock);
+        });
+        if (!deleted[0]) {
+            throw new CartItemNotFoundException("Cart item not found");
+        }
+    }
+
+    @Override
+    public void deleteItems(Long shoppingSessionId, List<Long> cartItemIds) {
+        if (cartItemIds.isEmpty()) {
+            return;
+        }
+        // lines are detached as soon as they're checked, under the lock of the cart : a concurrent checkout of the same
+        // cart finds them missing rather than ordering them a second time
+        List<Line> detached = new ArrayList<>(cartItemIds.size());
+        carts.computeIfPresent(shoppingSessionId, (id, cart) -> {
+            if (!cart.lines.keySet().containsAll(cartItemIds)) {
+                return cart;
+            }
+            cartItemIds.forEach(cartItemId -> detached.add(cart.lines.remove(cartItemId)));
+            // an emptied cart is dropped, returning null from computeIfPresent removes it
+            return cart.lines.isEmpty() ? null : cart.touch(clock);
+        });
+        // items missing from the cart were removed since it was read : they mustn't be ordered twice
+        if (detached.isEmpty()) {
+            throw new CartItemNotFoundException("Cart item not found");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // the order may still fail, the cart must be given its lines back then
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        restoreLines(shoppingSessionId, detached);
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public BigDecimal getTotal(Long shoppingSessionId) {
+        BigDecimal[] total = {BigDecimal.ZERO};
+        carts.computeIfPresent(shoppingSessionId, (id, cart) -> {
+            total[0] = cart.lines.values().stream()
+                    .map(line -> line.price().multiply(BigDecimal.valueOf(line.quantity())))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            return cart.touch(clock);
+        });
+        return total[0];
+    }
+
+    @Scheduled(fixedDelayString = "${shopping.cart.memory.eviction-interval:PT1M}")
+    public void evictExpiredCarts() {
+        long expiredBefore = clock.millis() - timeToLive;
+        // expiration is checked under the lock of each cart : one touched meanwhile is kept
+        carts.keySet().forEach(shoppingSessionId ->
+                carts.computeIfPresent(shoppingSessionId, (id, cart) -> cart.lastAccess < expiredBefore ? null : cart));
+    }
+
+    int size() {
+        return carts.size();
+    }
+
+    // a cart is only created for an existing session, the ones holding a cart were already checked
+    private void checkSession(Long shoppingSessionId) {
+        if (!carts.containsKey(shoppingSessionId) && !shoppingSessionRepository.existsById(shoppingSessionId)) {
+            throw new ShoppingSessionNotFoundException("Shopping session not found");
+        }
+    }
+
+    private void restoreLines(Long shoppingSessionId, List<Line> lines) {
+        carts.compute(shoppingSessionId, (id, cart) -> {
+            Cart result = cart == null ? new Cart() : cart;
+            for (Line line : lines) {
+                // the book may have been added again while its line was detached : the line put back takes its quantity
+                int addedQuantity = result.lines.values().stream()
+                        .filter(existingLine -> existingLine.bookId().equals(line.bookId()))
+                        .findFirst()
+                        .map(existingLine -> result.lines.remove(existingLine.cartItemId()).quantity())
+                        .orElse(0);
+                result.lines.put(line.cartItemId(), new Line(line.cartItemId(), line.bookId(), line.price(), line.quantity() + addedQuantity));
+            }
+            // lines put back go at their place in the order of addition
+            List<Line> sortedLines = result.lines.values().stream().sorted(Comparator.comparing(Line::cartItemId)).toList();
+            result.lines.clear();
+            sortedLines.forEach(line -> result.lines.put(line.cartItemId(), line));
+            return result.touch(clock);
+        });
+    }
+
+    private record Line(Long cartItemId, Long bookId, BigDecimal price, int quantity) {
+    }
+
+    private static class Cart {
+
+        // ordered by addition, as item ids are
+        private final Map<Long, Line> lines = new LinkedHashMap<>();
+        private long lastAccess;
+
+        private Cart touch(Clock clock) {
+            lastAccess = clock.millis();
+            return this;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.switix.onlinebookstore.controller;
 
+import com.switix.onlinebookstore.cache.CatalogVersion;
 import com.switix.onlinebookstore.dto.CreateAuthorDto;
 import com.switix.onlinebookstore.dto.UpdateAuthorDto;
 import com.switix.onlinebookstore.exception.AuthorNotFoundException;
@@ -8,6 +9,7 @@ import com.switix.onlinebookstore.service.AuthorService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -18,16 +20,18 @@ import java.net.URI;
 public class AuthorController {
 
     private final AuthorService authorService;
+    private final CatalogVersion catalogVersion;
 
 
-    public AuthorController(AuthorService authorService) {
+    public AuthorController(AuthorService authorService, CatalogVersion catalogVersion) {
         this.authorService = authorService;
+        this.catalogVersion = catalogVersion;
     }
 
 
     @GetMapping("/{authorId}")
-    public ResponseEntity<Author> getAuthor(@PathVariable Long authorId) {
-        return ResponseEntity.of(authorService.getAuthor(authorId));
+    public ResponseEntity<Author> getAuthor(@PathVariable Long authorId, WebRequest request) {
+        return ConditionalResponses.ifModifiedOrNotFound(request, catalogVersion.current(), () -> authorService.getAuthor(authorId));
     }
 
     @PatchMapping("admin")
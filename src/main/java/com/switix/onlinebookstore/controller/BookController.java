@@ -1,5 +1,8 @@
 package com.switix.onlinebookstore.controller;
 
+import com.switix.onlinebookstore.cache.CatalogVersion;
+import com.switix.onlinebookstore.dto.BookSummaryDto;
+import com.switix.onlinebookstore.dto.CatalogPageDto;
 import com.switix.onlinebookstore.dto.SaveBookDto;
 import com.switix.onlinebookstore.dto.UpdateBookDto;
 import com.switix.onlinebookstore.exception.BookNotFoundException;
@@ -9,6 +12,7 @@ import com.switix.onlinebookstore.service.BookService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -20,29 +24,91 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final CatalogVersion catalogVersion;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, CatalogVersion catalogVersion) {
         this.bookService = bookService;
+        this.catalogVersion = catalogVersion;
     }
 
     @GetMapping
-    public List<Book> getBooks() {
-        return bookService.getAllBooks(false);
+    public ResponseEntity<List<Book>> getBooks(WebRequest request) {
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), () -> bookService.getAllBooks(false));
+    }
+
+    @GetMapping(params = "size")
+    public ResponseEntity<CatalogPageDto<Book>> getBooks(@RequestParam int size, @RequestParam(required = false) String pageToken, WebRequest request) {
+        int pageSize = ContinuationTokens.pageSize(size);
+        Long lastBookId = ContinuationTokens.decode(pageToken);
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), () -> {
+            List<Book> books = bookService.getBooksAfter(lastBookId, pageSize, false);
+            return ContinuationTokens.toPage(books, pageSize, Book::getId);
+        });
     }
 
     @GetMapping("/{bookId}")
-    public ResponseEntity<Book> getBook(@PathVariable Long bookId) {
-        return ResponseEntity.of(bookService.getBook(bookId));
+    public ResponseEntity<Book> getBook(@PathVariable Long bookId, WebRequest request) {
+        return ConditionalResponses.ifModifiedOrNotFound(request, catalogVersion.current(), () -> bookService.getBook(bookId));
     }
 
     @GetMapping("categories/{categoryId}")
-    public List<Book> getBooksByCategory(@PathVariable Long categoryId) {
-        return bookService.getAllBooksByCategory(categoryId,false);
+    public ResponseEntity<List<Book>> getBooksByCategory(@PathVariable Long categoryId, WebRequest request) {
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), () -> bookService.getAllBooksByCategory(categoryId, false));
+    }
+
+    @GetMapping(path = "categories/{categoryId}", params = "size")
+    public ResponseEntity<CatalogPageDto<Book>> getBooksByCategory(@PathVariable Long categoryId, @RequestParam int size, @RequestParam(required = false) String pageToken, WebRequest request) {
+        int pageSize = ContinuationTokens.pageSize(size);
+        Long lastBookId = ContinuationTokens.decode(pageToken);
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), () -> {
+            List<Book> books = bookService.getBooksByCategoryAfter(categoryId, lastBookId, pageSize, false);
+            return ContinuationTokens.toPage(books, pageSize, Book::getId);
+        });
     }
 
     @GetMapping("authors/{authorId}")
-    public List<Book> getBooksMadeByAuthor(@PathVariable Long authorId) {
-        return bookService.getAllBooksByAuthor(authorId,false);
+    public ResponseEntity<List<Book>> getBooksMadeByAuthor(@PathVariable Long authorId, WebRequest request) {
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), () -> bookService.getAllBooksByAuthor(authorId, false));
+    }
+
+    @GetMapping(path = "authors/{authorId}", params = "size")
+    public ResponseEntity<CatalogPageDto<Book>> getBooksMadeByAuthor(@PathVariable Long authorId, @RequestParam int size, @RequestParam(required = false) String pageToken, WebRequest request) {
+        int pageSize = ContinuationTokens.pageSize(size);
+        Long lastBookId = ContinuationTokens.decode(pageToken);
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), () -> {
+            List<Book> books = bookService.getBooksByAuthorAfter(authorId, lastBookId, pageSize, false);
+            return ContinuationTokens.toPage(books, pageSize, Book::getId);
+        });
+    }
+
+    @GetMapping("summaries")
+    public ResponseEntity<CatalogPageDto<BookSummaryDto>> getBookSummaries(@RequestParam(defaultValue = "20") int size, @RequestParam(required = false) String pageToken, WebRequest request) {
+        int pageSize = ContinuationTokens.pageSize(size);
+        Long lastBookId = ContinuationTokens.decode(pageToken);
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), () -> {
+            List<BookSummaryDto> books = bookService.getBookSummariesAfter(lastBookId, pageSize, false);
+            return ContinuationTokens.toPage(books, pageSize, BookSummaryDto::getId);
+        });
+    }
+
+    @GetMapping("summaries/categories/{categoryId}")
+    public ResponseEntity<CatalogPageDto<BookSummaryDto>> getBookSummariesByCategory(@PathVariable Long categoryId, @RequestParam(defaultValue = "20") int size, @RequestParam(required = false) String pageToken, WebRequest request) {
+        int pageSize = ContinuationTokens.pageSize(size);
+        Long lastBookId = ContinuationTokens.decode(pageToken);
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), () -> {
+            List<BookSummaryDto> books = bookService.getBookSummariesByCategoryAfter(categoryId, lastBookId, pageSize, false);
+            return ContinuationTokens.toPage(books, pageSize, BookSummaryDto::getId);
+        });
+    }
+
+    @GetMapping("summaries/authors/{authorId}")
+    public ResponseEntity<CatalogPageDto<BookSummaryDto>> getBookSummariesMadeByAuthor(@PathVariable Long authorId, @RequestParam(defaultValue = "20") int size, @RequestParam(required = false) String pageToken, WebRequest request) {
+        int pageSize = ContinuationTokens.pageSize(size);
+        Long lastBookId = ContinuationTokens.decode(pageToken);
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), () -> {
+            List<BookSummaryDto> books = bookService.getBookSummariesByAuthorAfter(authorId, lastBookId, pageSize, false);
+            return ContinuationTokens.toPage(books, pageSize, BookSummaryDto::getId);
+        });
     }
 
     @PostMapping("/admin")
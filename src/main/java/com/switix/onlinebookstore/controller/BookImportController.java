@@ -0,0 +1,35 @@
+package com.switix.onlinebookstore.controller;
+
+import com.switix.onlinebookstore.bookimport.BookImportFormat;
+import com.switix.onlinebookstore.bookimport.BookImporter;
+import com.switix.onlinebookstore.dto.BookImportReportDto;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("api/books/admin/import")
+public class BookImportController {
+
+    private final BookImporter bookImporter;
+
+    public BookImportController(BookImporter bookImporter) {
+        this.bookImporter = bookImporter;
+    }
+
+    // the file is the raw request body rather than a multipart part, so that it's streamed whatever its size
+    @PostMapping(consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public BookImportReportDto importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream content) throws IOException {
+        BookImportFormat format = BookImportFormat.of(contentType)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Unsupported import format: " + contentType));
+        return bookImporter.importBooks(content, format);
+    }
+}
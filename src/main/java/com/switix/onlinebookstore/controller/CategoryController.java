@@ -1,5 +1,6 @@
 package com.switix.onlinebookstore.controller;
 
+import com.switix.onlinebookstore.cache.CatalogVersion;
 import com.switix.onlinebookstore.dto.CategoryBookCountDto;
 import com.switix.onlinebookstore.dto.CreateCategoryDto;
 import com.switix.onlinebookstore.dto.UpdateCategoryDto;
@@ -9,6 +10,7 @@ import com.switix.onlinebookstore.service.CategoryService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -20,19 +22,21 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogVersion catalogVersion;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, CatalogVersion catalogVersion) {
         this.categoryService = categoryService;
+        this.catalogVersion = catalogVersion;
     }
 
     @GetMapping("/{categoryId}")
-    public ResponseEntity<Category> getCategory(@PathVariable Long categoryId) {
-        return ResponseEntity.of(categoryService.getCategory(categoryId));
+    public ResponseEntity<Category> getCategory(@PathVariable Long categoryId, WebRequest request) {
+        return ConditionalResponses.ifModifiedOrNotFound(request, catalogVersion.current(), () -> categoryService.getCategory(categoryId));
     }
 
     @GetMapping
-    public List<CategoryBookCountDto> getCategories() {
-        return categoryService.countBooksByCategory();
+    public ResponseEntity<List<CategoryBookCountDto>> getCategories(WebRequest request) {
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), categoryService::countBooksByCategory);
     }
 
     @PatchMapping("admin")
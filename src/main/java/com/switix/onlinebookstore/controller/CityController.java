@@ -1,10 +1,13 @@
 package com.switix.onlinebookstore.controller;
 
+import com.switix.onlinebookstore.cache.CatalogVersion;
+import com.switix.onlinebookstore.cache.ReferenceData;
 import com.switix.onlinebookstore.model.City;
-import com.switix.onlinebookstore.repository.CityRepository;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -12,14 +15,16 @@ import java.util.List;
 @RequestMapping("api/cities")
 public class CityController {
 
-    private final CityRepository cityRepository;
+    private final ReferenceData referenceData;
+    private final CatalogVersion catalogVersion;
 
-    public CityController(CityRepository cityRepository) {
-        this.cityRepository = cityRepository;
+    public CityController(ReferenceData referenceData, CatalogVersion catalogVersion) {
+        this.referenceData = referenceData;
+        this.catalogVersion = catalogVersion;
     }
 
     @GetMapping
-    List<City> getAllCities(){
-        return cityRepository.findAll();
+    ResponseEntity<List<City>> getAllCities(WebRequest request){
+        return ConditionalResponses.ifModified(request, catalogVersion.referenceData(), referenceData::cities);
     }
 }
@@ -0,0 +1,49 @@
+package com.switix.onlinebookstore.controller;
+
+import com.switix.onlinebookstore.cache.CatalogVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Builds responses of catalog resources validated by a {@link CatalogVersion.Version} : when the client already has
+ * the current version, a 304 is returned without computing the body.
+ * Responses are marked "no-cache" so that clients revalidate them on each use (it also prevents Spring Security from
+ * adding its default "no-store" directive, which would forbid clients to keep them at all).
+ */
+public final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    public static <T> ResponseEntity<T> ifModified(WebRequest request, CatalogVersion.Version version, Supplier<T> body) {
+        if (request.checkNotModified(version.eTag(), version.modifiedAt())) {
+            return notModified(version);
+        }
+        return validated(ResponseEntity.ok(), version).body(body.get());
+    }
+
+    public static <T> ResponseEntity<T> ifModifiedOrNotFound(WebRequest request, CatalogVersion.Version version, Supplier<Optional<T>> body) {
+        if (request.checkNotModified(version.eTag(), version.modifiedAt())) {
+            return notModified(version);
+        }
+        return body.get()
+                .map(found -> validated(ResponseEntity.ok(), version).body(found))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static <T> ResponseEntity<T> notModified(CatalogVersion.Version version) {
+        return validated(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version).build();
+    }
+
+    private static ResponseEntity.BodyBuilder validated(ResponseEntity.BodyBuilder builder, CatalogVersion.Version version) {
+        return builder
+                .eTag(version.eTag())
+                .lastModified(version.modifiedAt())
+                .cacheControl(CacheControl.noCache());
+    }
+}
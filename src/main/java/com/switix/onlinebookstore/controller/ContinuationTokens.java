@@ -0,0 +1,56 @@
+package com.switix.onlinebookstore.controller;
+
+import com.switix.onlinebookstore.dto.CatalogPageDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Encodes and decodes the opaque tokens given to clients to read the next page of a keyset paginated listing.
+ * A token wraps the id of the last element of the previous page, clients must not rely on its content.
+ */
+public final class ContinuationTokens {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final Long FIRST_PAGE = 0L;
+
+    private ContinuationTokens() {
+    }
+
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Long decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST_PAGE;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page token", e);
+        }
+    }
+
+    /**
+     * Same as {@link #decode(String)} for listings sorted by descending id, whose first page starts above any id.
+     */
+    public static Long decodeDescending(String token) {
+        return token == null || token.isBlank() ? Long.MAX_VALUE : decode(token);
+    }
+
+    public static int pageSize(int requestedSize) {
+        return Math.max(1, Math.min(requestedSize, MAX_PAGE_SIZE));
+    }
+
+    public static <T> CatalogPageDto<T> toPage(List<T> items, int pageSize, Function<T, Long> idGetter) {
+        // a short page means we reached the end of the listing
+        String nextPageToken = items.size() < pageSize ? null : encode(idGetter.apply(items.get(items.size() - 1)));
+        return new CatalogPageDto<>(items, nextPageToken);
+    }
+}
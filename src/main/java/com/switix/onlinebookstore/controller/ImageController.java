@@ -1,7 +1,12 @@
 package com.switix.onlinebookstore.controller;
 
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import com.switix.onlinebookstore.exception.ImageTooLargeException;
+import com.switix.onlinebookstore.image.ImageSender;
+import com.switix.onlinebookstore.image.ImageStore;
+import com.switix.onlinebookstore.image.ImageVariant;
+import com.switix.onlinebookstore.image.ImageUploads;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -11,63 +16,80 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("api/images")
 public class ImageController {
 
-    @GetMapping("{imageName}")
-    public ResponseEntity<Resource> getImage(@PathVariable String imageName) {
-        Resource image = new FileSystemResource("src/main/resources/static/images/" + imageName);
+    private final ImageStore imageStore;
+    private final ImageSender imageSender;
+    private final ImageUploads imageUploads;
+
+    public ImageController(ImageStore imageStore, ImageSender imageSender, ImageUploads imageUploads) {
+        this.imageStore = imageStore;
+        this.imageSender = imageSender;
+        this.imageUploads = imageUploads;
+    }
 
-        if (image.exists()) {
-            return ResponseEntity.ok()
-                    .contentType(MediaType.IMAGE_JPEG)
-                    .body(image);
+    @GetMapping("{imageName}")
+    public void getImage(@PathVariable String imageName, @RequestParam(required = false) String size,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path image = imageStore.find(imageName)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (size == null) {
+            imageSender.send(image, request, response);
+            return;
+        }
+        ImageVariant variant = ImageVariant.forName(size)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown image size " + size));
+        Optional<Path> variantImage = imageStore.find(imageName, variant);
+        if (variantImage.isPresent()) {
+            imageSender.send(variantImage.get(), request, response);
         } else {
-            return ResponseEntity.notFound().build();
+            // variant is still being generated : the original stands in for it, but must not be cached as the variant
+            imageSender.sendRevalidated(image, request, response);
         }
     }
-    @PostMapping("/upload")
-    public ResponseEntity<String> handleFileUpload(@RequestPart("file") MultipartFile file) {
-        if (!file.isEmpty()) {
-            try (InputStream inputStream = file.getInputStream()) {
-                String uploadDir = "src/main/resources/static/images/";
-
-
-                // Generate a timestamp using System.currentTimeMillis()
-                String timestamp = Long.toString(System.currentTimeMillis());
-
-                // Get the original filename and file extension
-                String originalFilename = file.getOriginalFilename();
-                String fileExtension = originalFilename.substring(originalFilename.lastIndexOf('.'));
-
-                // Create the new filename with timestamp
-                String filenameWithTimestamp = originalFilename.replace(fileExtension, "_" + timestamp + fileExtension);
-
-                Path dirPath = Paths.get(uploadDir).toAbsolutePath().normalize();
-                // Define the path to save the uploaded file with timestamp in filename
-                Path path = dirPath.resolve(filenameWithTimestamp);
 
-                try (OutputStream outputStream = Files.newOutputStream(path)) {
-                    byte[] buffer = new byte[4096]; // Use a larger buffer size
-                    int bytesRead;
-                    while ((bytesRead = inputStream.read(buffer)) != -1) {
-                        outputStream.write(buffer, 0, bytesRead);
-                    }
+    @PostMapping(path = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<String> handleFileUpload(@RequestPart("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Empty file");
+        }
+        // the part is already on disk (see spring.servlet.multipart.*), it's read from there
+        try (InputStream inputStream = file.getInputStream()) {
+            return ResponseEntity.ok(store(inputStream, file.getOriginalFilename()));
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error uploading file", e);
+        }
+    }
 
-                    return ResponseEntity.ok(filenameWithTimestamp);
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error uploading file");
-            }
-        } else {
+    /**
+     * Upload of an image sent as request body, streamed to disk as it's received.
+     */
+    @PostMapping(path = "/upload", consumes = "image/*")
+    public ResponseEntity<String> handleImageUpload(@RequestParam String filename, HttpServletRequest request) {
+        if (request.getContentLengthLong() == 0) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Empty file");
         }
+        // rejected before reading anything when the client announces its size
+        if (request.getContentLengthLong() > imageUploads.getMaxSize()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Image exceeds maximum size of " + imageUploads.getMaxSize() + " bytes");
+        }
+        try {
+            return ResponseEntity.ok(store(request.getInputStream(), filename));
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error uploading file", e);
+        }
+    }
+
+    private String store(InputStream content, String filename) throws IOException {
+        try {
+            return imageUploads.store(content, filename);
+        } catch (ImageTooLargeException e) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage(), e);
+        }
     }
 }
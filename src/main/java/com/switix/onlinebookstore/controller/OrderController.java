@@ -1,41 +1,57 @@
 package com.switix.onlinebookstore.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.switix.onlinebookstore.cache.CatalogVersion;
+import com.switix.onlinebookstore.cache.ReferenceData;
+import com.switix.onlinebookstore.dto.CatalogPageDto;
 import com.switix.onlinebookstore.dto.OrderDetailCreationDto;
 import com.switix.onlinebookstore.dto.OrderDetailDto;
 import com.switix.onlinebookstore.dto.OrderItemDto;
 import com.switix.onlinebookstore.dto.UpdateOrderDto;
 import com.switix.onlinebookstore.exception.BookInsufficientStockException;
+import com.switix.onlinebookstore.exception.CartItemNotFoundException;
 import com.switix.onlinebookstore.exception.EmptyShoppingCartException;
 import com.switix.onlinebookstore.exception.OrderDetailNotFoundException;
 import com.switix.onlinebookstore.exception.OrderStatusNotFoundException;
+import com.switix.onlinebookstore.exception.PayMethodNotFoundException;
+import com.switix.onlinebookstore.exception.ShipmentMethodNotFoundException;
 import com.switix.onlinebookstore.model.AppUser;
 import com.switix.onlinebookstore.model.OrderDetail;
 import com.switix.onlinebookstore.model.PayMethod;
 import com.switix.onlinebookstore.model.ShipmentMethod;
-import com.switix.onlinebookstore.repository.PayMethodRepository;
-import com.switix.onlinebookstore.repository.ShipmentMethodRepository;
 import com.switix.onlinebookstore.service.OrderService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
 
 @RequestMapping("api/orders")
 @RestController
 public class OrderController {
     private final OrderService orderService;
-    private final PayMethodRepository payMethodRepository;
-    private final ShipmentMethodRepository shipmentMethodRepository;
+    private final ReferenceData referenceData;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
 
-    public OrderController(OrderService orderService, PayMethodRepository payMethodRepository, ShipmentMethodRepository shipmentMethodRepository) {
+    public OrderController(OrderService orderService, ReferenceData referenceData, CatalogVersion catalogVersion, ObjectMapper objectMapper) {
         this.orderService = orderService;
-        this.payMethodRepository = payMethodRepository;
-        this.shipmentMethodRepository = shipmentMethodRepository;
+        this.referenceData = referenceData;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/{orderDetailId}")
@@ -54,11 +70,53 @@ public class OrderController {
         return orderService.getOrdersDetail(appUserId);
     }
 
+    @GetMapping(params = "size")
+    public CatalogPageDto<OrderDetailDto> getOrderDetails(@RequestParam int size, @RequestParam(required = false) String pageToken,
+                                                          @RequestParam(required = false) Instant from, @RequestParam(required = false) Instant to,
+                                                          Authentication authentication) {
+        Long appUserId = ((AppUser) authentication.getPrincipal()).getId();
+        int pageSize = ContinuationTokens.pageSize(size);
+        Long beforeOrderId = ContinuationTokens.decodeDescending(pageToken);
+        List<OrderDetailDto> orderDetails = orderService.getOrdersDetailBefore(appUserId, beforeOrderId, from, to, pageSize);
+        return ContinuationTokens.toPage(orderDetails, pageSize, OrderDetailDto::getId);
+    }
+
     @GetMapping("admin")
     public List<OrderDetailDto> getOrderDetailsAdmin() {
         return orderService.getOrdersDetailAdmin();
     }
 
+    @GetMapping(path = "admin", params = "size")
+    public CatalogPageDto<OrderDetailDto> getOrderDetailsAdmin(@RequestParam int size, @RequestParam(required = false) String pageToken,
+                                                               @RequestParam(required = false) Instant from, @RequestParam(required = false) Instant to) {
+        int pageSize = ContinuationTokens.pageSize(size);
+        Long beforeOrderId = ContinuationTokens.decodeDescending(pageToken);
+        List<OrderDetailDto> orderDetails = orderService.getOrdersDetailAdminBefore(beforeOrderId, from, to, pageSize);
+        return ContinuationTokens.toPage(orderDetails, pageSize, OrderDetailDto::getId);
+    }
+
+    @GetMapping("admin/export")
+    public ResponseEntity<StreamingResponseBody> exportOrderDetailsAdmin(@RequestParam(defaultValue = "jsonl") String format,
+                                                                         @RequestParam(required = false) Long orderStatusId,
+                                                                         @RequestParam(required = false) Long appUserId,
+                                                                         @RequestParam(required = false) Instant from,
+                                                                         @RequestParam(required = false) Instant to) {
+        OrderExportFormat exportFormat = OrderExportFormat.of(format)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format: " + format));
+        // written from an async thread while orders are read, the response is never held in memory as a whole
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            exportFormat.writeHeader(writer);
+            orderService.exportOrdersDetail(orderStatusId, appUserId, from, to,
+                    orderDetail -> exportFormat.writeOrderDetailUnchecked(writer, orderDetail, objectMapper));
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(exportFormat.getFileName()).build().toString())
+                .body(body);
+    }
+
     @GetMapping("/{orderDetailId}/orderItems")
     public List<OrderItemDto> getOrderItems(@PathVariable Long orderDetailId) {
         return orderService.getOrderItems(orderDetailId);
@@ -75,8 +133,11 @@ public class OrderController {
             return ResponseEntity.created(location).build();
         } catch (EmptyShoppingCartException e) {
             throw new ResponseStatusException(HttpStatus.NO_CONTENT, e.getMessage(), e);
-        } catch (BookInsufficientStockException e) {
+        } catch (BookInsufficientStockException | CartItemNotFoundException e) {
+            // stock is missing, or the cart was changed by a concurrent checkout
             throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        } catch (PayMethodNotFoundException | ShipmentMethodNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
         }
     }
 
@@ -100,13 +161,13 @@ public class OrderController {
     }
 
     @GetMapping("/payMethods")
-    public List<PayMethod> getPayMethods() {
-        return payMethodRepository.findAll();
+    public ResponseEntity<List<PayMethod>> getPayMethods(WebRequest request) {
+        return ConditionalResponses.ifModified(request, catalogVersion.referenceData(), referenceData::payMethods);
     }
 
     @GetMapping("/shipmentMethods")
-    public List<ShipmentMethod> getShipmentMethods() {
-        return shipmentMethodRepository.findAll();
+    public ResponseEntity<List<ShipmentMethod>> getShipmentMethods(WebRequest request) {
+        return ConditionalResponses.ifModified(request, catalogVersion.referenceData(), referenceData::shipmentMethods);
     }
 
 }
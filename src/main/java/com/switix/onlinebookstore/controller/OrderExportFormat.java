@@ -0,0 +1,91 @@
+package com.switix.onlinebookstore.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.switix.onlinebookstore.dto.OrderDetailDto;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Formats of the admin order export : one line is written per order, so that the export can be streamed whatever the
+ * number of orders.
+ */
+enum OrderExportFormat {
+
+    JSONL("jsonl", MediaType.APPLICATION_NDJSON) {
+        @Override
+        void writeHeader(Writer writer) {
+        }
+
+        @Override
+        void writeOrderDetail(Writer writer, OrderDetailDto orderDetail, ObjectMapper objectMapper) throws IOException {
+            // ObjectMapper doesn't indent by default, so each order takes a single line
+            writer.write(objectMapper.writeValueAsString(orderDetail));
+            writer.write('\n');
+        }
+    },
+
+    CSV("csv", new MediaType("text", "csv")) {
+        @Override
+        void writeHeader(Writer writer) throws IOException {
+            writer.write("id,total,createdAt,orderStatus\r\n");
+        }
+
+        @Override
+        void writeOrderDetail(Writer writer, OrderDetailDto orderDetail, ObjectMapper objectMapper) throws IOException {
+            writer.write(String.valueOf(orderDetail.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(orderDetail.getTotal()));
+            writer.write(',');
+            writer.write(orderDetail.getCreatedAt() == null ? "" : orderDetail.getCreatedAt().toString());
+            writer.write(',');
+            writer.write(orderDetail.getOrderStatus() == null ? "" : quote(orderDetail.getOrderStatus().getStatus()));
+            writer.write("\r\n");
+        }
+    };
+
+    private final String name;
+    private final MediaType mediaType;
+
+    OrderExportFormat(String name, MediaType mediaType) {
+        this.name = name;
+        this.mediaType = mediaType;
+    }
+
+    static Optional<OrderExportFormat> of(String name) {
+        return Arrays.stream(values()).filter(format -> format.name.equalsIgnoreCase(name)).findFirst();
+    }
+
+    String getFileName() {
+        return "orders." + name;
+    }
+
+    MediaType getMediaType() {
+        return mediaType;
+    }
+
+    abstract void writeHeader(Writer writer) throws IOException;
+
+    abstract void writeOrderDetail(Writer writer, OrderDetailDto orderDetail, ObjectMapper objectMapper) throws IOException;
+
+    void writeOrderDetailUnchecked(Writer writer, OrderDetailDto orderDetail, ObjectMapper objectMapper) {
+        try {
+            writeOrderDetail(writer, orderDetail, objectMapper);
+        } catch (IOException e) {
+            // client is gone, rethrowing stops the export before its next chunk is read
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // RFC 4180 : fields holding a separator, a quote or a line break are quoted, quotes being doubled
+    private static String quote(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,24 @@
+package com.switix.onlinebookstore.controller;
+
+import com.switix.onlinebookstore.cache.ReferenceData;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("api/referenceData")
+public class ReferenceDataController {
+
+    private final ReferenceData referenceData;
+
+    public ReferenceDataController(ReferenceData referenceData) {
+        this.referenceData = referenceData;
+    }
+
+    @PostMapping("admin/reload")
+    public ResponseEntity<Void> reload() {
+        referenceData.reload();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,18 +1,22 @@
 package com.switix.onlinebookstore.controller;
 
+import com.switix.onlinebookstore.cache.CatalogVersion;
 
 import com.switix.onlinebookstore.dto.AuthorBookCountDto;
 import com.switix.onlinebookstore.dto.SearchDto;
 import com.switix.onlinebookstore.model.Author;
 import com.switix.onlinebookstore.model.Book;
 import com.switix.onlinebookstore.model.Category;
+import com.switix.onlinebookstore.search.SuggestionPipeline;
 import com.switix.onlinebookstore.service.AuthorService;
 import com.switix.onlinebookstore.service.BookService;
 import com.switix.onlinebookstore.service.CategoryService;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -20,47 +24,48 @@ import java.util.List;
 @RequestMapping("api/search")
 public class SearchController {
 
+    private static final int MAX_SEARCH_LIMIT = 50;
+
     private final AuthorService authorService;
     private final CategoryService categoryService;
     private final BookService bookService;
+    private final SuggestionPipeline suggestionPipeline;
+    private final CatalogVersion catalogVersion;
 
-    public SearchController(AuthorService authorService, CategoryService categoryService, BookService bookService) {
+    public SearchController(AuthorService authorService, CategoryService categoryService, BookService bookService, SuggestionPipeline suggestionPipeline, CatalogVersion catalogVersion) {
         this.authorService = authorService;
         this.categoryService = categoryService;
         this.bookService = bookService;
+        this.suggestionPipeline = suggestionPipeline;
+        this.catalogVersion = catalogVersion;
     }
 
     @GetMapping(params = "q")
-    public SearchDto searchSuggestion(@RequestParam String q) {
-        String searchQuery = "%" + q + "%";
-        SearchDto result = new SearchDto();
-        result.setSuggestedAuthors(authorService.getAuthorsByName(searchQuery));
-        result.setSuggestedCategories(categoryService.getCategoriesByName(searchQuery));
-        result.setSuggestedBooks(bookService.getBooksByTittle(searchQuery,false));
-        return result;
+    public ResponseEntity<SearchDto> searchSuggestion(@RequestParam String q, WebRequest request) {
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), () -> suggestionPipeline.suggest(q));
     }
 
     @GetMapping("authors")
-    public List<AuthorBookCountDto> getAuthors() {
-        return authorService.countAllBooksMadeByAuthors();
-
+    public ResponseEntity<List<AuthorBookCountDto>> getAuthors(WebRequest request) {
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), authorService::countAllBooksMadeByAuthors);
     }
 
     @GetMapping(path = "authors", params = "q")
-    public List<Author> searchAuthorsByName(@RequestParam String q) {
-        String searchQuery = "%" + q + "%";
-        return authorService.getAuthorsByName(searchQuery);
+    public ResponseEntity<List<Author>> searchAuthorsByName(@RequestParam String q, @RequestParam(defaultValue = "20") int limit, WebRequest request) {
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), () -> authorService.searchAuthorsByName(q, searchLimit(limit)));
     }
 
     @GetMapping(path = "categories", params = "q")
-    public List<Category> searchCategoriesByName(@RequestParam String q) {
-        String searchQuery = "%" + q + "%";
-        return categoryService.getCategoriesByName(searchQuery);
+    public ResponseEntity<List<Category>> searchCategoriesByName(@RequestParam String q, @RequestParam(defaultValue = "20") int limit, WebRequest request) {
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), () -> categoryService.searchCategoriesByName(q, searchLimit(limit)));
     }
 
     @GetMapping(path = "books", params = "q")
-    public List<Book> searchBooksByTittle(@RequestParam String q) {
-        String searchQuery = "%" + q + "%";
-        return bookService.getBooksByTittle(searchQuery,false);
+    public ResponseEntity<List<Book>> searchBooksByTittle(@RequestParam String q, @RequestParam(defaultValue = "20") int limit, WebRequest request) {
+        return ConditionalResponses.ifModified(request, catalogVersion.current(), () -> bookService.searchBooksByTitle(q, searchLimit(limit), false));
+    }
+
+    private static int searchLimit(int requestedLimit) {
+        return Math.max(1, Math.min(requestedLimit, MAX_SEARCH_LIMIT));
     }
 }
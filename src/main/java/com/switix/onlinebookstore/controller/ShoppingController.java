@@ -4,6 +4,7 @@ import com.switix.onlinebookstore.dto.CartItemDto;
 import com.switix.onlinebookstore.dto.CartItemRequestDto;
 import com.switix.onlinebookstore.exception.BookNotFoundException;
 import com.switix.onlinebookstore.exception.CartItemNotFoundException;
+import com.switix.onlinebookstore.exception.InvalidCartItemException;
 import com.switix.onlinebookstore.exception.ShoppingSessionNotFoundException;
 import com.switix.onlinebookstore.model.AppUser;
 import com.switix.onlinebookstore.model.CartItem;
@@ -64,13 +65,33 @@ public class ShoppingController {
         } catch (BookNotFoundException | ShoppingSessionNotFoundException e) {
             throw new ResponseStatusException(
                     HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (InvalidCartItemException e) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // sets the quantity of several books at once, a quantity of 0 removes the book from the cart
+    @PutMapping("/cartItems")
+    public ResponseEntity<Void> upsertCartItems(@RequestBody List<CartItemRequestDto> cartItemRequestDtos, Authentication authentication) {
+        try {
+            Long shoppingSessionId = ((AppUser) authentication.getPrincipal()).getShoppingSession().getId();
+            shoppingService.upsertCartItems(shoppingSessionId, cartItemRequestDtos);
+            return ResponseEntity.noContent().build();
+        } catch (BookNotFoundException | ShoppingSessionNotFoundException e) {
+            throw new ResponseStatusException(
+                    HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (InvalidCartItemException e) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, e.getMessage(), e);
         }
     }
 
     @DeleteMapping("/cartItems/{cartItemId}")
-    public ResponseEntity<Void> deleteCartItem(@PathVariable Long cartItemId) {
+    public ResponseEntity<Void> deleteCartItem(@PathVariable Long cartItemId, Authentication authentication) {
         try {
-            shoppingService.deleteCartItem(cartItemId);
+            Long shoppingSessionId = ((AppUser) authentication.getPrincipal()).getShoppingSession().getId();
+            shoppingService.deleteCartItem(shoppingSessionId, cartItemId);
             return ResponseEntity.noContent().build();
         } catch (CartItemNotFoundException e) {
             throw new ResponseStatusException(
@@ -79,13 +100,17 @@ public class ShoppingController {
     }
 
     @PatchMapping("/cartItems/{cartItemId}")
-    public ResponseEntity<Void> patchCartItem(@PathVariable Long cartItemId, @RequestBody CartItemRequestDto cartItemRequestDto) {
+    public ResponseEntity<Void> patchCartItem(@PathVariable Long cartItemId, @RequestBody CartItemRequestDto cartItemRequestDto, Authentication authentication) {
         try {
-            shoppingService.updateCartItem(cartItemId, cartItemRequestDto);
+            Long shoppingSessionId = ((AppUser) authentication.getPrincipal()).getShoppingSession().getId();
+            shoppingService.updateCartItem(shoppingSessionId, cartItemId, cartItemRequestDto);
             return ResponseEntity.noContent().build();
         } catch (CartItemNotFoundException e) {
             throw new ResponseStatusException(
                     HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (InvalidCartItemException e) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, e.getMessage(), e);
         }
 
     }
@@ -0,0 +1,16 @@
+package com.switix.onlinebookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookAuthorNameDto {
+    private Long bookId;
+    private String authorName;
+
+}
@@ -0,0 +1,15 @@
+package com.switix.onlinebookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportErrorDto {
+    private long lineNumber;
+    private String message;
+}
@@ -0,0 +1,34 @@
+package com.switix.onlinebookstore.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a catalog import : only the first errors are detailed, failedCount counts all of them.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class BookImportReportDto {
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private long importedCount;
+    private long failedCount;
+    private List<BookImportErrorDto> errors = new ArrayList<>();
+
+    public void addImported(int count) {
+        importedCount += count;
+    }
+
+    public void addError(long lineNumber, String message) {
+        failedCount++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new BookImportErrorDto(lineNumber, message));
+        }
+    }
+}
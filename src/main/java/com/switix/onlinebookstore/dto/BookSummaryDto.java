@@ -0,0 +1,51 @@
+package com.switix.onlinebookstore.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lightweight read model of a {@link com.switix.onlinebookstore.model.Book} for catalog listings : it doesn't carry
+ * description, inventory nor entity graph, so it can be loaded by a single projection query.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class BookSummaryDto {
+
+    private Long id;
+    private String title;
+    private BigDecimal price;
+    private String imageUrl;
+    private String categoryName;
+    private boolean inStock;
+    private List<String> authorNames = new ArrayList<>();
+
+    public BookSummaryDto(Long id) {
+        this.id = id;
+    }
+
+    // used by JPA constructor expression, author names are added afterwards (see BookRepository.findAuthorNames(..))
+    public BookSummaryDto(Long id, String title, BigDecimal price, String imageUrl, String categoryName, Integer quantity) {
+        this.id = id;
+        this.title = title;
+        this.price = price;
+        this.imageUrl = imageUrl;
+        this.categoryName = categoryName;
+        setQuantity(quantity);
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.inStock = quantity != null && quantity > 0;
+    }
+
+    public void addAuthorName(String authorName) {
+        if (authorName != null) {
+            this.authorNames.add(authorName);
+        }
+    }
+}
@@ -11,5 +11,5 @@ import lombok.Setter;
 @AllArgsConstructor
 public class CartItemRequestDto {
     private Long bookId;
-    private int quantity;
+    private Integer quantity;
 }
@@ -0,0 +1,18 @@
+package com.switix.onlinebookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogPageDto<T> {
+    private List<T> items;
+    // null when there's no more page to read
+    private String nextPageToken;
+}
@@ -0,0 +1,28 @@
+package com.switix.onlinebookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One book of a catalog import : category and authors are given by name, and created when not found.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportBookDto {
+    private String title;
+    private String description;
+    private BigDecimal price;
+    private String imageUrl;
+    private Integer publicationYear;
+    private String isbn;
+    private String category;
+    private List<String> authors;
+    private Integer quantity;
+}
@@ -18,4 +18,36 @@ public class OrderDetailDto {
     private BigDecimal total;
     private Instant createdAt;
     private OrderStatus orderStatus;
+
+    public OrderDetailDto(Long id) {
+        this.id = id;
+    }
+
+    // used by JPA constructor expression : only the status columns are read, not the whole entity graph of the order
+    public OrderDetailDto(Long id, BigDecimal total, Instant createdAt, Long orderStatusId, String orderStatus) {
+        this.id = id;
+        this.total = total;
+        this.createdAt = createdAt;
+        setOrderStatusId(orderStatusId);
+        setOrderStatusName(orderStatus);
+    }
+
+    public void setOrderStatusId(Long orderStatusId) {
+        if (orderStatusId != null) {
+            orderStatus().setId(orderStatusId);
+        }
+    }
+
+    public void setOrderStatusName(String status) {
+        if (status != null) {
+            orderStatus().setStatus(status);
+        }
+    }
+
+    private OrderStatus orderStatus() {
+        if (orderStatus == null) {
+            orderStatus = new OrderStatus();
+        }
+        return orderStatus;
+    }
 }
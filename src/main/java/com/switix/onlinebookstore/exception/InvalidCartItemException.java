@@ -0,0 +1,8 @@
+package com.switix.onlinebookstore.exception;
+
+public class InvalidCartItemException extends RuntimeException {
+
+    public InvalidCartItemException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
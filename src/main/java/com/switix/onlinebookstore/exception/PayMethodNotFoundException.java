@@ -0,0 +1,7 @@
+package com.switix.onlinebookstore.exception;
+
+public class PayMethodNotFoundException extends RuntimeException {
+    public PayMethodNotFoundException(String message) {
+        super(message);
+    }
+}
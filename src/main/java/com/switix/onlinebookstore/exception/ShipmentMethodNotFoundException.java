@@ -0,0 +1,7 @@
+package com.switix.onlinebookstore.exception;
+
+public class ShipmentMethodNotFoundException extends RuntimeException {
+    public ShipmentMethodNotFoundException(String message) {
+        super(message);
+    }
+}
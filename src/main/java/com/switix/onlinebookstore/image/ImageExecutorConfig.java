@@ -0,0 +1,23 @@
+package com.switix.onlinebookstore.image;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ImageExecutorConfig {
+
+    public static final String IMAGE_EXECUTOR = "imageExecutor";
+
+    // resizing is CPU and memory bound (a decoded cover takes width x height x 4 bytes), so few threads work on it and
+    // pending images wait in the queue : a backfill of the whole catalog doesn't starve request threads
+    @Bean(IMAGE_EXECUTOR)
+    public ThreadPoolTaskExecutor imageExecutor(@Value("${images.variants.threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("image-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        return executor;
+    }
+}
@@ -0,0 +1,123 @@
+package com.switix.onlinebookstore.image;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Scales images down and re-encodes them in the format of the original, JPEG ones being recompressed.
+ */
+class ImageResizer {
+
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final long maxPixels;
+
+    /**
+     * @param maxPixels images having more pixels aren't decoded
+     */
+    ImageResizer(long maxPixels) {
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * @return the image read from given file, null if its format isn't supported
+     * @throws TooLargeException if the image has more than the maximum number of pixels
+     */
+    BufferedImage read(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? Collections.emptyIterator() : ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // dimensions are read from the header : a small file may declare enough pixels to exhaust the heap
+                // once decoded, it's rejected before
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new TooLargeException(file + " has " + pixels + " pixels, more than the maximum of " + maxPixels);
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    void write(BufferedImage source, int maxWidth, Path target) throws IOException {
+        String format = format(target);
+        boolean jpeg = format.equals("jpg");
+        BufferedImage resized = resize(source, Math.min(maxWidth, source.getWidth()), jpeg ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            throw new IOException("No image writer for " + target);
+        }
+        ImageWriter writer = writers.next();
+        try (OutputStream out = Files.newOutputStream(target);
+             ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(imageOut);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (jpeg) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+            }
+            writer.write(null, new IIOImage(resized, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int type) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        // bilinear scaling only looks at neighbour pixels : halving the size step by step keeps the quality of a large
+        // reduction close to the one of a smooth filter, at a fraction of its cost
+        do {
+            int stepWidth = Math.max(width, currentWidth / 2);
+            int stepHeight = Math.max(1, (int) Math.round((double) source.getHeight() * stepWidth / source.getWidth()));
+            BufferedImage step = new BufferedImage(stepWidth, stepHeight, type);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, stepWidth, stepHeight, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+            currentWidth = stepWidth;
+            currentHeight = stepHeight;
+        } while (currentWidth > width);
+        return current;
+    }
+
+    private static String format(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+        return extension.equals("jpeg") ? "jpg" : extension;
+    }
+
+    static class TooLargeException extends IOException {
+
+        TooLargeException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.switix.onlinebookstore.image;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Directory where book covers are stored, configured by "images.directory". Resized variants are stored in one
+ * sub-directory per {@link ImageVariant}, under the name of the original.
+ */
+@Component
+public class ImageStore {
+
+    private final Path directory;
+
+    public ImageStore(@Value("${images.directory:src/main/resources/static/images}") String directory) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the file of given image, empty if it doesn't exist or if the name points outside the image directory
+     */
+    public Optional<Path> find(String imageName) {
+        return resolve(directory, imageName).filter(Files::isRegularFile);
+    }
+
+    /**
+     * @return the file of given variant of an image, empty if it hasn't been generated
+     */
+    public Optional<Path> find(String imageName, ImageVariant variant) {
+        return resolve(variantDirectory(variant), imageName).filter(Files::isRegularFile);
+    }
+
+    /**
+     * @return the path where given variant of an image is to be written
+     */
+    public Path variantPath(Path image, ImageVariant variant) {
+        return variantDirectory(variant).resolve(image.getFileName());
+    }
+
+    /**
+     * @return original images, variants and files being uploaded excluded
+     */
+    public List<Path> listImages() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith("."))
+                    .toList();
+        }
+    }
+
+    private Path variantDirectory(ImageVariant variant) {
+        return directory.resolve(variant.getName());
+    }
+
+    private static Optional<Path> resolve(Path directory, String imageName) {
+        Path image;
+        try {
+            image = directory.resolve(imageName).normalize();
+        } catch (InvalidPathException e) {
+            return Optional.empty();
+        }
+        return directory.equals(image.getParent()) ? Optional.of(image) : Optional.empty();
+    }
+}
@@ -0,0 +1,133 @@
+package com.switix.onlinebookstore.image;
+
+import com.switix.onlinebookstore.exception.ImageTooLargeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores uploaded images : content is streamed to a temporary file of the image directory while its size is checked and
+ * its SHA-256 computed, then the file is either moved to its final name, or dropped if an identical image is already
+ * stored, in which case the name of the latter is returned.
+ * Hashes of the images present at startup are computed in background, uploads made before that ends may not be
+ * deduplicated against them.
+ */
+@Component
+public class ImageUploads {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageUploads.class);
+    private static final int BUFFER_SIZE = 128 * 1024;
+
+    private final ImageStore imageStore;
+    private final ImageVariants imageVariants;
+    private final TaskExecutor executor;
+    private final long maxSize;
+    private final Map<String, String> namesByHash = new ConcurrentHashMap<>();
+
+    public ImageUploads(ImageStore imageStore, ImageVariants imageVariants,
+                        @Qualifier(ImageExecutorConfig.IMAGE_EXECUTOR) TaskExecutor executor,
+                        @Value("${images.upload.max-size:10MB}") DataSize maxSize) {
+        this.imageStore = imageStore;
+        this.imageVariants = imageVariants;
+        this.executor = executor;
+        this.maxSize = maxSize.toBytes();
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexStoredImages() {
+        executor.execute(() -> {
+            try {
+                for (Path image : imageStore.listImages()) {
+                    try (InputStream content = Files.newInputStream(image)) {
+                        MessageDigest digest = sha256();
+                        content.transferTo(new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+                        namesByHash.putIfAbsent(HexFormat.of().formatHex(digest.digest()), image.getFileName().toString());
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Indexing of stored images failed, uploads won't be deduplicated against all of them", e);
+            }
+        });
+    }
+
+    /**
+     * @param content image bytes, not closed by this method
+     * @param originalFilename name given by the client, only its base name and extension are kept
+     * @return name of the stored image
+     * @throws ImageTooLargeException if content exceeds the maximum size, nothing is stored then
+     */
+    public String store(InputStream content, String originalFilename) throws IOException {
+        Path temporary = Files.createTempFile(imageStore.getDirectory(), ".upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            InputStream in = new DigestInputStream(content, digest);
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long size = 0;
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxSize) {
+                        throw new ImageTooLargeException("Image exceeds maximum size of " + maxSize + " bytes");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String storedName = namesByHash.get(hash);
+            if (storedName != null && imageStore.find(storedName).isPresent()) {
+                return storedName;
+            }
+            Path image = imageStore.getDirectory().resolve(timestampedName(originalFilename));
+            Files.move(temporary, image, StandardCopyOption.ATOMIC_MOVE);
+            namesByHash.put(hash, image.getFileName().toString());
+            imageVariants.generateAsync(image);
+            return image.getFileName().toString();
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static String timestampedName(String originalFilename) {
+        String name = originalFilename == null ? "" : originalFilename.substring(originalFilename.replace('\\', '/').lastIndexOf('/') + 1);
+        // keeps names safe to use in URLs and paths, and not hidden
+        name = name.replaceAll("[^A-Za-z0-9._-]", "_").replaceAll("^\\.+", "");
+        int extensionIndex = name.lastIndexOf('.');
+        String baseName = extensionIndex < 0 ? name : name.substring(0, extensionIndex);
+        String extension = extensionIndex < 0 ? "" : name.substring(extensionIndex);
+        return (baseName.isEmpty() ? "image" : baseName) + "_" + System.currentTimeMillis() + extension;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
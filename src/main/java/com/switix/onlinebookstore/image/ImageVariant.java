@@ -0,0 +1,40 @@
+package com.switix.onlinebookstore.image;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Resized versions of book covers, generated by {@link ImageVariants} and requested by their name as "size" parameter
+ * of the image endpoint.
+ */
+public enum ImageVariant {
+
+    THUMBNAIL("thumbnail", 120),
+    LIST("list", 300),
+    DETAIL("detail", 600);
+
+    private final String name;
+    private final int width;
+
+    ImageVariant(String name, int width) {
+        this.name = name;
+        this.width = width;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return maximum width in pixels, height follows the cover ratio
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    public static Optional<ImageVariant> forName(String name) {
+        return Arrays.stream(values())
+                .filter(variant -> variant.name.equalsIgnoreCase(name))
+                .findFirst();
+    }
+}
@@ -0,0 +1,82 @@
+package com.switix.onlinebookstore.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Generates the {@link ImageVariant}s of book covers in background : for each upload, and at startup for the images
+ * that miss some.
+ * Variants are written to a temporary file then moved, so that a variant is either absent or complete.
+ */
+@Component
+public class ImageVariants {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageVariants.class);
+
+    private final ImageStore imageStore;
+    private final TaskExecutor executor;
+    private final ImageResizer resizer;
+
+    public ImageVariants(ImageStore imageStore, @Qualifier(ImageExecutorConfig.IMAGE_EXECUTOR) TaskExecutor executor,
+                         @Value("${images.variants.max-pixels:40000000}") long maxPixels) {
+        this.imageStore = imageStore;
+        this.executor = executor;
+        this.resizer = new ImageResizer(maxPixels);
+    }
+
+    public void generateAsync(Path image) {
+        executor.execute(() -> generate(image));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() throws IOException {
+        for (Path image : imageStore.listImages()) {
+            boolean missingVariant = Arrays.stream(ImageVariant.values())
+                    .anyMatch(variant -> !Files.exists(imageStore.variantPath(image, variant)));
+            if (missingVariant) {
+                generateAsync(image);
+            }
+        }
+    }
+
+    void generate(Path image) {
+        try {
+            BufferedImage source = resizer.read(image);
+            if (source == null) {
+                LOGGER.warn("Can't generate variants of {}, its format isn't supported", image);
+                return;
+            }
+            for (ImageVariant variant : ImageVariant.values()) {
+                Path target = imageStore.variantPath(image, variant);
+                Files.createDirectories(target.getParent());
+                // keeps the extension of the target since the resizer picks the format from it
+                Path temporary = target.resolveSibling("." + UUID.randomUUID() + "-" + target.getFileName());
+                try {
+                    resizer.write(source, variant.getWidth(), temporary);
+                    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temporary);
+                }
+            }
+        } catch (ImageResizer.TooLargeException e) {
+            LOGGER.warn("Can't generate variants of {}: {}", image, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            // decoders also fail with runtime exceptions on malformed images
+            LOGGER.warn("Generation of variants of {} failed", image, e);
+        }
+    }
+}
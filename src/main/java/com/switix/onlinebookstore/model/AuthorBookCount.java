@@ -0,0 +1,22 @@
+package com.switix.onlinebookstore.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+// number of non-removed books of each author, maintained by BookCounts
+@Table(name = "author_book_count")
+public class AuthorBookCount {
+
+    @Id
+    @Column(name = "author_id", nullable = false, updatable = false)
+    private Long authorId;
+
+    @Column(name = "book_count", nullable = false)
+    private Long bookCount;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
@@ -14,6 +15,8 @@ import java.util.Set;
 @Setter
 @NoArgsConstructor
 @Entity
+// serves category listings, seeking on id, and the detaching of books from a deleted category
+@Table(indexes = @Index(name = "book_category_id_id_idx", columnList = "category_id, id"))
 public class Book {
 
     @Id
@@ -49,6 +52,8 @@ public class Book {
     @JoinColumn(name = "inventory_id", nullable = false)
     private BookInventory inventory;
 
+    // when not fetched by an entity graph, authors of up to a full catalog page of books are loaded in one query
+    @BatchSize(size = 100)
     @ManyToMany
     @JoinTable(
             name = "book_author",
@@ -9,11 +9,13 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "cart_item")
+// a book has at most one item per cart, whose quantity is increased when the book is added again
+@Table(name = "cart_item", uniqueConstraints = @UniqueConstraint(name = "cart_item_session_book_uk", columnNames = {"shopping_session_id", "book_id"}))
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_item_seq")
+    @SequenceGenerator(name = "cart_item_seq", sequenceName = "cart_item_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
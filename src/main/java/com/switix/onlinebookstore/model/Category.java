@@ -21,7 +21,8 @@ public class Category {
     @Column(nullable = false)
     private String name;
 
-    @OneToMany(mappedBy = "category",fetch = FetchType.EAGER)
+    // lazy : reading a category, or a book with its category, must not load all books of the category
+    @OneToMany(mappedBy = "category")
     @JsonIgnore
     private Set<Book> categoryBooks;
 }
@@ -0,0 +1,22 @@
+package com.switix.onlinebookstore.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+// number of non-removed books of each category, maintained by BookCounts
+@Table(name = "category_book_count")
+public class CategoryBookCount {
+
+    @Id
+    @Column(name = "category_id", nullable = false, updatable = false)
+    private Long categoryId;
+
+    @Column(name = "book_count", nullable = false)
+    private Long bookCount;
+}
@@ -15,7 +15,11 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "order_detail")
+// history listings seek on id, per user or over all orders, filtered by creation date
+@Table(name = "order_detail", indexes = {
+        @Index(name = "order_detail_app_user_id_id_idx", columnList = "app_user_id, id"),
+        @Index(name = "order_detail_created_at_idx", columnList = "created_at")
+})
 public class OrderDetail {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -12,8 +12,10 @@ import lombok.Setter;
 @Table(name = "order_item")
 public class OrderItem {
 
+    // ids are taken from a pooled sequence so that Hibernate knows them before inserting and can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -0,0 +1,27 @@
+package com.switix.onlinebookstore.repository;
+
+import com.switix.onlinebookstore.model.AuthorBookCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AuthorBookCountRepository extends JpaRepository<AuthorBookCount, Long> {
+
+    // the counter row of the author is created on its first book
+    @Modifying
+    @Query(value = "INSERT INTO author_book_count (author_id, book_count) VALUES (:authorId, :delta)" +
+            " ON CONFLICT (author_id) DO UPDATE SET book_count = author_book_count.book_count + EXCLUDED.book_count", nativeQuery = true)
+    void addToCount(@Param("authorId") Long authorId, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "INSERT INTO author_book_count (author_id, book_count)" +
+            " SELECT a.id, count(b.id) FROM author a LEFT JOIN book_author ba ON ba.author_id = a.id" +
+            " LEFT JOIN book b ON b.id = ba.book_id AND NOT b.is_removed GROUP BY a.id" +
+            " ON CONFLICT (author_id) DO UPDATE SET book_count = EXCLUDED.book_count", nativeQuery = true)
+    int rebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM author_book_count n WHERE NOT EXISTS (SELECT 1 FROM author a WHERE a.id = n.author_id)", nativeQuery = true)
+    int deleteOrphans();
+}
@@ -3,14 +3,28 @@ package com.switix.onlinebookstore.repository;
 import com.switix.onlinebookstore.dto.AuthorBookCountDto;
 import com.switix.onlinebookstore.model.Author;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface AuthorRepository extends JpaRepository<Author,Long> {
     List<Author> findByNameLikeIgnoreCase(String name);
 
-    @Query("SELECT new com.switix.onlinebookstore.dto.AuthorBookCountDto(a.id, a.name, COUNT(b)) FROM Author a JOIN a.authorBooks b GROUP BY a.id, a.name ORDER BY a.name ASC")
+    // counts are read from author_book_count (see BookCounts), only authors having books are listed
+    @Query("SELECT new com.switix.onlinebookstore.dto.AuthorBookCountDto(a.id, a.name, n.bookCount)" +
+            " FROM Author a JOIN AuthorBookCount n ON n.authorId = a.id WHERE n.bookCount > 0 ORDER BY a.name ASC")
     List<AuthorBookCountDto> countBooksByAuthorOrderedByName();
 
+    // ILIKE is served by author_name_trgm_idx (see import.sql), results are ranked by trigram similarity
+    @Query(value = "SELECT a.* FROM author a WHERE a.name ILIKE :pattern ORDER BY similarity(a.name, :query) DESC, a.id LIMIT :limit", nativeQuery = true)
+    List<Author> searchByName(@Param("query") String query, @Param("pattern") String pattern, @Param("limit") int limit);
+
+    // unlinks the author from all its books in a single statement, books aren't loaded : the persistence context is
+    // cleared, so that a book loaded before isn't flushed back with its stale authors
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM book_author WHERE author_id = :authorId", nativeQuery = true)
+    int deleteBookLinks(@Param("authorId") Long authorId);
+
 }
@@ -1,14 +1,77 @@
 package com.switix.onlinebookstore.repository;
 
+import com.switix.onlinebookstore.dto.BookAuthorNameDto;
+import com.switix.onlinebookstore.dto.BookSummaryDto;
 import com.switix.onlinebookstore.model.Book;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookRepository extends JpaRepository<Book,Long> {
+    // authors are fetched in the same select as books to avoid one book_author query per book during serialization
+    @Override
+    @EntityGraph(attributePaths = {"category", "inventory", "bookAuthors"})
+    Optional<Book> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "inventory", "bookAuthors"})
+    List<Book> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(attributePaths = {"category", "inventory", "bookAuthors"})
     List<Book> findAllByIsRemoved(boolean isRemoved);
+    @EntityGraph(attributePaths = {"category", "inventory", "bookAuthors"})
     List<Book> findAllByCategory_IdAndIsRemoved(Long categoryId, boolean isRemoved);
+    @EntityGraph(attributePaths = {"category", "inventory", "bookAuthors"})
     List<Book> findAllByBookAuthors_IdAndIsRemoved(Long authorId, boolean isRemoved);
+    @EntityGraph(attributePaths = {"category", "inventory", "bookAuthors"})
     List<Book> findAllByTitleIsLikeIgnoreCaseAndIsRemoved(String title, boolean isRemoved);
 
+    // keyset pagination: seek on id instead of OFFSET, Pageable is only used to carry the page size
+    // bookAuthors is not part of the graph here because fetching a collection with a limit makes Hibernate paginate
+    // in memory, authors are batch-loaded instead (see Book.bookAuthors)
+    @EntityGraph(attributePaths = {"category", "inventory"})
+    List<Book> findAllByIsRemovedAndIdGreaterThanOrderByIdAsc(boolean isRemoved, Long lastBookId, Pageable pageable);
+    @EntityGraph(attributePaths = {"category", "inventory"})
+    List<Book> findAllByCategory_IdAndIsRemovedAndIdGreaterThanOrderByIdAsc(Long categoryId, boolean isRemoved, Long lastBookId, Pageable pageable);
+    @EntityGraph(attributePaths = {"category", "inventory"})
+    List<Book> findAllByBookAuthors_IdAndIsRemovedAndIdGreaterThanOrderByIdAsc(Long authorId, boolean isRemoved, Long lastBookId, Pageable pageable);
+
+    // author names aren't part of summary queries, they're loaded for a whole page by findAuthorNames(..)
+    @Query("SELECT new com.switix.onlinebookstore.dto.BookSummaryDto(b.id, b.title, b.price, b.imageUrl, c.name, i.quantity)" +
+            " FROM Book b JOIN b.inventory i LEFT JOIN b.category c" +
+            " WHERE b.isRemoved = :isRemoved AND b.id > :lastBookId ORDER BY b.id ASC")
+    List<BookSummaryDto> findSummariesAfter(@Param("isRemoved") boolean isRemoved, @Param("lastBookId") Long lastBookId, Pageable pageable);
+
+    @Query("SELECT new com.switix.onlinebookstore.dto.BookSummaryDto(b.id, b.title, b.price, b.imageUrl, c.name, i.quantity)" +
+            " FROM Book b JOIN b.inventory i JOIN b.category c" +
+            " WHERE c.id = :categoryId AND b.isRemoved = :isRemoved AND b.id > :lastBookId ORDER BY b.id ASC")
+    List<BookSummaryDto> findSummariesByCategoryAfter(@Param("categoryId") Long categoryId, @Param("isRemoved") boolean isRemoved, @Param("lastBookId") Long lastBookId, Pageable pageable);
+
+    @Query("SELECT new com.switix.onlinebookstore.dto.BookSummaryDto(b.id, b.title, b.price, b.imageUrl, c.name, i.quantity)" +
+            " FROM Book b JOIN b.inventory i LEFT JOIN b.category c JOIN b.bookAuthors a" +
+            " WHERE a.id = :authorId AND b.isRemoved = :isRemoved AND b.id > :lastBookId ORDER BY b.id ASC")
+    List<BookSummaryDto> findSummariesByAuthorAfter(@Param("authorId") Long authorId, @Param("isRemoved") boolean isRemoved, @Param("lastBookId") Long lastBookId, Pageable pageable);
+
+    // names are returned as they are rather than aggregated into a string, which no separator could split back safely
+    @Query("SELECT new com.switix.onlinebookstore.dto.BookAuthorNameDto(b.id, a.name) FROM Book b JOIN b.bookAuthors a" +
+            " WHERE b.id IN :bookIds ORDER BY a.name")
+    List<BookAuthorNameDto> findAuthorNames(@Param("bookIds") Collection<Long> bookIds);
+
+    // ILIKE is served by book_title_trgm_idx (see import.sql), results are ranked by trigram similarity
+    @Query(value = "SELECT b.id FROM book b WHERE b.is_removed = :isRemoved AND b.title ILIKE :pattern" +
+            " ORDER BY similarity(b.title, :query) DESC, b.id LIMIT :limit", nativeQuery = true)
+    List<Long> searchIdsByTitle(@Param("query") String query, @Param("pattern") String pattern, @Param("isRemoved") boolean isRemoved, @Param("limit") int limit);
+
+    // detaches books from a deleted category in a single statement, books in the persistence context are stale afterwards
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.category = null WHERE b.category.id = :categoryId")
+    int clearCategory(@Param("categoryId") Long categoryId);
+
 }
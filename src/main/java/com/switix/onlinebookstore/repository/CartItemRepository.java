@@ -1,10 +1,37 @@
 package com.switix.onlinebookstore.repository;
 
 import com.switix.onlinebookstore.model.CartItem;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface CartItemRepository extends JpaRepository<CartItem,Long> {
+    // books and their eager associations in the same query, rather than one query per book
+    @EntityGraph(attributePaths = {"book", "book.category", "book.inventory"})
     List<CartItem> findAllByShoppingSession_IdOrderById(Long shoppingSessionId);
+
+    Optional<CartItem> findByIdAndShoppingSession_Id(Long id, Long shoppingSessionId);
+
+    /**
+     * Adds a book to a cart, or increases its quantity if it's already in it, in a single statement which is safe
+     * against concurrent additions of the same book.
+     * The sequence is shared with Hibernate, whose pooled optimizer hands out the ids below the values it fetches :
+     * a value fetched here is never handed out by Hibernate.
+     *
+     * @return id of the cart item
+     */
+    @Query(value = "INSERT INTO cart_item (id, shopping_session_id, book_id, quantity)" +
+            " VALUES (nextval('cart_item_seq'), :shoppingSessionId, :bookId, :quantity)" +
+            " ON CONFLICT (shopping_session_id, book_id) DO UPDATE SET quantity = cart_item.quantity + EXCLUDED.quantity" +
+            " RETURNING id", nativeQuery = true)
+    Long upsertQuantity(@Param("shoppingSessionId") Long shoppingSessionId, @Param("bookId") Long bookId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.shoppingSession.id = :shoppingSessionId AND c.id IN :ids")
+    int deleteAllByShoppingSessionIdAndIdIn(@Param("shoppingSessionId") Long shoppingSessionId, @Param("ids") List<Long> ids);
 }
@@ -0,0 +1,26 @@
+package com.switix.onlinebookstore.repository;
+
+import com.switix.onlinebookstore.model.CategoryBookCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CategoryBookCountRepository extends JpaRepository<CategoryBookCount, Long> {
+
+    // the counter row of the category is created on its first book
+    @Modifying
+    @Query(value = "INSERT INTO category_book_count (category_id, book_count) VALUES (:categoryId, :delta)" +
+            " ON CONFLICT (category_id) DO UPDATE SET book_count = category_book_count.book_count + EXCLUDED.book_count", nativeQuery = true)
+    void addToCount(@Param("categoryId") Long categoryId, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "INSERT INTO category_book_count (category_id, book_count)" +
+            " SELECT c.id, count(b.id) FROM category c LEFT JOIN book b ON b.category_id = c.id AND NOT b.is_removed GROUP BY c.id" +
+            " ON CONFLICT (category_id) DO UPDATE SET book_count = EXCLUDED.book_count", nativeQuery = true)
+    int rebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM category_book_count n WHERE NOT EXISTS (SELECT 1 FROM category c WHERE c.id = n.category_id)", nativeQuery = true)
+    int deleteOrphans();
+}
@@ -4,6 +4,7 @@ import com.switix.onlinebookstore.dto.CategoryBookCountDto;
 import com.switix.onlinebookstore.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -11,6 +12,12 @@ public interface CategoryRepository extends JpaRepository<Category,Long> {
 
     List<Category> findAllByNameLikeIgnoreCase(String category);
 
-    @Query("SELECT new com.switix.onlinebookstore.dto.CategoryBookCountDto(c.id, c.name, COUNT(b)) FROM Category c LEFT JOIN c.categoryBooks b GROUP BY c.id, c.name ORDER BY c.name ASC")
+    // counts are read from category_book_count (see BookCounts), a category without books may have no counter row yet
+    @Query("SELECT new com.switix.onlinebookstore.dto.CategoryBookCountDto(c.id, c.name, COALESCE(n.bookCount, 0L))" +
+            " FROM Category c LEFT JOIN CategoryBookCount n ON n.categoryId = c.id ORDER BY c.name ASC")
     List<CategoryBookCountDto> countBooksByCategory();
+
+    // ILIKE is served by category_name_trgm_idx (see import.sql), results are ranked by trigram similarity
+    @Query(value = "SELECT c.* FROM category c WHERE c.name ILIKE :pattern ORDER BY similarity(c.name, :query) DESC, c.id LIMIT :limit", nativeQuery = true)
+    List<Category> searchByName(@Param("query") String query, @Param("pattern") String pattern, @Param("limit") int limit);
 }
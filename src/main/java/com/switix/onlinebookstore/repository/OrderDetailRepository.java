@@ -1,10 +1,43 @@
 package com.switix.onlinebookstore.repository;
 
+import com.switix.onlinebookstore.dto.OrderDetailDto;
 import com.switix.onlinebookstore.model.OrderDetail;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface OrderDetailRepository extends JpaRepository<OrderDetail, Long> {
     List<OrderDetail> findAllByAppUser_Id(Long appUserId);
+
+    // order history projections : newest orders first, keyset pagination seeks on id below the last one of the previous
+    // page, Pageable is only used to carry the page size. Date range is [from, to), a null bound leaves the range open on
+    // that side, which also keeps orders without a creation date
+    @Query("SELECT new com.switix.onlinebookstore.dto.OrderDetailDto(o.id, o.total, o.createdAt, s.id, s.status)" +
+            " FROM OrderDetail o LEFT JOIN o.orderStatus s" +
+            " WHERE o.appUser.id = :appUserId AND o.id < :beforeOrderId AND (:from IS NULL OR o.createdAt >= :from) AND (:to IS NULL OR o.createdAt < :to)" +
+            " ORDER BY o.id DESC")
+    List<OrderDetailDto> findHistoryBefore(@Param("appUserId") Long appUserId, @Param("beforeOrderId") Long beforeOrderId,
+                                           @Param("from") Instant from, @Param("to") Instant to, Pageable pageable);
+
+    @Query("SELECT new com.switix.onlinebookstore.dto.OrderDetailDto(o.id, o.total, o.createdAt, s.id, s.status)" +
+            " FROM OrderDetail o LEFT JOIN o.orderStatus s" +
+            " WHERE o.id < :beforeOrderId AND (:from IS NULL OR o.createdAt >= :from) AND (:to IS NULL OR o.createdAt < :to)" +
+            " ORDER BY o.id DESC")
+    List<OrderDetailDto> findAllHistoryBefore(@Param("beforeOrderId") Long beforeOrderId,
+                                              @Param("from") Instant from, @Param("to") Instant to, Pageable pageable);
+
+    // export of the order history, in id order, optionally filtered by status and user : read by keyset chunks seeking on
+    // id above the last one of the previous chunk, so that no connection is held between chunks
+    @Query("SELECT new com.switix.onlinebookstore.dto.OrderDetailDto(o.id, o.total, o.createdAt, s.id, s.status)" +
+            " FROM OrderDetail o LEFT JOIN o.orderStatus s" +
+            " WHERE (:orderStatusId IS NULL OR s.id = :orderStatusId) AND (:appUserId IS NULL OR o.appUser.id = :appUserId)" +
+            " AND o.id > :afterOrderId AND (:from IS NULL OR o.createdAt >= :from) AND (:to IS NULL OR o.createdAt < :to)" +
+            " ORDER BY o.id ASC")
+    List<OrderDetailDto> findHistoryAfter(@Param("orderStatusId") Long orderStatusId, @Param("appUserId") Long appUserId,
+                                          @Param("afterOrderId") Long afterOrderId,
+                                          @Param("from") Instant from, @Param("to") Instant to, Pageable pageable);
 }
@@ -2,6 +2,40 @@ package com.switix.onlinebookstore.repository;
 
 import com.switix.onlinebookstore.model.ShoppingSession;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Optional;
 
 public interface ShoppingSessionRepository extends JpaRepository<ShoppingSession, Long> {
+
+    /**
+     * Locks the row of a session until the end of the transaction : changes of a cart are serialized on it, so that
+     * the total delta of a change is computed from the quantities left by the previous one.
+     *
+     * @return id of the session, empty if it doesn't exist
+     */
+    @Query(value = "SELECT id FROM shopping_session WHERE id = :shoppingSessionId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("shoppingSessionId") Long shoppingSessionId);
+
+    // applied by the database, so concurrent cart changes don't overwrite each other's total
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ShoppingSession s SET s.total = s.total + :delta WHERE s.id = :shoppingSessionId")
+    int addToTotal(@Param("shoppingSessionId") Long shoppingSessionId, @Param("delta") BigDecimal delta);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE shopping_session SET total = (SELECT COALESCE(SUM(b.price * ci.quantity), 0)" +
+            " FROM cart_item ci JOIN book b ON b.id = ci.book_id WHERE ci.shopping_session_id = :shoppingSessionId)" +
+            " WHERE id = :shoppingSessionId", nativeQuery = true)
+    int recomputeTotal(@Param("shoppingSessionId") Long shoppingSessionId);
+
+    // fixes totals which drifted from their cart items, e.g. after a price change of a book in the cart
+    @Modifying
+    @Query(value = "UPDATE shopping_session s SET total = sums.total" +
+            " FROM (SELECT ss.id, COALESCE(SUM(b.price * ci.quantity), 0) AS total FROM shopping_session ss" +
+            " LEFT JOIN cart_item ci ON ci.shopping_session_id = ss.id LEFT JOIN book b ON b.id = ci.book_id GROUP BY ss.id) sums" +
+            " WHERE s.id = sums.id AND s.total <> sums.total", nativeQuery = true)
+    int reconcileTotals();
 }
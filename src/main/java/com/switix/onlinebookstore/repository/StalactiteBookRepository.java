@@ -1,7 +1,9 @@
 package com.switix.onlinebookstore.repository;
 
+import com.switix.onlinebookstore.dto.BookSummaryDto;
 import com.switix.onlinebookstore.model.Book;
 import org.codefilarete.stalactite.spring.repository.StalactiteRepository;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
@@ -11,4 +13,12 @@ public interface StalactiteBookRepository extends StalactiteRepository<Book,Long
     List<Book> findAllByBookAuthors_IdAndIsRemoved(Long authorId, boolean isRemoved);
     List<Book> findAllByTitleIsLikeIgnoreCaseAndIsRemoved(String title, boolean isRemoved);
 
+    // keyset pagination: seek on id instead of OFFSET, Pageable is only used to carry the page size
+    List<Book> findAllByIsRemovedAndIdGreaterThanOrderByIdAsc(boolean isRemoved, Long lastBookId, Pageable pageable);
+    List<Book> findAllByCategory_IdAndIsRemovedAndIdGreaterThanOrderByIdAsc(Long categoryId, boolean isRemoved, Long lastBookId, Pageable pageable);
+    List<Book> findAllByBookAuthors_IdAndIsRemovedAndIdGreaterThanOrderByIdAsc(Long authorId, boolean isRemoved, Long lastBookId, Pageable pageable);
+
+    // is defined by BookRepositoryTest.TestDataSourceConfig.findAllSummaries(..), only gives non-removed books
+    List<BookSummaryDto> findAllSummaries();
+
 }
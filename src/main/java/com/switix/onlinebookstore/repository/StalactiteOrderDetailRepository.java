@@ -0,0 +1,13 @@
+package com.switix.onlinebookstore.repository;
+
+import java.util.List;
+
+import com.switix.onlinebookstore.dto.OrderDetailDto;
+import com.switix.onlinebookstore.model.OrderDetail;
+import org.codefilarete.stalactite.spring.repository.StalactiteRepository;
+
+public interface StalactiteOrderDetailRepository extends StalactiteRepository<OrderDetail,Long> {
+
+    // is defined by OrderDetailRepositoryTest.TestDataSourceConfig.findHistory(..), gives all orders newest first
+    List<OrderDetailDto> findHistory();
+}
@@ -0,0 +1,178 @@
+package com.switix.onlinebookstore.search;
+
+import com.switix.onlinebookstore.dto.SearchDto;
+import com.switix.onlinebookstore.model.Author;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.model.Category;
+import com.switix.onlinebookstore.repository.AuthorRepository;
+import com.switix.onlinebookstore.repository.BookRepository;
+import com.switix.onlinebookstore.repository.CategoryRepository;
+import com.switix.onlinebookstore.service.CatalogChangedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Type-ahead suggestions of authors, categories and books, served from memory.
+ * Indexes are loaded when the application is ready and then kept in sync with {@link CatalogChangedEvent}s, only the
+ * changed entity is reloaded.
+ * Books keep the fields shown in suggestions and reference their category and authors by id, so that renaming one of
+ * those is visible in book suggestions without reindexing books. Stock isn't part of them since it changes with every
+ * order.
+ */
+@Component
+public class CatalogSuggestions {
+
+    private final AuthorRepository authorRepository;
+    private final CategoryRepository categoryRepository;
+    private final BookRepository bookRepository;
+
+    private final SuggestionIndex<AuthorSuggestion> authors = new SuggestionIndex<>();
+    private final SuggestionIndex<CategorySuggestion> categories = new SuggestionIndex<>();
+    private final SuggestionIndex<BookSuggestion> books = new SuggestionIndex<>();
+    private volatile boolean loaded;
+
+    public CatalogSuggestions(AuthorRepository authorRepository, CategoryRepository categoryRepository, BookRepository bookRepository) {
+        this.authorRepository = authorRepository;
+        this.categoryRepository = categoryRepository;
+        this.bookRepository = bookRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        authorRepository.findAll().forEach(this::index);
+        categoryRepository.findAll().forEach(this::index);
+        bookRepository.findAllByIsRemoved(false).forEach(this::index);
+        loaded = true;
+    }
+
+    /**
+     * @return true once the catalog has been loaded, before that suggestions must be looked up in database
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public SearchDto suggest(String query, int limit) {
+        SearchDto result = new SearchDto();
+        result.setSuggestedAuthors(authors.suggest(query, limit).stream().map(AuthorSuggestion::toAuthor).toList());
+        result.setSuggestedCategories(categories.suggest(query, limit).stream().map(CategorySuggestion::toCategory).toList());
+        result.setSuggestedBooks(books.suggest(query, limit).stream().map(this::toBook).toList());
+        return result;
+    }
+
+    // invoked after commit, or immediately when the change was not made in a transaction
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getChange() == CatalogChangedEvent.Change.STOCK_CHANGED || event.getChange() == CatalogChangedEvent.Change.IMPORTED) {
+            return;
+        }
+        boolean deleted = event.getChange() == CatalogChangedEvent.Change.DELETED;
+        switch (event.getSubject()) {
+            case AUTHOR -> {
+                if (deleted) {
+                    authors.remove(event.getId());
+                } else {
+                    authorRepository.findById(event.getId()).ifPresent(this::index);
+                }
+            }
+            case CATEGORY -> {
+                if (deleted) {
+                    categories.remove(event.getId());
+                } else {
+                    categoryRepository.findById(event.getId()).ifPresent(this::index);
+                }
+            }
+            case BOOK -> {
+                if (deleted) {
+                    books.remove(event.getId());
+                } else {
+                    bookRepository.findById(event.getId()).ifPresent(this::index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Indexes books created without a change event of their own, their category and authors must have been indexed.
+     */
+    public void indexBooks(Collection<Book> createdBooks) {
+        createdBooks.forEach(this::index);
+    }
+
+    private void index(Author author) {
+        authors.put(author.getId(), author.getName(), new AuthorSuggestion(author.getId(), author.getName()));
+    }
+
+    private void index(Category category) {
+        categories.put(category.getId(), category.getName(), new CategorySuggestion(category.getId(), category.getName()));
+    }
+
+    private void index(Book book) {
+        if (book.getIsRemoved()) {
+            books.remove(book.getId());
+            return;
+        }
+        Long categoryId = book.getCategory() == null ? null : book.getCategory().getId();
+        long[] authorIds = book.getBookAuthors().stream().mapToLong(Author::getId).toArray();
+        books.put(book.getId(), book.getTitle(), new BookSuggestion(book.getId(), book.getTitle(), book.getPrice(),
+                book.getImageUrl(), book.getPublicationYear(), book.getIsbn(), categoryId, authorIds));
+    }
+
+    private Book toBook(BookSuggestion suggestion) {
+        Book book = new Book();
+        book.setId(suggestion.id());
+        book.setTitle(suggestion.title());
+        book.setPrice(suggestion.price());
+        book.setImageUrl(suggestion.imageUrl());
+        book.setPublicationYear(suggestion.publicationYear());
+        book.setIsbn(suggestion.isbn());
+        if (suggestion.categoryId() != null) {
+            CategorySuggestion category = categories.get(suggestion.categoryId());
+            book.setCategory(category == null ? null : category.toCategory());
+        }
+        Set<Author> bookAuthors = new HashSet<>();
+        Arrays.stream(suggestion.authorIds())
+                .mapToObj(authors::get)
+                .filter(Objects::nonNull)
+                .map(AuthorSuggestion::toAuthor)
+                .forEach(bookAuthors::add);
+        book.setBookAuthors(bookAuthors);
+        return book;
+    }
+
+    private record AuthorSuggestion(Long id, String name) {
+
+        Author toAuthor() {
+            Author author = new Author();
+            author.setId(id);
+            author.setName(name);
+            return author;
+        }
+    }
+
+    private record CategorySuggestion(Long id, String name) {
+
+        Category toCategory() {
+            Category category = new Category();
+            category.setId(id);
+            category.setName(name);
+            return category;
+        }
+    }
+
+    private record BookSuggestion(Long id, String title, BigDecimal price, String imageUrl, int publicationYear,
+                                  String isbn, Long categoryId, long[] authorIds) {
+    }
+}
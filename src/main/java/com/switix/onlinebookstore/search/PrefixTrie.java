@@ -0,0 +1,194 @@
+package com.switix.onlinebookstore.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+/**
+ * Character trie mapping words to int entries, stored in parallel primitive arrays instead of one object per node :
+ * a node is an index into {@link #labels}, {@link #firstChild}, {@link #nextSibling} and {@link #firstPosting}, and
+ * the entries of the words ending at a node are a linked list in the posting arrays.
+ * Children are kept sorted by label, and postings by entry, so that lookups are deterministic.
+ * Nodes whose postings have all been removed are kept, they'll be reused if the word comes back.
+ * Not thread-safe.
+ */
+class PrefixTrie {
+
+    private static final int NONE = -1;
+    private static final int ROOT = 0;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private char[] labels = new char[INITIAL_CAPACITY];
+    private int[] firstChild = new int[INITIAL_CAPACITY];
+    private int[] nextSibling = new int[INITIAL_CAPACITY];
+    private int[] firstPosting = new int[INITIAL_CAPACITY];
+    private int nodeCount;
+
+    private int[] postingEntries = new int[INITIAL_CAPACITY];
+    private int[] postingNext = new int[INITIAL_CAPACITY];
+    private int postingCount;
+    private int freePosting = NONE;
+
+    PrefixTrie() {
+        newNode('\0');
+    }
+
+    void add(String word, int entry) {
+        int node = ROOT;
+        for (int i = 0; i < word.length(); i++) {
+            node = childOrCreate(node, word.charAt(i));
+        }
+        // postings are kept sorted by entry
+        int previous = NONE;
+        int next = firstPosting[node];
+        while (next != NONE && postingEntries[next] < entry) {
+            previous = next;
+            next = postingNext[next];
+        }
+        if (next != NONE && postingEntries[next] == entry) {
+            return;
+        }
+        int posting = newPosting(entry);
+        postingNext[posting] = next;
+        if (previous == NONE) {
+            firstPosting[node] = posting;
+        } else {
+            postingNext[previous] = posting;
+        }
+    }
+
+    void remove(String word, int entry) {
+        int node = find(word);
+        if (node == NONE) {
+            return;
+        }
+        int previous = NONE;
+        for (int posting = firstPosting[node]; posting != NONE; previous = posting, posting = postingNext[posting]) {
+            if (postingEntries[posting] == entry) {
+                if (previous == NONE) {
+                    firstPosting[node] = postingNext[posting];
+                } else {
+                    postingNext[previous] = postingNext[posting];
+                }
+                postingNext[posting] = freePosting;
+                freePosting = posting;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gives distinct entries of the words starting with the given prefix, the ones of shorter words first, up to the
+     * given limit.
+     */
+    int[] collect(String prefix, int limit, IntPredicate filter) {
+        int start = find(prefix);
+        if (start == NONE || limit <= 0) {
+            return new int[0];
+        }
+        int[] result = new int[Math.min(limit, 16)];
+        int resultCount = 0;
+        BitSet seen = new BitSet();
+        // breadth-first walk, the queue holds node indexes
+        int[] queue = new int[16];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int node = queue[head++];
+            for (int posting = firstPosting[node]; posting != NONE; posting = postingNext[posting]) {
+                int entry = postingEntries[posting];
+                if (!seen.get(entry)) {
+                    seen.set(entry);
+                    if (filter.test(entry)) {
+                        if (resultCount == result.length) {
+                            result = Arrays.copyOf(result, Math.min(limit, result.length * 2));
+                        }
+                        result[resultCount++] = entry;
+                        if (resultCount == limit) {
+                            return result;
+                        }
+                    }
+                }
+            }
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (tail == queue.length) {
+                    queue = Arrays.copyOf(queue, queue.length * 2);
+                }
+                queue[tail++] = child;
+            }
+        }
+        return Arrays.copyOf(result, resultCount);
+    }
+
+    private int find(String word) {
+        int node = ROOT;
+        for (int i = 0; i < word.length() && node != NONE; i++) {
+            node = child(node, word.charAt(i));
+        }
+        return node;
+    }
+
+    private int child(int node, char label) {
+        for (int child = firstChild[node]; child != NONE && labels[child] <= label; child = nextSibling[child]) {
+            if (labels[child] == label) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    private int childOrCreate(int node, char label) {
+        int previous = NONE;
+        int child = firstChild[node];
+        while (child != NONE && labels[child] < label) {
+            previous = child;
+            child = nextSibling[child];
+        }
+        if (child != NONE && labels[child] == label) {
+            return child;
+        }
+        int created = newNode(label);
+        nextSibling[created] = child;
+        if (previous == NONE) {
+            firstChild[node] = created;
+        } else {
+            nextSibling[previous] = created;
+        }
+        return created;
+    }
+
+    private int newNode(char label) {
+        if (nodeCount == labels.length) {
+            int capacity = labels.length * 2;
+            labels = Arrays.copyOf(labels, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            firstPosting = Arrays.copyOf(firstPosting, capacity);
+        }
+        int node = nodeCount++;
+        labels[node] = label;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        firstPosting[node] = NONE;
+        return node;
+    }
+
+    private int newPosting(int entry) {
+        int posting;
+        if (freePosting != NONE) {
+            posting = freePosting;
+            freePosting = postingNext[posting];
+        } else {
+            if (postingCount == postingEntries.length) {
+                int capacity = postingEntries.length * 2;
+                postingEntries = Arrays.copyOf(postingEntries, capacity);
+                postingNext = Arrays.copyOf(postingNext, capacity);
+            }
+            posting = postingCount++;
+        }
+        postingEntries[posting] = entry;
+        postingNext[posting] = NONE;
+        return posting;
+    }
+}
@@ -0,0 +1,38 @@
+package com.switix.onlinebookstore.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Folds catalog texts and search queries to the form stored in suggestion indexes : lower case, without diacritics
+ * (so that "lodz" finds "Łódź"), split into words.
+ */
+public final class SearchTextFolding {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final String[] NO_TOKENS = new String[0];
+
+    private SearchTextFolding() {
+    }
+
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        // ł is a letter of its own in Unicode, it doesn't decompose into l + combining mark as other Polish letters do
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('ł', 'l')
+                .replace('Ł', 'L')
+                .toLowerCase(Locale.ROOT);
+    }
+
+    public static String[] tokens(String text) {
+        if (text == null) {
+            return NO_TOKENS;
+        }
+        return Arrays.stream(WORD_SEPARATORS.split(fold(text)))
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,28 @@
+package com.switix.onlinebookstore.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class SuggestionExecutorConfig {
+
+    public static final String SUGGESTION_EXECUTOR = "suggestionExecutor";
+
+    // bounded on both threads and queue so that a burst of keystrokes can't pile up database queries : lookups that
+    // can't be queued are rejected and their branch of the suggestion is left empty
+    @Bean(SUGGESTION_EXECUTOR)
+    public ThreadPoolTaskExecutor suggestionExecutor(@Value("${search.suggestions.threads:6}") int threads,
+                                                     @Value("${search.suggestions.queue-capacity:60}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("suggestion-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+}
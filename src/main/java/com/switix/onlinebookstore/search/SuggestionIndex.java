@@ -0,0 +1,145 @@
+package com.switix.onlinebookstore.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix index of values by the words of a text : a value is suggested for a query when each word of the query starts
+ * one of the words of the value text, diacritics and case being ignored.
+ * Values are registered with the id of the entity they come from, which is used to replace or remove them.
+ * Thread-safe : lookups run concurrently, modifications are exclusive.
+ *
+ * @param <T> type of indexed values
+ */
+public class SuggestionIndex<T> {
+
+    private final PrefixTrie trie = new PrefixTrie();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // entries of the trie are slots of these arrays, released slots are chained through nextFreeSlot
+    private Object[] values = new Object[64];
+    private String[][] words = new String[64][];
+    private int[] nextFreeSlot = new int[64];
+    private int slotCount;
+    private int freeSlot = -1;
+
+    public void put(Long id, String text, T value) {
+        String[] textWords = SearchTextFolding.tokens(text);
+        lock.writeLock().lock();
+        try {
+            removeSlot(id);
+            int slot = newSlot();
+            values[slot] = value;
+            words[slot] = textWords;
+            slotsById.put(id, slot);
+            for (String word : textWords) {
+                trie.add(word, slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeSlot(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (Long id : new ArrayList<>(slotsById.keySet())) {
+                removeSlot(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(Long id) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotsById.get(id);
+            return slot == null ? null : (T) values[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<T> suggest(String query, int limit) {
+        String[] queryWords = SearchTextFolding.tokens(query);
+        if (queryWords.length == 0) {
+            return List.of();
+        }
+        // the longest word is the most selective one, it's looked up in the trie and the others are checked on its
+        // matches
+        String longestWord = Arrays.stream(queryWords)
+                .reduce((word1, word2) -> word2.length() > word1.length() ? word2 : word1)
+                .get();
+        lock.readLock().lock();
+        try {
+            int[] slots = trie.collect(longestWord, limit, slot -> startsWords(words[slot], queryWords));
+            List<T> result = new ArrayList<>(slots.length);
+            for (int slot : slots) {
+                result.add((T) values[slot]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean startsWords(String[] textWords, String[] queryWords) {
+        for (String queryWord : queryWords) {
+            boolean found = false;
+            for (int i = 0; i < textWords.length && !found; i++) {
+                found = textWords[i].startsWith(queryWord);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removeSlot(Long id) {
+        Integer slot = slotsById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        for (String word : words[slot]) {
+            trie.remove(word, slot);
+        }
+        values[slot] = null;
+        words[slot] = null;
+        nextFreeSlot[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    private int newSlot() {
+        if (freeSlot != -1) {
+            int slot = freeSlot;
+            freeSlot = nextFreeSlot[slot];
+            return slot;
+        }
+        if (slotCount == values.length) {
+            int capacity = values.length * 2;
+            values = Arrays.copyOf(values, capacity);
+            words = Arrays.copyOf(words, capacity);
+            nextFreeSlot = Arrays.copyOf(nextFreeSlot, capacity);
+        }
+        return slotCount++;
+    }
+}
@@ -0,0 +1,103 @@
+package com.switix.onlinebookstore.search;
+
+import com.switix.onlinebookstore.dto.SearchDto;
+import com.switix.onlinebookstore.service.AuthorService;
+import com.switix.onlinebookstore.service.BookService;
+import com.switix.onlinebookstore.service.CategoryService;
+import com.switix.onlinebookstore.service.SearchQueries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Computes type-ahead suggestions for a raw user query : from {@link CatalogSuggestions} once it's loaded, otherwise
+ * by looking up authors, categories and books in database concurrently.
+ * Each lookup is capped to {@link #SUGGESTION_LIMIT} results, and the ones still running when the deadline is reached
+ * are left empty so that slow branches don't hold the response.
+ */
+@Component
+public class SuggestionPipeline {
+
+    public static final int SUGGESTION_LIMIT = 5;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SuggestionPipeline.class);
+
+    private final CatalogSuggestions catalogSuggestions;
+    private final AuthorService authorService;
+    private final CategoryService categoryService;
+    private final BookService bookService;
+    private final ThreadPoolTaskExecutor executor;
+    private final Duration timeout;
+
+    public SuggestionPipeline(CatalogSuggestions catalogSuggestions, AuthorService authorService, CategoryService categoryService, BookService bookService,
+                              @Qualifier(SuggestionExecutorConfig.SUGGESTION_EXECUTOR) ThreadPoolTaskExecutor executor,
+                              @Value("${search.suggestions.timeout:300ms}") Duration timeout) {
+        this.catalogSuggestions = catalogSuggestions;
+        this.authorService = authorService;
+        this.categoryService = categoryService;
+        this.bookService = bookService;
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    public SearchDto suggest(String query) {
+        String normalizedQuery = SearchQueries.normalize(query);
+        SearchDto result = new SearchDto();
+        if (normalizedQuery.isEmpty()) {
+            result.setSuggestedAuthors(List.of());
+            result.setSuggestedCategories(List.of());
+            result.setSuggestedBooks(List.of());
+            return result;
+        }
+        if (catalogSuggestions.isLoaded()) {
+            return catalogSuggestions.suggest(normalizedQuery, SUGGESTION_LIMIT);
+        }
+
+        var authors = lookup("authors", () -> authorService.searchAuthorsByName(normalizedQuery, SUGGESTION_LIMIT));
+        var categories = lookup("categories", () -> categoryService.searchCategoriesByName(normalizedQuery, SUGGESTION_LIMIT));
+        var books = lookup("books", () -> bookService.searchBooksByTitle(normalizedQuery, SUGGESTION_LIMIT, false));
+
+        // one deadline for all branches : the response waits for the slowest lookup, at most until the deadline
+        long deadline = System.nanoTime() + timeout.toNanos();
+        result.setSuggestedAuthors(await("authors", authors, deadline));
+        result.setSuggestedCategories(await("categories", categories, deadline));
+        result.setSuggestedBooks(await("books", books, deadline));
+        return result;
+    }
+
+    private <T> CompletableFuture<List<T>> lookup(String branch, Supplier<List<T>> search) {
+        try {
+            return CompletableFuture.supplyAsync(search, executor);
+        } catch (TaskRejectedException e) {
+            LOGGER.warn("Suggestion lookup of {} rejected, executor is saturated", branch);
+            return CompletableFuture.completedFuture(List.of());
+        }
+    }
+
+    private static <T> List<T> await(String branch, CompletableFuture<List<T>> lookup, long deadline) {
+        try {
+            return lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.debug("Suggestion lookup of {} exceeded its deadline", branch);
+            return List.of();
+        } catch (ExecutionException e) {
+            LOGGER.warn("Suggestion lookup of {} failed", branch, e.getCause());
+            return List.of();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+    }
+}
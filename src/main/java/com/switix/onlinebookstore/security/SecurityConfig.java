@@ -41,8 +41,11 @@ public class SecurityConfig {
                                 .requestMatchers("api/orders/**").hasAnyRole("CUSTOMER","ADMIN")
                                 .requestMatchers("api/billingAddress/**").hasRole("CUSTOMER")
                                 .requestMatchers("api/shippingAddress/**").hasRole("CUSTOMER")
+                                .requestMatchers("api/books/admin/**").hasRole("ADMIN")
                                 .requestMatchers("api/authors/admin/**").hasRole("ADMIN")
                                 .requestMatchers("api/categories/admin/**").hasRole("ADMIN")
+                                .requestMatchers("/api/referenceData/admin/**").hasRole("ADMIN")
+                                .requestMatchers("/actuator/metrics/**", "/actuator/caches/**").hasRole("ADMIN")
                                 //.anyRequest().hasRole("CUSTOMER")
                                 .anyRequest().permitAll()
                 )
@@ -0,0 +1,95 @@
+package com.switix.onlinebookstore.seed;
+
+import com.switix.onlinebookstore.cache.ReferenceData;
+import com.switix.onlinebookstore.search.CatalogSuggestions;
+import com.switix.onlinebookstore.service.BookCounts;
+import com.switix.onlinebookstore.service.CatalogChangedEvent;
+import com.switix.onlinebookstore.service.CatalogChangedEvent.Change;
+import com.switix.onlinebookstore.service.CatalogChangedEvent.Subject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds the database with the fixture while the application starts, before the web server accepts requests : login,
+ * registration and checkout never meet an empty database. Synthetic data, whose volume is only bounded by the
+ * seed.synthetic.* properties, is generated in background once the application is ready, and state derived from the
+ * database at startup (book counters, suggestions, catalog version) is refreshed once it's done.
+ */
+@Component
+public class DataSeeding implements SmartInitializingSingleton {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataSeeding.class);
+
+    private final FixtureSeeder fixtureSeeder;
+    private final SyntheticDataSeeder syntheticDataSeeder;
+    private final BookCounts bookCounts;
+    private final CatalogSuggestions catalogSuggestions;
+    private final ReferenceData referenceData;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskExecutor executor;
+    private final boolean enabled;
+
+    public DataSeeding(FixtureSeeder fixtureSeeder, SyntheticDataSeeder syntheticDataSeeder, BookCounts bookCounts,
+                       CatalogSuggestions catalogSuggestions, ReferenceData referenceData, ApplicationEventPublisher eventPublisher,
+                       @Qualifier(SeedExecutorConfig.SEED_EXECUTOR) TaskExecutor executor,
+                       @Value("${seed.enabled:true}") boolean enabled) {
+        this.fixtureSeeder = fixtureSeeder;
+        this.syntheticDataSeeder = syntheticDataSeeder;
+        this.bookCounts = bookCounts;
+        this.catalogSuggestions = catalogSuggestions;
+        this.referenceData = referenceData;
+        this.eventPublisher = eventPublisher;
+        this.executor = executor;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Loads the fixture once all singletons are created, which is before the web server starts : a failure stops the
+     * start rather than serving an application without reference data.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        boolean fixtureSeeded = fixtureSeeder.seed();
+        if (fixtureSeeded) {
+            // reference data may have been read, hence cached, while singletons were created
+            referenceData.reload();
+        }
+        LOGGER.info("Fixture seeding done in {} ms (fixture loaded: {})", System.currentTimeMillis() - start, fixtureSeeded);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedSyntheticDataInBackground() {
+        if (enabled) {
+            executor.execute(this::seedSyntheticData);
+        }
+    }
+
+    private void seedSyntheticData() {
+        long start = System.currentTimeMillis();
+        try {
+            boolean syntheticDataSeeded = syntheticDataSeeder.seed();
+            if (syntheticDataSeeded) {
+                bookCounts.rebuild();
+                catalogSuggestions.load();
+                // book lists are refreshed and clients told the catalog changed, as after an import
+                eventPublisher.publishEvent(new CatalogChangedEvent(Subject.BOOK, Change.IMPORTED, null));
+            }
+            LOGGER.info("Synthetic data seeding done in {} ms (synthetic data generated: {})",
+                    System.currentTimeMillis() - start, syntheticDataSeeded);
+        } catch (RuntimeException e) {
+            LOGGER.error("Synthetic data seeding failed", e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.switix.onlinebookstore.seed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.switix.onlinebookstore.dto.ImportBookDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the fixture data set : reference data (roles, order statuses, pay and shipment methods, Poland and its cities),
+ * the catalog of {@value #BOOKS}, and a few users with addresses and a cart. Both files are read from the classpath.
+ * Rows are written by JDBC batches in a single transaction, which is skipped when the database already has users :
+ * loading is safe to run on every start, and a lock keeps instances started together from both loading it.
+ */
+@Component
+public class FixtureSeeder {
+
+    static final String CITIES = "cities/poland.csv";
+    static final String BOOKS = "seed/books.jsonl";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FixtureSeeder.class);
+    // key of the transaction-level advisory lock taken while loading
+    private static final long LOCK_KEY = 0x5eedL;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final RowInserter rowInserter;
+
+    public FixtureSeeder(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, PasswordEncoder passwordEncoder, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.rowInserter = new RowInserter(jdbcTemplate);
+    }
+
+    /**
+     * @return true if the fixture was loaded, false if the database already had users
+     */
+    public boolean seed() {
+        List<String> cityNames = readCityNames();
+        List<ImportBookDto> books = readBooks();
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            if (jdbcTemplate.queryForObject("SELECT count(*) FROM app_user", Long.class) > 0) {
+                return false;
+            }
+            Map<String, Long> roleIds = insertNames("role", "name", List.of("ROLE_CUSTOMER", "ROLE_ADMIN"));
+            insertNames("order_status", "status", List.of("Nieopłacone", "Opłacone", "W realizacji", "Wysłane"));
+            rowInserter.insert("pay_method", "name, image_url", List.of(
+                    new Object[]{"Przedpłata - Blik", "https://pep.pl/online/wp-content/uploads/sites/2/2022/04/BLIK-LOGO-RGB.png"},
+                    new Object[]{"Przedpłata - PayPal", "https://www.citypng.com/public/uploads/preview/transparent-hd-paypal-logo-701751694777788ilpzr3lary.png"}));
+            rowInserter.insert("shipment_method", "name, price, image_url", List.of(
+                    new Object[]{"Kurier Inpost", BigDecimal.ZERO, "https://inpost.pl/sites/default/files/2021-02/logo_Kurier.png"},
+                    new Object[]{"Kurier DPD", new BigDecimal("12.30"), "https://upload.wikimedia.org/wikipedia/commons/thumb/4/4c/DPD_logo%28red%292015.png/800px-DPD_logo%28red%292015.png"}));
+            Long countryId = insertNames("country", "country_name", List.of("Polska")).get("Polska");
+            Long cityId = insertNames("city", "city_name", cityNames).get("Nakło nad Notecią");
+
+            List<Long> bookIds = insertBooks(books);
+
+            List<Long> userIds = rowInserter.insert("app_user", "email, password, name, lastname, role_id", List.of(
+                    new Object[]{"user@example.com", passwordEncoder.encode("user"), "Maciej", "Świtalski", roleIds.get("ROLE_CUSTOMER")},
+                    new Object[]{"admin@example.com", passwordEncoder.encode("admin"), "Maciej", "Świtalski", roleIds.get("ROLE_ADMIN")},
+                    new Object[]{"macie789@wp.pl", passwordEncoder.encode("user"), "Maciej", "Świtalski", roleIds.get("ROLE_CUSTOMER")}));
+            Long userWithCartItems = userIds.get(0);
+            Long userWithoutCartItems = userIds.get(2);
+            rowInserter.insert("billing_address", "app_user_id, country_id, city_id, street, building_number, apartment_number, zip_code, phone_number",
+                    List.<Object[]>of(new Object[]{userWithCartItems, countryId, cityId, "Nowa", "35", "3", "89-100", "123456789"}));
+            rowInserter.insert("shipping_address", "app_user_id, country_id, city_id, street, building_number, apartment_number, zip_code, name",
+                    List.<Object[]>of(new Object[]{userWithCartItems, countryId, cityId, "Nowa", "35", "3", "89-100", "dom"}));
+
+            // cart of the first customer holds one copy of the first book and two of the third one
+            BigDecimal cartTotal = books.get(0).getPrice().add(books.get(2).getPrice().multiply(BigDecimal.valueOf(2)));
+            List<Long> shoppingSessionIds = rowInserter.insert("shopping_session", "app_user_id, total", List.of(
+                    new Object[]{userWithoutCartItems, BigDecimal.ZERO},
+                    new Object[]{userWithCartItems, cartTotal}));
+            rowInserter.insertWithPooledSequence("cart_item", "cart_item_seq", "shopping_session_id, book_id, quantity", List.of(
+                    new Object[]{shoppingSessionIds.get(1), bookIds.get(0), 1},
+                    new Object[]{shoppingSessionIds.get(1), bookIds.get(2), 2}));
+            return true;
+        }));
+    }
+
+    private List<Long> insertBooks(List<ImportBookDto> books) {
+        // listed rather than collected from the books, so that their ids don't depend on the order of the file
+        Map<String, Long> categoryIds = insertNames("category", "name", List.of("Fantasy", "Science Fiction", "Horror", "Romans", "Powieść dystopijna"));
+        Map<String, Long> authorIds = insertNames("author", "name", List.of("J.K. Rowling", "George Orwell", "Stephen King", "Peter Straub",
+                "Jane Austen", "J.R.R. Tolkien", "George R.R. Martin", "Joe Hill"));
+        List<Long> inventoryIds = rowInserter.insert("book_inventory", "quantity",
+                books.stream().map(book -> new Object[]{book.getQuantity()}).toList());
+        List<Object[]> bookRows = new ArrayList<>(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            ImportBookDto book = books.get(i);
+            bookRows.add(new Object[]{false, book.getTitle(), book.getDescription(), book.getPrice(), book.getImageUrl(),
+                    book.getPublicationYear(), book.getIsbn(), categoryIds.get(book.getCategory()), inventoryIds.get(i)});
+        }
+        List<Long> bookIds = rowInserter.insert("book",
+                "is_removed, title, description, price, image_url, publication_year, isbn, category_id, inventory_id", bookRows);
+        List<Object[]> bookAuthorRows = new ArrayList<>();
+        for (int i = 0; i < books.size(); i++) {
+            for (String author : books.get(i).getAuthors()) {
+                bookAuthorRows.add(new Object[]{bookIds.get(i), authorIds.get(author)});
+            }
+        }
+        rowInserter.insertWithoutId("book_author", "book_id, author_id", bookAuthorRows);
+        return bookIds;
+    }
+
+    // ids by name, first one wins if a name is repeated
+    private Map<String, Long> insertNames(String table, String column, List<String> names) {
+        List<Long> ids = rowInserter.insert(table, column, names.stream().map(name -> new Object[]{name}).toList());
+        Map<String, Long> idsByName = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            idsByName.putIfAbsent(names.get(i), ids.get(i));
+        }
+        return idsByName;
+    }
+
+    private List<String> readCityNames() {
+        List<String> cityNames = new ArrayList<>();
+        for (String line : readLines(CITIES)) {
+            // name, then voivodeship
+            String[] columns = line.split(",");
+            if (columns.length >= 2) {
+                cityNames.add(columns[0].trim());
+            } else {
+                LOGGER.warn("Incomplete line of {} skipped: {}", CITIES, line);
+            }
+        }
+        return cityNames;
+    }
+
+    private List<ImportBookDto> readBooks() {
+        List<ImportBookDto> books = new ArrayList<>();
+        for (String line : readLines(BOOKS)) {
+            try {
+                books.add(objectMapper.readValue(line, ImportBookDto.class));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Invalid book in " + BOOKS + ": " + line, e);
+            }
+        }
+        return books;
+    }
+
+    private static List<String> readLines(String resource) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ClassPathResource(resource).getInputStream(), StandardCharsets.UTF_8))) {
+            return reader.lines().filter(line -> !line.isBlank()).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Reading of " + resource + " failed", e);
+        }
+    }
+}
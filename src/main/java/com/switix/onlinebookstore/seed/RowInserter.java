@@ -0,0 +1,68 @@
+package com.switix.onlinebookstore.seed;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inserts rows by JDBC batches, with ids taken beforehand from the sequence of the table in a single query : generated
+ * keys don't have to be read back, and the ids of a batch are known to reference its rows from other tables.
+ */
+class RowInserter {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    RowInserter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param table table whose id is an identity column
+     * @param columns columns of the rows, besides id
+     * @return ids of the rows, in their order
+     */
+    List<Long> insert(String table, String columns, List<Object[]> rows) {
+        return insert(table, nextIds("pg_get_serial_sequence('" + table + "', 'id')", rows.size()), columns, rows);
+    }
+
+    /**
+     * Same as {@link #insert(String, String, List)} for a table whose ids come from a pooled sequence of Hibernate. Each
+     * value taken from it is the upper bound of a block of ids, taking one id per value keeps blocks that Hibernate
+     * takes itself free.
+     */
+    List<Long> insertWithPooledSequence(String table, String sequence, String columns, List<Object[]> rows) {
+        return insert(table, nextIds("'" + sequence + "'", rows.size()), columns, rows);
+    }
+
+    void insertWithoutId(String table, String columns, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders(rows.get(0).length) + ")", rows);
+        }
+    }
+
+    private List<Long> insert(String table, List<Long> ids, String columns, List<Object[]> rows) {
+        List<Object[]> rowsWithIds = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            Object[] rowWithId = new Object[row.length + 1];
+            rowWithId[0] = ids.get(i);
+            System.arraycopy(row, 0, rowWithId, 1, row.length);
+            rowsWithIds.add(rowWithId);
+        }
+        insertWithoutId(table, "id, " + columns, rowsWithIds);
+        return ids;
+    }
+
+    private List<Long> nextIds(String sequence, int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList("SELECT nextval(" + sequence + ") FROM generate_series(1, ?)", Long.class, count);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,21 @@
+package com.switix.onlinebookstore.seed;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class SeedExecutorConfig {
+
+    public static final String SEED_EXECUTOR = "seedExecutor";
+
+    // synthetic data is generated chunk after chunk by a single thread, a second one would only compete for the same rows
+    @Bean(SEED_EXECUTOR)
+    public ThreadPoolTaskExecutor seedExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("seed-");
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        return executor;
+    }
+}
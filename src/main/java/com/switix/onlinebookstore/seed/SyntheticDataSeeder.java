@@ -0,0 +1,244 @@
+package com.switix.onlinebookstore.seed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a synthetic catalog, customers and order history for load tests, on top of the fixture whose categories,
+ * authors and reference data they use. Their sizes are set by the seed.synthetic.* properties, and each start only
+ * generates what's missing to reach them : synthetic rows are told apart by their ISBN or email, and generated from
+ * their index so that a data set is the same whatever the number of starts it took to reach it.
+ * Rows are written by JDBC batches, in one transaction per chunk.
+ */
+@Component
+public class SyntheticDataSeeder {
+
+    static final String ISBN_PREFIX = "SYN-";
+    static final String EMAIL_PREFIX = "synthetic-user-";
+    static final String EMAIL_DOMAIN = "@example.com";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SyntheticDataSeeder.class);
+    private static final int CHUNK_SIZE = 1000;
+    // key of the session-level advisory lock held while generating
+    private static final long LOCK_KEY = 0x5eed5L;
+    // orders are dated one per step from this date, whatever their number : a top-up dates new orders after existing ones
+    private static final Instant ORDER_EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Duration ORDER_STEP = Duration.ofSeconds(30);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final RowInserter rowInserter;
+    private final long bookCount;
+    private final long userCount;
+    private final long orderCount;
+
+    public SyntheticDataSeeder(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, PasswordEncoder passwordEncoder,
+                               @Value("${seed.synthetic.books:0}") long bookCount,
+                               @Value("${seed.synthetic.users:0}") long userCount,
+                               @Value("${seed.synthetic.orders:0}") long orderCount) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.rowInserter = new RowInserter(jdbcTemplate);
+        this.bookCount = bookCount;
+        this.userCount = userCount;
+        this.orderCount = orderCount;
+    }
+
+    /**
+     * @return true if any row was generated
+     */
+    public boolean seed() {
+        // the lock is held by its own connection for the whole top-up, chunks being written by other ones : instances
+        // started together generate the missing rows one after the other, rather than both counting the same ones
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+            }
+            try {
+                boolean seededBooks = seedBooks();
+                boolean seededUsers = seedUsers();
+                boolean seededOrders = seedOrders();
+                return seededBooks || seededUsers || seededOrders;
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+                }
+            }
+        }));
+    }
+
+    private boolean seedBooks() {
+        long existing = count("SELECT count(*) FROM book WHERE isbn LIKE '" + ISBN_PREFIX + "%'");
+        if (existing >= bookCount) {
+            return false;
+        }
+        List<Long> categoryIds = jdbcTemplate.queryForList("SELECT id FROM category ORDER BY id", Long.class);
+        List<Long> authorIds = jdbcTemplate.queryForList("SELECT id FROM author ORDER BY id", Long.class);
+        for (long from = existing; from < bookCount; from += CHUNK_SIZE) {
+            long to = Math.min(from + CHUNK_SIZE, bookCount);
+            long chunkFrom = from;
+            transactionTemplate.executeWithoutResult(status -> insertBooks(chunkFrom, to, categoryIds, authorIds));
+            LOGGER.info("Generated {} of {} synthetic books", to, bookCount);
+        }
+        return true;
+    }
+
+    private void insertBooks(long from, long to, List<Long> categoryIds, List<Long> authorIds) {
+        List<Object[]> inventoryRows = new ArrayList<>();
+        for (long index = from; index < to; index++) {
+            inventoryRows.add(new Object[]{new Random(index).nextInt(100)});
+        }
+        List<Long> inventoryIds = rowInserter.insert("book_inventory", "quantity", inventoryRows);
+        List<Object[]> bookRows = new ArrayList<>();
+        for (long index = from; index < to; index++) {
+            Random random = new Random(index);
+            Long categoryId = categoryIds.isEmpty() ? null : categoryIds.get((int) (index % categoryIds.size()));
+            bookRows.add(new Object[]{false, "Synthetic book " + (index + 1), "Book generated for load tests.",
+                    BigDecimal.valueOf(500 + random.nextInt(15000), 2), "synthetic.jpg", 1900 + random.nextInt(125),
+                    String.format("%s%09d", ISBN_PREFIX, index + 1), categoryId, inventoryIds.get((int) (index - from))});
+        }
+        List<Long> bookIds = rowInserter.insert("book",
+                "is_removed, title, description, price, image_url, publication_year, isbn, category_id, inventory_id", bookRows);
+        if (!authorIds.isEmpty()) {
+            List<Object[]> bookAuthorRows = new ArrayList<>();
+            for (long index = from; index < to; index++) {
+                bookAuthorRows.add(new Object[]{bookIds.get((int) (index - from)), authorIds.get((int) (index % authorIds.size()))});
+            }
+            rowInserter.insertWithoutId("book_author", "book_id, author_id", bookAuthorRows);
+        }
+    }
+
+    private boolean seedUsers() {
+        long existing = count("SELECT count(*) FROM app_user WHERE email LIKE '" + EMAIL_PREFIX + "%'");
+        if (existing >= userCount) {
+            return false;
+        }
+        List<Long> roleIds = jdbcTemplate.queryForList("SELECT id FROM role WHERE name = 'ROLE_CUSTOMER'", Long.class);
+        Long countryId = jdbcTemplate.queryForObject("SELECT min(id) FROM country", Long.class);
+        Long cityId = jdbcTemplate.queryForObject("SELECT min(id) FROM city", Long.class);
+        if (roleIds.isEmpty() || countryId == null || cityId == null) {
+            LOGGER.warn("Synthetic users not generated, customer role, countries or cities are missing");
+            return false;
+        }
+        // encoding is slow on purpose, users share the password "user"
+        String password = passwordEncoder.encode("user");
+        for (long from = existing; from < userCount; from += CHUNK_SIZE) {
+            long to = Math.min(from + CHUNK_SIZE, userCount);
+            long chunkFrom = from;
+            transactionTemplate.executeWithoutResult(status -> insertUsers(chunkFrom, to, password, roleIds.get(0), countryId, cityId));
+            LOGGER.info("Generated {} of {} synthetic users", to, userCount);
+        }
+        return true;
+    }
+
+    private void insertUsers(long from, long to, String password, Long roleId, Long countryId, Long cityId) {
+        List<Object[]> userRows = new ArrayList<>();
+        for (long index = from; index < to; index++) {
+            userRows.add(new Object[]{EMAIL_PREFIX + (index + 1) + EMAIL_DOMAIN, password, "Synthetic", "User " + (index + 1), roleId});
+        }
+        List<Long> userIds = rowInserter.insert("app_user", "email, password, name, lastname, role_id", userRows);
+        rowInserter.insert("shopping_session", "app_user_id, total",
+                userIds.stream().map(userId -> new Object[]{userId, BigDecimal.ZERO}).toList());
+        rowInserter.insert("billing_address", "app_user_id, country_id, city_id, street, building_number, zip_code, phone_number",
+                userIds.stream().map(userId -> new Object[]{userId, countryId, cityId, "Testowa", String.valueOf(userId % 200 + 1), "00-001", "123456789"}).toList());
+        rowInserter.insert("shipping_address", "app_user_id, country_id, city_id, street, building_number, zip_code, name",
+                userIds.stream().map(userId -> new Object[]{userId, countryId, cityId, "Testowa", String.valueOf(userId % 200 + 1), "00-001", "dom"}).toList());
+    }
+
+    private boolean seedOrders() {
+        long existing = count("SELECT count(*) FROM order_detail o JOIN app_user u ON u.id = o.app_user_id WHERE u.email LIKE '" + EMAIL_PREFIX + "%'");
+        if (existing >= orderCount) {
+            return false;
+        }
+        // ids of each user, of its billing address and of its shipping address
+        List<long[]> users = jdbcTemplate.query("SELECT u.id, min(b.id), min(s.id) FROM app_user u" +
+                        " JOIN billing_address b ON b.app_user_id = u.id JOIN shipping_address s ON s.app_user_id = u.id" +
+                        " WHERE u.email LIKE '" + EMAIL_PREFIX + "%' GROUP BY u.id ORDER BY u.id",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+        List<Priced> books = jdbcTemplate.query("SELECT id, price FROM book WHERE is_removed = false ORDER BY id",
+                (rs, rowNum) -> new Priced(rs.getLong(1), rs.getBigDecimal(2)));
+        List<Priced> shipmentMethods = jdbcTemplate.query("SELECT id, price FROM shipment_method ORDER BY id",
+                (rs, rowNum) -> new Priced(rs.getLong(1), rs.getBigDecimal(2)));
+        List<Long> payMethodIds = jdbcTemplate.queryForList("SELECT id FROM pay_method ORDER BY id", Long.class);
+        List<Long> orderStatusIds = jdbcTemplate.queryForList("SELECT id FROM order_status ORDER BY id", Long.class);
+        if (users.isEmpty() || books.isEmpty() || shipmentMethods.isEmpty() || payMethodIds.isEmpty()) {
+            LOGGER.warn("Synthetic orders not generated, synthetic users, books, shipment or pay methods are missing");
+            return false;
+        }
+        OrderReferences references = new OrderReferences(users, books, shipmentMethods, payMethodIds, orderStatusIds);
+        for (long from = existing; from < orderCount; from += CHUNK_SIZE) {
+            long to = Math.min(from + CHUNK_SIZE, orderCount);
+            long chunkFrom = from;
+            transactionTemplate.executeWithoutResult(status -> insertOrders(chunkFrom, to, references));
+            LOGGER.info("Generated {} of {} synthetic orders", to, orderCount);
+        }
+        return true;
+    }
+
+    private void insertOrders(long from, long to, OrderReferences references) {
+        List<Object[]> orderRows = new ArrayList<>();
+        List<List<Object[]>> itemsByOrder = new ArrayList<>();
+        for (long index = from; index < to; index++) {
+            Random random = new Random(index);
+            long[] user = references.users().get(random.nextInt(references.users().size()));
+            Priced shipmentMethod = references.shipmentMethods().get(random.nextInt(references.shipmentMethods().size()));
+            // up to 3 distinct books, the ones following a random one
+            int firstBook = random.nextInt(references.books().size());
+            int bookCount = 1 + random.nextInt(Math.min(3, references.books().size()));
+            BigDecimal total = shipmentMethod.price();
+            List<Object[]> items = new ArrayList<>();
+            for (int i = 0; i < bookCount; i++) {
+                Priced book = references.books().get((firstBook + i) % references.books().size());
+                int quantity = 1 + random.nextInt(3);
+                total = total.add(book.price().multiply(BigDecimal.valueOf(quantity)));
+                items.add(new Object[]{book.id(), quantity});
+            }
+            Long orderStatusId = references.orderStatusIds().isEmpty() ? null
+                    : references.orderStatusIds().get(random.nextInt(references.orderStatusIds().size()));
+            // orders are dated in the order of their ids, as if placed one after the other
+            Instant createdAt = ORDER_EPOCH.plus(ORDER_STEP.multipliedBy(index)).plusMillis(random.nextLong(ORDER_STEP.toMillis()));
+            orderRows.add(new Object[]{user[0], user[1], user[2], references.payMethodIds().get(random.nextInt(references.payMethodIds().size())),
+                    shipmentMethod.id(), orderStatusId, total, Timestamp.from(createdAt)});
+            itemsByOrder.add(items);
+        }
+        List<Long> orderIds = rowInserter.insert("order_detail",
+                "app_user_id, billing_address_id, shipping_address_id, pay_method_id, shipment_method_id, order_status_id, total, created_at", orderRows);
+        // stock isn't taken from inventories, generated orders are past ones
+        List<Object[]> itemRows = new ArrayList<>();
+        for (int i = 0; i < orderIds.size(); i++) {
+            for (Object[] item : itemsByOrder.get(i)) {
+                itemRows.add(new Object[]{orderIds.get(i), item[0], item[1]});
+            }
+        }
+        rowInserter.insertWithPooledSequence("order_item", "order_item_seq", "order_detail_id, book_id, quantity", itemRows);
+    }
+
+    private long count(String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private record Priced(long id, BigDecimal price) {
+    }
+
+    private record OrderReferences(List<long[]> users, List<Priced> books, List<Priced> shipmentMethods,
+                                   List<Long> payMethodIds, List<Long> orderStatusIds) {
+    }
+}
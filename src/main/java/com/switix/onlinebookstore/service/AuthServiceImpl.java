@@ -1,5 +1,6 @@
 package com.switix.onlinebookstore.service;
 
+import com.switix.onlinebookstore.cache.ReferenceData;
 import com.switix.onlinebookstore.dto.AppUserDto;
 import com.switix.onlinebookstore.dto.RegisterDto;
 import com.switix.onlinebookstore.exception.EmailAlreadyExistsException;
@@ -7,7 +8,6 @@ import com.switix.onlinebookstore.model.AppUser;
 import com.switix.onlinebookstore.model.Role;
 import com.switix.onlinebookstore.model.ShoppingSession;
 import com.switix.onlinebookstore.repository.AppUserRepository;
-import com.switix.onlinebookstore.repository.RoleRepository;
 import com.switix.onlinebookstore.repository.ShoppingSessionRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -31,16 +31,16 @@ public class AuthServiceImpl implements AuthService {
 
     private final PasswordEncoder passwordEncoder;
     private final AppUserRepository appUserRepository;
-    private final RoleRepository roleRepository;
+    private final ReferenceData referenceData;
     private final ShoppingSessionRepository shoppingSessionRepository;
     private final AuthenticationManager authenticationManager;
     private final SecurityContextRepository securityContextRepository = new HttpSessionSecurityContextRepository();
     private final SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder.getContextHolderStrategy();
 
-    public AuthServiceImpl(PasswordEncoder passwordEncoder, AppUserRepository appUserRepository, RoleRepository roleRepository, ShoppingSessionRepository shoppingSessionRepository, AuthenticationManager authenticationManager) {
+    public AuthServiceImpl(PasswordEncoder passwordEncoder, AppUserRepository appUserRepository, ReferenceData referenceData, ShoppingSessionRepository shoppingSessionRepository, AuthenticationManager authenticationManager) {
         this.passwordEncoder = passwordEncoder;
         this.appUserRepository = appUserRepository;
-        this.roleRepository = roleRepository;
+        this.referenceData = referenceData;
         this.shoppingSessionRepository = shoppingSessionRepository;
         this.authenticationManager = authenticationManager;
     }
@@ -59,7 +59,7 @@ public class AuthServiceImpl implements AuthService {
         appUser.setPassword(passwordEncoder.encode((registerDto.getPassword())));
         appUser.setEmail(registerDto.getEmail());
 
-        Role role = roleRepository.findByName("ROLE_CUSTOMER").get();
+        Role role = referenceData.role("ROLE_CUSTOMER").orElseThrow();
         appUser.setRole(role);
         AppUser savedUser = appUserRepository.save(appUser);
 
@@ -9,12 +9,15 @@ import java.util.List;
 import java.util.Optional;
 
 public interface AuthorService {
-    List<Author> getAuthorsByName(String name);
+    List<Author> searchAuthorsByName(String query, int limit);
     List<AuthorBookCountDto> countAllBooksMadeByAuthors();
 
     void updateAuthor(UpdateAuthorDto updateAuthorDto);
 
-    void deleteAuthor(Long authorId);
+    /**
+     * @return number of books the author was removed from
+     */
+    int deleteAuthor(Long authorId);
 
     Author saveAuthor(CreateAuthorDto createAuthorDto);
 
@@ -5,9 +5,15 @@ import com.switix.onlinebookstore.dto.CreateAuthorDto;
 import com.switix.onlinebookstore.dto.UpdateAuthorDto;
 import com.switix.onlinebookstore.exception.AuthorNotFoundException;
 import com.switix.onlinebookstore.model.Author;
-import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.repository.AuthorBookCountRepository;
 import com.switix.onlinebookstore.repository.AuthorRepository;
+import com.switix.onlinebookstore.service.CatalogChangedEvent.Change;
+import com.switix.onlinebookstore.service.CatalogChangedEvent.Subject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,16 +21,22 @@ import java.util.Optional;
 @Service
 public class AuthorServiceImpl implements AuthorService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuthorServiceImpl.class);
+
     private final AuthorRepository authorRepository;
+    private final AuthorBookCountRepository authorBookCountRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AuthorServiceImpl(AuthorRepository authorRepository) {
+    public AuthorServiceImpl(AuthorRepository authorRepository, AuthorBookCountRepository authorBookCountRepository, ApplicationEventPublisher eventPublisher) {
         this.authorRepository = authorRepository;
+        this.authorBookCountRepository = authorBookCountRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
-    public List<Author> getAuthorsByName(String name) {
-        name = "%" + name + "%";
-        return authorRepository.findByNameLikeIgnoreCase(name);
+    public List<Author> searchAuthorsByName(String query, int limit) {
+        String normalizedQuery = SearchQueries.normalize(query);
+        return authorRepository.searchByName(normalizedQuery, SearchQueries.containsPattern(normalizedQuery), limit);
     }
 
     @Override
@@ -39,32 +51,31 @@ public class AuthorServiceImpl implements AuthorService {
 
         author.setName(updateAuthorDto.getName());
         authorRepository.save(author);
+        eventPublisher.publishEvent(new CatalogChangedEvent(Subject.AUTHOR, Change.UPDATED, author.getId()));
     }
 
     @Override
-    public void deleteAuthor(Long authorId) {
-        Author author = authorRepository.findById(authorId)
-                .orElseThrow(() -> new AuthorNotFoundException("Author not found"));
-
-        // Remove references from Author to Book
-        for (Book book : author.getAuthorBooks()) {
-            book.getBookAuthors().remove(author);
+    @Transactional
+    public int deleteAuthor(Long authorId) {
+        if (!authorRepository.existsById(authorId)) {
+            throw new AuthorNotFoundException("Author not found");
         }
-
-        // Clear references from Author
-        author.getAuthorBooks().clear();
-
-        // Save changes
-        authorRepository.save(author);
-
-        // Now delete the Author
-        authorRepository.delete(author);
+        // authorBooks is the inverse side of the association, deleting the author doesn't touch book_author
+        int bookCount = authorRepository.deleteBookLinks(authorId);
+        authorBookCountRepository.deleteById(authorId);
+        authorRepository.deleteById(authorId);
+        LOGGER.info("Deleted author {}, removed from {} books", authorId, bookCount);
+        // clears cached books, all of those the author was removed from being affected
+        eventPublisher.publishEvent(new CatalogChangedEvent(Subject.AUTHOR, Change.DELETED, authorId));
+        return bookCount;
     }
 
     @Override
     public Author saveAuthor(CreateAuthorDto createAuthorDto) {
         Author author = mapToAuthor(createAuthorDto);
-        return authorRepository.save(author);
+        Author savedAuthor = authorRepository.save(author);
+        eventPublisher.publishEvent(new CatalogChangedEvent(Subject.AUTHOR, Change.CREATED, savedAuthor.getId()));
+        return savedAuthor;
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.switix.onlinebookstore.service;
 
+import com.switix.onlinebookstore.cache.ReferenceData;
 import com.switix.onlinebookstore.dto.BillingAddressDto;
 import com.switix.onlinebookstore.exception.BillingAddressNotFoundException;
 import com.switix.onlinebookstore.exception.CityNotFoundException;
@@ -10,19 +11,15 @@ import com.switix.onlinebookstore.model.BillingAddress;
 import com.switix.onlinebookstore.model.City;
 import com.switix.onlinebookstore.model.Country;
 import com.switix.onlinebookstore.repository.BillingAddressRepository;
-import com.switix.onlinebookstore.repository.CityRepository;
-import com.switix.onlinebookstore.repository.CountryRepository;
 import org.springframework.stereotype.Service;
 
 @Service
 public class BillingAddressServiceImpl implements BillingAddressService {
-    private final CountryRepository countryRepository;
-    private final CityRepository cityRepository;
+    private final ReferenceData referenceData;
     private final BillingAddressRepository billingAddressRepository;
 
-    public BillingAddressServiceImpl(CountryRepository countryRepository, CityRepository cityRepository, BillingAddressRepository billingAddressRepository) {
-        this.countryRepository = countryRepository;
-        this.cityRepository = cityRepository;
+    public BillingAddressServiceImpl(ReferenceData referenceData, BillingAddressRepository billingAddressRepository) {
+        this.referenceData = referenceData;
         this.billingAddressRepository = billingAddressRepository;
     }
 
@@ -72,10 +69,10 @@ public class BillingAddressServiceImpl implements BillingAddressService {
 
     private void mapToBillingAddress(BillingAddress billingAddress, BillingAddressDto billingAddressDto, AppUser authenticatedUser) {
 
-        Country country = countryRepository.findById(billingAddressDto.getCountryId())
+        Country country = referenceData.country(billingAddressDto.getCountryId())
                 .orElseThrow(() -> new CountryNotFoundException("Country not found"));
 
-        City city = cityRepository.findById(billingAddressDto.getCityId())
+        City city = referenceData.city(billingAddressDto.getCityId())
                 .orElseThrow(() -> new CityNotFoundException("City not found"));
 
         billingAddress.setApartmentNumber(billingAddressDto.getApartmentNumber());
@@ -0,0 +1,105 @@
+package com.switix.onlinebookstore.service;
+
+import com.switix.onlinebookstore.model.Author;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.repository.AuthorBookCountRepository;
+import com.switix.onlinebookstore.repository.CategoryBookCountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the number of non-removed books of each category and author, so that facet counts are read without
+ * grouping all books. Book mutations apply deltas to the counters in their transaction (see {@link BookServiceImpl}),
+ * and counters are rebuilt from books at startup, which also covers books written without the service.
+ */
+@Component
+public class BookCounts {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookCounts.class);
+
+    private final CategoryBookCountRepository categoryBookCountRepository;
+    private final AuthorBookCountRepository authorBookCountRepository;
+
+    public BookCounts(CategoryBookCountRepository categoryBookCountRepository, AuthorBookCountRepository authorBookCountRepository) {
+        this.categoryBookCountRepository = categoryBookCountRepository;
+        this.authorBookCountRepository = authorBookCountRepository;
+    }
+
+    /**
+     * @param before what the book counted for before the mutation, {@link Counted#NONE} for a created book
+     * @param after what the book counts for after the mutation, {@link Counted#NONE} for a removed book
+     */
+    public void bookChanged(Counted before, Counted after) {
+        // counter rows are updated in id order, so that concurrent mutations can't deadlock on them
+        Map<Long, Long> categoryDeltas = new TreeMap<>();
+        if (!Objects.equals(before.categoryId(), after.categoryId())) {
+            addDelta(categoryDeltas, before.categoryId(), -1);
+            addDelta(categoryDeltas, after.categoryId(), 1);
+        }
+        Map<Long, Long> authorDeltas = new TreeMap<>();
+        before.authorIds().stream().filter(authorId -> !after.authorIds().contains(authorId)).forEach(authorId -> addDelta(authorDeltas, authorId, -1));
+        after.authorIds().stream().filter(authorId -> !before.authorIds().contains(authorId)).forEach(authorId -> addDelta(authorDeltas, authorId, 1));
+
+        categoryDeltas.forEach(categoryBookCountRepository::addToCount);
+        authorDeltas.forEach(authorBookCountRepository::addToCount);
+    }
+
+    /**
+     * Counts books created in bulk, with one update per category and author instead of one per book.
+     */
+    public void booksAdded(Collection<Counted> added) {
+        Map<Long, Long> categoryDeltas = new TreeMap<>();
+        Map<Long, Long> authorDeltas = new TreeMap<>();
+        for (Counted counted : added) {
+            addDelta(categoryDeltas, counted.categoryId(), 1);
+            counted.authorIds().forEach(authorId -> addDelta(authorDeltas, authorId, 1));
+        }
+        categoryDeltas.forEach(categoryBookCountRepository::addToCount);
+        authorDeltas.forEach(authorBookCountRepository::addToCount);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        int categoryCount = categoryBookCountRepository.rebuild();
+        categoryBookCountRepository.deleteOrphans();
+        int authorCount = authorBookCountRepository.rebuild();
+        authorBookCountRepository.deleteOrphans();
+        LOGGER.info("Rebuilt book counts of {} categories and {} authors", categoryCount, authorCount);
+    }
+
+    private static void addDelta(Map<Long, Long> deltas, Long id, long delta) {
+        if (id != null) {
+            deltas.merge(id, delta, Long::sum);
+        }
+    }
+
+    /**
+     * Category and authors a book is counted for, none when it's removed.
+     */
+    public record Counted(Long categoryId, Set<Long> authorIds) {
+
+        public static final Counted NONE = new Counted(null, Set.of());
+
+        public static Counted of(Book book) {
+            if (Boolean.TRUE.equals(book.getIsRemoved())) {
+                return NONE;
+            }
+            Long categoryId = book.getCategory() == null ? null : book.getCategory().getId();
+            Set<Long> authorIds = book.getBookAuthors() == null ? Set.of()
+                    : book.getBookAuthors().stream().map(Author::getId).filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+            return new Counted(categoryId, authorIds);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.switix.onlinebookstore.service;
 
+import com.switix.onlinebookstore.dto.BookSummaryDto;
 import com.switix.onlinebookstore.dto.SaveBookDto;
 import com.switix.onlinebookstore.dto.UpdateBookDto;
 import com.switix.onlinebookstore.model.Book;
@@ -12,7 +13,13 @@ public interface BookService {
     List<Book> getAllBooks(boolean isRemoved);
     List<Book> getAllBooksByCategory(Long categoryId,boolean isRemoved);
     List<Book> getAllBooksByAuthor(Long authorId,boolean isRemoved);
-    List<Book> getBooksByTittle(String searchQuery,boolean isRemoved);
+    List<Book> getBooksAfter(Long lastBookId, int pageSize, boolean isRemoved);
+    List<Book> getBooksByCategoryAfter(Long categoryId, Long lastBookId, int pageSize, boolean isRemoved);
+    List<Book> getBooksByAuthorAfter(Long authorId, Long lastBookId, int pageSize, boolean isRemoved);
+    List<BookSummaryDto> getBookSummariesAfter(Long lastBookId, int pageSize, boolean isRemoved);
+    List<BookSummaryDto> getBookSummariesByCategoryAfter(Long categoryId, Long lastBookId, int pageSize, boolean isRemoved);
+    List<BookSummaryDto> getBookSummariesByAuthorAfter(Long authorId, Long lastBookId, int pageSize, boolean isRemoved);
+    List<Book> searchBooksByTitle(String query, int limit, boolean isRemoved);
     Optional<Book> getBook(Long BookId);
     Book saveBook(SaveBookDto saveBookDto);
     void deleteBook(Long bookId);
@@ -1,5 +1,7 @@
 package com.switix.onlinebookstore.service;
 
+import com.switix.onlinebookstore.cache.CatalogCaches;
+import com.switix.onlinebookstore.dto.BookSummaryDto;
 import com.switix.onlinebookstore.dto.SaveBookDto;
 import com.switix.onlinebookstore.dto.UpdateBookDto;
 import com.switix.onlinebookstore.exception.BookNotFoundException;
@@ -7,43 +9,103 @@ import com.switix.onlinebookstore.model.Book;
 import com.switix.onlinebookstore.model.BookInventory;
 import com.switix.onlinebookstore.repository.BookInventoryRepository;
 import com.switix.onlinebookstore.repository.BookRepository;
+import com.switix.onlinebookstore.service.BookCounts.Counted;
+import com.switix.onlinebookstore.service.CatalogChangedEvent.Change;
+import com.switix.onlinebookstore.service.CatalogChangedEvent.Subject;
+import org.hibernate.Hibernate;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BookServiceImpl implements BookService {
 
     private final BookRepository bookRepository;
     private final BookInventoryRepository inventoryRepository;
+    private final BookCounts bookCounts;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public BookServiceImpl(BookRepository bookRepository, BookInventoryRepository inventoryRepository) {
+    public BookServiceImpl(BookRepository bookRepository, BookInventoryRepository inventoryRepository, BookCounts bookCounts, ApplicationEventPublisher eventPublisher) {
         this.bookRepository = bookRepository;
         this.inventoryRepository = inventoryRepository;
+        this.bookCounts = bookCounts;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Cacheable(cacheNames = CatalogCaches.BOOK_LISTS, key = "{'all', #isRemoved}")
     public List<Book> getAllBooks(boolean isRemoved) {
         return bookRepository.findAllByIsRemoved(isRemoved);
     }
 
     @Override
+    @Cacheable(cacheNames = CatalogCaches.BOOK_LISTS, key = "{'category', #categoryId, #isRemoved}")
     public List<Book> getAllBooksByCategory(Long categoryId, boolean isRemoved) {
         return bookRepository.findAllByCategory_IdAndIsRemoved(categoryId, isRemoved);
     }
 
     @Override
+    @Cacheable(cacheNames = CatalogCaches.BOOK_LISTS, key = "{'author', #authorId, #isRemoved}")
     public List<Book> getAllBooksByAuthor(Long authorId, boolean isRemoved) {
         return bookRepository.findAllByBookAuthors_IdAndIsRemoved(authorId, isRemoved);
     }
 
     @Override
+    @Cacheable(cacheNames = CatalogCaches.BOOK_LISTS, key = "{'allPage', #lastBookId, #pageSize, #isRemoved}")
+    @Transactional(readOnly = true)
+    public List<Book> getBooksAfter(Long lastBookId, int pageSize, boolean isRemoved) {
+        return withAuthors(bookRepository.findAllByIsRemovedAndIdGreaterThanOrderByIdAsc(isRemoved, lastBookId, PageRequest.ofSize(pageSize)));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CatalogCaches.BOOK_LISTS, key = "{'categoryPage', #categoryId, #lastBookId, #pageSize, #isRemoved}")
+    @Transactional(readOnly = true)
+    public List<Book> getBooksByCategoryAfter(Long categoryId, Long lastBookId, int pageSize, boolean isRemoved) {
+        return withAuthors(bookRepository.findAllByCategory_IdAndIsRemovedAndIdGreaterThanOrderByIdAsc(categoryId, isRemoved, lastBookId, PageRequest.ofSize(pageSize)));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CatalogCaches.BOOK_LISTS, key = "{'authorPage', #authorId, #lastBookId, #pageSize, #isRemoved}")
+    @Transactional(readOnly = true)
+    public List<Book> getBooksByAuthorAfter(Long authorId, Long lastBookId, int pageSize, boolean isRemoved) {
+        return withAuthors(bookRepository.findAllByBookAuthors_IdAndIsRemovedAndIdGreaterThanOrderByIdAsc(authorId, isRemoved, lastBookId, PageRequest.ofSize(pageSize)));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CatalogCaches.BOOK_LISTS, key = "{'summaryPage', #lastBookId, #pageSize, #isRemoved}")
+    public List<BookSummaryDto> getBookSummariesAfter(Long lastBookId, int pageSize, boolean isRemoved) {
+        return withAuthorNames(bookRepository.findSummariesAfter(isRemoved, lastBookId, PageRequest.ofSize(pageSize)));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CatalogCaches.BOOK_LISTS, key = "{'categorySummaryPage', #categoryId, #lastBookId, #pageSize, #isRemoved}")
+    public List<BookSummaryDto> getBookSummariesByCategoryAfter(Long categoryId, Long lastBookId, int pageSize, boolean isRemoved) {
+        return withAuthorNames(bookRepository.findSummariesByCategoryAfter(categoryId, isRemoved, lastBookId, PageRequest.ofSize(pageSize)));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CatalogCaches.BOOK_LISTS, key = "{'authorSummaryPage', #authorId, #lastBookId, #pageSize, #isRemoved}")
+    public List<BookSummaryDto> getBookSummariesByAuthorAfter(Long authorId, Long lastBookId, int pageSize, boolean isRemoved) {
+        return withAuthorNames(bookRepository.findSummariesByAuthorAfter(authorId, isRemoved, lastBookId, PageRequest.ofSize(pageSize)));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CatalogCaches.BOOKS, key = "#BookId")
     public Optional<Book> getBook(Long BookId) {
         return bookRepository.findById(BookId);
     }
 
     @Override
+    @Transactional
     public Book saveBook(SaveBookDto saveBookDto) {
 
         BookInventory inventory = inventoryRepository.save(saveBookDto.getInventory());
@@ -57,27 +119,46 @@ public class BookServiceImpl implements BookService {
         book.setPublicationYear(saveBookDto.getPublicationYear());
         book.setDescription(saveBookDto.getDescription());
         book.setTitle(saveBookDto.getTitle());
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        bookCounts.bookChanged(Counted.NONE, Counted.of(savedBook));
+        eventPublisher.publishEvent(new CatalogChangedEvent(Subject.BOOK, Change.CREATED, savedBook.getId()));
+        return savedBook;
     }
 
     @Override
+    @Transactional
     public void deleteBook(Long bookId) {
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new BookNotFoundException("Book not found"));
+        bookCounts.bookChanged(Counted.of(book), Counted.NONE);
         book.setIsRemoved(true);
         book.getInventory().setQuantity(0);
         bookRepository.save(book);
+        eventPublisher.publishEvent(new CatalogChangedEvent(Subject.BOOK, Change.DELETED, bookId));
     }
 
     @Override
-    public List<Book> getBooksByTittle(String searchQuery, boolean isRemoved) {
-        return bookRepository.findAllByTitleIsLikeIgnoreCaseAndIsRemoved(searchQuery, isRemoved);
+    public List<Book> searchBooksByTitle(String query, int limit, boolean isRemoved) {
+        String normalizedQuery = SearchQueries.normalize(query);
+        List<Long> rankedIds = bookRepository.searchIdsByTitle(normalizedQuery, SearchQueries.containsPattern(normalizedQuery), isRemoved, limit);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        // books are loaded with their graph in a second query, then put back in rank order
+        Map<Long, Book> booksById = bookRepository.findAllById(rankedIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity(), (book1, book2) -> book1));
+        return rankedIds.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     @Override
+    @Transactional
     public void updateBook(UpdateBookDto updateBookDto) {
         Book book = bookRepository.findById(updateBookDto.getId())
                 .orElseThrow(() -> new BookNotFoundException("Book not found"));
+        Counted countedBefore = Counted.of(book);
 
         book.setIsbn(updateBookDto.getIsbn());
         book.setCategory(updateBookDto.getCategory());
@@ -90,8 +171,29 @@ public class BookServiceImpl implements BookService {
         book.setTitle(updateBookDto.getTitle());
 
         bookRepository.save(book);
+        bookCounts.bookChanged(countedBefore, Counted.of(book));
+        eventPublisher.publishEvent(new CatalogChangedEvent(Subject.BOOK, Change.UPDATED, book.getId()));
 
 
     }
 
+    // cached books are shared between requests once the session that loaded them is closed, so their whole graph must be
+    // loaded : authors aren't fetched by page queries (see BookRepository), initializing them in the transaction of the
+    // page batch-loads them for the whole page (see Book.bookAuthors)
+    private List<Book> withAuthors(List<Book> page) {
+        page.forEach(book -> Hibernate.initialize(book.getBookAuthors()));
+        return page;
+    }
+
+    // authors of the whole page are read by a second query, sorted by name
+    private List<BookSummaryDto> withAuthorNames(List<BookSummaryDto> summaries) {
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+        Map<Long, BookSummaryDto> summariesById = summaries.stream()
+                .collect(Collectors.toMap(BookSummaryDto::getId, Function.identity()));
+        bookRepository.findAuthorNames(summariesById.keySet())
+                .forEach(authorName -> summariesById.get(authorName.getBookId()).addAuthorName(authorName.getAuthorName()));
+        return summaries;
+    }
 }
@@ -0,0 +1,38 @@
+package com.switix.onlinebookstore.service;
+
+import com.switix.onlinebookstore.cart.CartStoreConfig;
+import com.switix.onlinebookstore.cart.DatabaseCartStore;
+import com.switix.onlinebookstore.repository.ShoppingSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Cart totals are maintained by deltas (see {@link DatabaseCartStore}), which miss book price changes : they're
+ * periodically recomputed from cart items, only drifted ones being written.
+ */
+@Component
+@ConditionalOnProperty(name = CartStoreConfig.STORE_PROPERTY, havingValue = "database", matchIfMissing = true)
+public class CartTotalReconciliation {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CartTotalReconciliation.class);
+
+    private final ShoppingSessionRepository shoppingSessionRepository;
+
+    public CartTotalReconciliation(ShoppingSessionRepository shoppingSessionRepository) {
+        this.shoppingSessionRepository = shoppingSessionRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${shopping.cart.total-reconciliation-interval:PT10M}",
+            initialDelayString = "${shopping.cart.total-reconciliation-interval:PT10M}")
+    @Transactional
+    public void reconcileTotals() {
+        int reconciledCount = shoppingSessionRepository.reconcileTotals();
+        if (reconciledCount > 0) {
+            LOGGER.info("Reconciled the total of {} shopping carts", reconciledCount);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.switix.onlinebookstore.service;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published by catalog services each time a book, a category or an author is created, updated or deleted, so that
+ * anything derived from the catalog can be refreshed.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CatalogChangedEvent {
+
+    public enum Subject {
+        BOOK,
+        CATEGORY,
+        AUTHOR
+    }
+
+    public enum Change {
+        CREATED,
+        UPDATED,
+        DELETED,
+        // stock of the books of an order was changed, their catalog data is unchanged : the id is null, books are given by ids
+        STOCK_CHANGED,
+        // books were created in bulk by an import, the id is null : they're indexed by the importer itself
+        IMPORTED
+    }
+
+    private final Subject subject;
+    private final Change change;
+    private final Long id;
+    // every changed entity : the one of id, or the books of a stock change
+    private final List<Long> ids;
+
+    public CatalogChangedEvent(Subject subject, Change change, Long id) {
+        this(subject, change, id, id == null ? List.of() : List.of(id));
+    }
+
+    /**
+     * @return a single event for all the books whose stock was changed by an order, so that their cached pages are
+     * evicted once per order rather than once per book : book lists and the catalog version are left as they are
+     */
+    public static CatalogChangedEvent stockChanged(Collection<Long> bookIds) {
+        return new CatalogChangedEvent(Subject.BOOK, Change.STOCK_CHANGED, null, List.copyOf(bookIds));
+    }
+}
@@ -19,5 +19,5 @@ public interface CategoryService {
 
     List<CategoryBookCountDto> countBooksByCategory();
 
-    List<Category> getCategoriesByName(String name);
+    List<Category> searchCategoriesByName(String query, int limit);
 }
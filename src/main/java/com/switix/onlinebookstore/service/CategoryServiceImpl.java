@@ -4,10 +4,15 @@ import com.switix.onlinebookstore.dto.CategoryBookCountDto;
 import com.switix.onlinebookstore.dto.CreateCategoryDto;
 import com.switix.onlinebookstore.dto.UpdateCategoryDto;
 import com.switix.onlinebookstore.exception.CategoryNotFoundException;
-import com.switix.onlinebookstore.model.Book;
 import com.switix.onlinebookstore.model.Category;
+import com.switix.onlinebookstore.repository.BookRepository;
+import com.switix.onlinebookstore.repository.CategoryBookCountRepository;
 import com.switix.onlinebookstore.repository.CategoryRepository;
+import com.switix.onlinebookstore.service.CatalogChangedEvent.Change;
+import com.switix.onlinebookstore.service.CatalogChangedEvent.Subject;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,9 +21,15 @@ import java.util.Optional;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final BookRepository bookRepository;
+    private final CategoryBookCountRepository categoryBookCountRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CategoryServiceImpl(CategoryRepository categoryRepository) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, BookRepository bookRepository, CategoryBookCountRepository categoryBookCountRepository, ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
+        this.bookRepository = bookRepository;
+        this.categoryBookCountRepository = categoryBookCountRepository;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -30,30 +41,28 @@ public class CategoryServiceImpl implements CategoryService {
         category.setName(updateCategoryDto.getName());
 
         categoryRepository.save(category);
+        eventPublisher.publishEvent(new CatalogChangedEvent(Subject.CATEGORY, Change.UPDATED, category.getId()));
     }
 
     @Override
+    @Transactional
     public void deleteCategory(Long categoryId) {
-
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new CategoryNotFoundException("Category not found"));
-
-        for (Book book : category.getCategoryBooks()) {
-            book.setCategory(null);
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new CategoryNotFoundException("Category not found");
         }
-
-        category.getCategoryBooks().clear();
-
-        categoryRepository.save(category);
-
-        categoryRepository.delete(category);
-
+        // books are detached by a single statement, without being loaded
+        bookRepository.clearCategory(categoryId);
+        categoryBookCountRepository.deleteById(categoryId);
+        categoryRepository.deleteById(categoryId);
+        eventPublisher.publishEvent(new CatalogChangedEvent(Subject.CATEGORY, Change.DELETED, categoryId));
     }
 
     @Override
     public Category saveCategory(CreateCategoryDto createCategoryDto) {
         Category category = mapToCategory(createCategoryDto);
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CatalogChangedEvent(Subject.CATEGORY, Change.CREATED, savedCategory.getId()));
+        return savedCategory;
     }
 
     @Override
@@ -67,8 +76,9 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
-    public List<Category> getCategoriesByName(String name) {
-        return categoryRepository.findAllByNameLikeIgnoreCase(name);
+    public List<Category> searchCategoriesByName(String query, int limit) {
+        String normalizedQuery = SearchQueries.normalize(query);
+        return categoryRepository.searchByName(normalizedQuery, SearchQueries.containsPattern(normalizedQuery), limit);
     }
 
 
@@ -0,0 +1,9 @@
+package com.switix.onlinebookstore.service;
+
+import com.switix.onlinebookstore.dto.CartItemDto;
+
+import java.util.List;
+
+public interface InventoryService {
+    void reserve(List<CartItemDto> cartItems);
+}
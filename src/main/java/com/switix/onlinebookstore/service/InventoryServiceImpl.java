@@ -0,0 +1,66 @@
+package com.switix.onlinebookstore.service;
+
+import com.switix.onlinebookstore.dto.CartItemDto;
+import com.switix.onlinebookstore.exception.BookInsufficientStockException;
+import com.switix.onlinebookstore.model.Book;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reserves stock with one conditional UPDATE per book : the database checks and decrements the quantity atomically, so
+ * concurrent checkouts can't oversell and row locks are only held from the UPDATE to the end of the transaction, not
+ * from a previous read.
+ * Rows are updated by ascending inventory id so that two carts sharing books lock them in the same order and can't
+ * deadlock, and the statements of a cart are sent as a single JDBC batch.
+ */
+@Service
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final String RESERVE_SQL = "UPDATE book_inventory SET quantity = quantity - ? WHERE id = ? AND quantity >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryServiceImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void reserve(List<CartItemDto> cartItems) {
+        // a book may appear in several cart items, its quantities are summed so its row is updated once
+        Map<Long, Reservation> reservations = new TreeMap<>();
+        cartItems.forEach(cartItem -> {
+            Book book = cartItem.getBook();
+            reservations.merge(book.getInventory().getId(), new Reservation(book.getId(), cartItem.getQuantity()),
+                    (reservation, other) -> new Reservation(reservation.bookId(), reservation.quantity() + other.quantity()));
+        });
+
+        List<Object[]> batchArgs = new ArrayList<>(reservations.size());
+        reservations.forEach((inventoryId, reservation) ->
+                batchArgs.add(new Object[]{reservation.quantity(), inventoryId, reservation.quantity()}));
+        int[] updateCounts = jdbcTemplate.batchUpdate(RESERVE_SQL, batchArgs);
+
+        int i = 0;
+        for (Map.Entry<Long, Reservation> entry : reservations.entrySet()) {
+            // some drivers only report SUCCESS_NO_INFO (-2) for batched statements, 0 is the only sure sign of a miss
+            if (updateCounts[i++] == 0) {
+                Integer available = jdbcTemplate.queryForObject("SELECT quantity FROM book_inventory WHERE id = ?",
+                        Integer.class, entry.getKey());
+                // thrown exception rolls back the reservations already applied
+                throw new BookInsufficientStockException(String.format("Requested quantity (%d) exceeds available stock (%d) for book with sId %d",
+                        entry.getValue().quantity(),
+                        available,
+                        entry.getValue().bookId()));
+            }
+        }
+    }
+
+    private record Reservation(Long bookId, int quantity) {
+    }
+}
@@ -6,12 +6,17 @@ import com.switix.onlinebookstore.dto.OrderItemDto;
 import com.switix.onlinebookstore.dto.UpdateOrderDto;
 import com.switix.onlinebookstore.model.OrderDetail;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface OrderService {
     List<OrderItemDto> getOrderItems(Long orderDetailsId);
     List<OrderDetailDto> getOrdersDetail(Long appUserId);
     List<OrderDetailDto> getOrdersDetailAdmin();
+    List<OrderDetailDto> getOrdersDetailBefore(Long appUserId, Long beforeOrderId, Instant from, Instant to, int pageSize);
+    List<OrderDetailDto> getOrdersDetailAdminBefore(Long beforeOrderId, Instant from, Instant to, int pageSize);
+    void exportOrdersDetail(Long orderStatusId, Long appUserId, Instant from, Instant to, Consumer<OrderDetailDto> consumer);
     OrderDetail getOrderDetail(Long orderDetailsId);
     OrderDetail createOrderDetail(OrderDetailCreationDto orderDetailCreationDto,Long shoppingSessionId);
 
@@ -1,37 +1,47 @@
 package com.switix.onlinebookstore.service;
 
+import com.switix.onlinebookstore.cache.ReferenceData;
 import com.switix.onlinebookstore.dto.*;
 import com.switix.onlinebookstore.exception.*;
 import com.switix.onlinebookstore.model.*;
 import com.switix.onlinebookstore.repository.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class OrderServiceImpl implements OrderService {
+
+    // orders read per transaction by the export
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private final OrderDetailRepository orderDetailRepository;
     private final OrderItemRepository orderItemRepository;
     private final ShoppingService shoppingService;
     private final ShoppingSessionRepository shoppingSessionRepository;
     private final ShippingAddressService shippingAddressService;
     private final BillingAddressService billingAddressService;
-    private final PayMethodRepository payMethodRepository;
-    private final ShipmentMethodRepository shipmentMethodRepository;
-    private final OrderStatusRepository orderStatusRepository;
+    private final ReferenceData referenceData;
+    private final InventoryService inventoryService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public OrderServiceImpl(OrderDetailRepository orderDetailRepository, OrderItemRepository orderItemRepository, ShoppingService shoppingService, ShoppingSessionRepository shoppingSessionRepository, ShippingAddressService shippingAddressService, BillingAddressService billingAddressService, PayMethodRepository payMethodRepository, ShipmentMethodRepository shipmentMethodRepository, OrderStatusRepository orderStatusRepository) {
+    public OrderServiceImpl(OrderDetailRepository orderDetailRepository, OrderItemRepository orderItemRepository, ShoppingService shoppingService, ShoppingSessionRepository shoppingSessionRepository, ShippingAddressService shippingAddressService, BillingAddressService billingAddressService, ReferenceData referenceData, InventoryService inventoryService, ApplicationEventPublisher eventPublisher) {
         this.orderDetailRepository = orderDetailRepository;
         this.orderItemRepository = orderItemRepository;
         this.shoppingService = shoppingService;
         this.shoppingSessionRepository = shoppingSessionRepository;
         this.shippingAddressService = shippingAddressService;
         this.billingAddressService = billingAddressService;
-        this.payMethodRepository = payMethodRepository;
-        this.shipmentMethodRepository = shipmentMethodRepository;
-        this.orderStatusRepository = orderStatusRepository;
+        this.referenceData = referenceData;
+        this.inventoryService = inventoryService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -44,19 +54,36 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public List<OrderDetailDto> getOrdersDetail(Long appUserId) {
-        List<OrderDetail> orderDetails = orderDetailRepository.findAllByAppUser_Id(appUserId);
-        return orderDetails.stream()
-                .map(this::mapToOrderDetailDto)
-                .toList();
-
+        return orderDetailRepository.findHistoryBefore(appUserId, Long.MAX_VALUE, null, null, Pageable.unpaged());
     }
 
     @Override
     public List<OrderDetailDto> getOrdersDetailAdmin() {
-        List<OrderDetail> orderDetails = orderDetailRepository.findAll();
-        return orderDetails.stream()
-                .map(this::mapToOrderDetailDto)
-                .toList();
+        return orderDetailRepository.findAllHistoryBefore(Long.MAX_VALUE, null, null, Pageable.unpaged());
+    }
+
+    @Override
+    public List<OrderDetailDto> getOrdersDetailBefore(Long appUserId, Long beforeOrderId, Instant from, Instant to, int pageSize) {
+        return orderDetailRepository.findHistoryBefore(appUserId, beforeOrderId, from, to, PageRequest.ofSize(pageSize));
+    }
+
+    @Override
+    public List<OrderDetailDto> getOrdersDetailAdminBefore(Long beforeOrderId, Instant from, Instant to, int pageSize) {
+        return orderDetailRepository.findAllHistoryBefore(beforeOrderId, from, to, PageRequest.ofSize(pageSize));
+    }
+
+    @Override
+    public void exportOrdersDetail(Long orderStatusId, Long appUserId, Instant from, Instant to, Consumer<OrderDetailDto> consumer) {
+        // each chunk is read in its own short transaction : a slow client doesn't hold a connection for the whole export
+        long afterOrderId = 0;
+        List<OrderDetailDto> chunk;
+        do {
+            chunk = orderDetailRepository.findHistoryAfter(orderStatusId, appUserId, afterOrderId, from, to, PageRequest.ofSize(EXPORT_CHUNK_SIZE));
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                afterOrderId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == EXPORT_CHUNK_SIZE);
     }
 
     @Override
@@ -75,8 +102,10 @@ public class OrderServiceImpl implements OrderService {
         BillingAddress billingAddress = billingAddressService.getBillingAddress(orderDetailCreationDto.getBillingAddressId());
         ShippingAddress shippingAddress = shippingAddressService.getShippingAddress(orderDetailCreationDto.getShippingAddressId());
 
-        PayMethod payMethod = payMethodRepository.findById(orderDetailCreationDto.getPayMethodId()).get();
-        ShipmentMethod shipmentMethod = shipmentMethodRepository.findById(orderDetailCreationDto.getShipmentMethodId()).get();
+        PayMethod payMethod = referenceData.payMethod(orderDetailCreationDto.getPayMethodId())
+                .orElseThrow(() -> new PayMethodNotFoundException("Pay method not found"));
+        ShipmentMethod shipmentMethod = referenceData.shipmentMethod(orderDetailCreationDto.getShipmentMethodId())
+                .orElseThrow(() -> new ShipmentMethodNotFoundException("Shipment method not found"));
 
         // check if the shopping cart is empty (no items no order)
         List<CartItemDto> cartItems = shoppingService.getCartItems(shoppingSessionId);
@@ -84,26 +113,17 @@ public class OrderServiceImpl implements OrderService {
             throw new EmptyShoppingCartException("Shopping cart is empty");
         }
 
-        //check book stock
-        cartItems.forEach(cartItem -> {
-            Book cartItemBook = cartItem.getBook();
-            if (cartItemBook.getInventory().getQuantity() < cartItem.getQuantity()) {
-                throw new BookInsufficientStockException(String.format("Requested quantity (%d) exceeds available stock (%d) for book with sId %d",
-                        cartItem.getQuantity(),
-                        cartItemBook.getInventory().getQuantity(),
-                        cartItemBook.getId()));
-            }
-
-            //update inventory quantity
-            cartItemBook.getInventory().setQuantity(cartItemBook.getInventory().getQuantity() - cartItem.getQuantity());
-        });
-
         OrderDetail orderDetail = new OrderDetail();
-        orderDetail.setTotal(shoppingSession.getTotal().add(shipmentMethod.getPrice()));
+        // summed from the cart items rather than read from the cart total, which may lag behind book price changes
+        BigDecimal cartTotal = cartItems.stream()
+                .map(cartItem -> cartItem.getBook().getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        orderDetail.setTotal(cartTotal.add(shipmentMethod.getPrice()));
         orderDetail.setAppUser(shoppingSession.getAppUser());
         orderDetail.setShippingAddress(shippingAddress);
         orderDetail.setBillingAddress(billingAddress);
-        orderDetail.setOrderStatus(orderStatusRepository.findById(2L).get());
+        orderDetail.setOrderStatus(referenceData.orderStatus(2L)
+                .orElseThrow(() -> new OrderStatusNotFoundException("Order Status not found")));
         orderDetail.setPayMethod(payMethod);
         orderDetail.setShipmentMethod(shipmentMethod);
         List<OrderItem> orderItems = cartItems.stream()
@@ -117,12 +137,17 @@ public class OrderServiceImpl implements OrderService {
         List<Long> cartItemIds = cartItems.stream()
                 .map(CartItemDto::getId)
                 .toList();
-        shoppingService.deleteAllCartItems(cartItemIds);
-        shoppingSession.setTotal(BigDecimal.ZERO);
-        shoppingSessionRepository.save(shoppingSession);
+        shoppingService.deleteCartItems(shoppingSessionId, cartItemIds);
 
         OrderDetail savedOrderDetail = orderDetailRepository.save(orderDetail);
         orderItemRepository.saveAll(orderItems);
+
+        // done last so that inventory rows are locked as briefly as possible
+        inventoryService.reserve(cartItems);
+        eventPublisher.publishEvent(CatalogChangedEvent.stockChanged(cartItems.stream()
+                .map(cartItem -> cartItem.getBook().getId())
+                .distinct()
+                .toList()));
         return savedOrderDetail;
     }
 
@@ -131,12 +156,12 @@ public class OrderServiceImpl implements OrderService {
         OrderDetail orderDetail = orderDetailRepository.findById(updateOrderDto.getId())
                 .orElseThrow(() -> new OrderDetailNotFoundException("Order detail not found"));
 
-        OrderStatus orderStatus = orderStatusRepository.findById(updateOrderDto.getOrderStatusId())
+        OrderStatus orderStatus = referenceData.orderStatus(updateOrderDto.getOrderStatusId())
                 .orElseThrow(() -> new OrderStatusNotFoundException("Order Status not found"));
 
         orderDetail.setOrderStatus(orderStatus);
 
-        orderStatusRepository.save(orderStatus);
+        orderDetailRepository.save(orderDetail);
     }
 
     @Override
@@ -147,21 +172,11 @@ public class OrderServiceImpl implements OrderService {
 
     private OrderItem mapToOrderItem(CartItemDto cartItemDto) {
         OrderItem orderItem = new OrderItem();
-        orderItem.setId(cartItemDto.getId());
         orderItem.setBook(cartItemDto.getBook());
         orderItem.setQuantity(cartItemDto.getQuantity());
         return orderItem;
     }
 
-    private OrderDetailDto mapToOrderDetailDto(OrderDetail orderDetail) {
-        OrderDetailDto orderDetailDto = new OrderDetailDto();
-        orderDetailDto.setId(orderDetail.getId());
-        orderDetailDto.setTotal(orderDetail.getTotal());
-        orderDetailDto.setCreatedAt(orderDetail.getCreatedAt());
-        orderDetailDto.setOrderStatus(orderDetail.getOrderStatus());
-        return orderDetailDto;
-    }
-
     private OrderItemDto mapToOrderItemDto(OrderItem orderItem) {
         OrderItemDto orderItemDto = new OrderItemDto();
         orderItemDto.setId(orderItem.getId());
@@ -0,0 +1,26 @@
+package com.switix.onlinebookstore.service;
+
+/**
+ * Helpers to turn a raw user search input into arguments of the trigram-indexed search queries.
+ */
+public final class SearchQueries {
+
+    private SearchQueries() {
+    }
+
+    public static String normalize(String query) {
+        return query == null ? "" : query.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Gives the ILIKE pattern matching values that contain given query, LIKE wildcards typed by the user being escaped
+     * so that they are matched literally.
+     */
+    public static String containsPattern(String query) {
+        String escaped = query
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
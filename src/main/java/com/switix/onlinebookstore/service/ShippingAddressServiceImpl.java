@@ -1,5 +1,6 @@
 package com.switix.onlinebookstore.service;
 
+import com.switix.onlinebookstore.cache.ReferenceData;
 import com.switix.onlinebookstore.dto.ShippingAddressDto;
 import com.switix.onlinebookstore.exception.CityNotFoundException;
 import com.switix.onlinebookstore.exception.CountryNotFoundException;
@@ -9,8 +10,6 @@ import com.switix.onlinebookstore.model.AppUser;
 import com.switix.onlinebookstore.model.City;
 import com.switix.onlinebookstore.model.Country;
 import com.switix.onlinebookstore.model.ShippingAddress;
-import com.switix.onlinebookstore.repository.CityRepository;
-import com.switix.onlinebookstore.repository.CountryRepository;
 import com.switix.onlinebookstore.repository.ShippingAddressRepository;
 import org.springframework.stereotype.Service;
 
@@ -18,13 +17,11 @@ import org.springframework.stereotype.Service;
 public class ShippingAddressServiceImpl implements ShippingAddressService {
 
     private final ShippingAddressRepository shippingAddressRepository;
-    private final CountryRepository countryRepository;
-    private final CityRepository cityRepository;
+    private final ReferenceData referenceData;
 
-    public ShippingAddressServiceImpl(ShippingAddressRepository shippingAddressRepository, CountryRepository countryRepository, CityRepository cityRepository) {
+    public ShippingAddressServiceImpl(ShippingAddressRepository shippingAddressRepository, ReferenceData referenceData) {
         this.shippingAddressRepository = shippingAddressRepository;
-        this.countryRepository = countryRepository;
-        this.cityRepository = cityRepository;
+        this.referenceData = referenceData;
     }
 
     @Override
@@ -73,10 +70,10 @@ public class ShippingAddressServiceImpl implements ShippingAddressService {
 
     private void mapToShippingAddress(ShippingAddress shippingAddress, ShippingAddressDto shippingAddressDto, AppUser authenticatedUser) {
 
-        Country country = countryRepository.findById(shippingAddressDto.getCountryId())
+        Country country = referenceData.country(shippingAddressDto.getCountryId())
                 .orElseThrow(() -> new CountryNotFoundException("Country not found"));
 
-        City city = cityRepository.findById(shippingAddressDto.getCityId())
+        City city = referenceData.city(shippingAddressDto.getCityId())
                 .orElseThrow(() -> new CityNotFoundException("City not found"));
 
         shippingAddress.setApartmentNumber(shippingAddressDto.getApartmentNumber());
@@ -10,8 +10,9 @@ import java.util.List;
 public interface ShoppingService {
     List<CartItemDto> getCartItems(Long shoppingSessionId);
     CartItem addCartItem(CartItemRequestDto cartItemRequestDto, Long shoppingSessionId);
-    void updateCartItem(Long cartItemId,CartItemRequestDto cartItemRequestDto);
-    void deleteCartItem(Long cartItemId);
+    void updateCartItem(Long shoppingSessionId, Long cartItemId, CartItemRequestDto cartItemRequestDto);
+    void upsertCartItems(Long shoppingSessionId, List<CartItemRequestDto> cartItemRequestDtos);
+    void deleteCartItem(Long shoppingSessionId, Long cartItemId);
     BigDecimal getShoppingCartTotal(Long shoppingSessionId);
-    void deleteAllCartItems(List<Long> cartItemIds);
+    void deleteCartItems(Long shoppingSessionId, List<Long> cartItemIds);
 }
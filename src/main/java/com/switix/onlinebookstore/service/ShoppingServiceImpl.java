@@ -1,117 +1,112 @@
 package com.switix.onlinebookstore.service;
 
+import com.switix.onlinebookstore.cart.CartStore;
 import com.switix.onlinebookstore.dto.CartItemDto;
 import com.switix.onlinebookstore.dto.CartItemRequestDto;
 import com.switix.onlinebookstore.exception.BookNotFoundException;
-import com.switix.onlinebookstore.exception.CartItemNotFoundException;
-import com.switix.onlinebookstore.exception.ShoppingSessionNotFoundException;
+import com.switix.onlinebookstore.exception.InvalidCartItemException;
 import com.switix.onlinebookstore.model.Book;
 import com.switix.onlinebookstore.model.CartItem;
-import com.switix.onlinebookstore.model.ShoppingSession;
 import com.switix.onlinebookstore.repository.BookRepository;
-import com.switix.onlinebookstore.repository.CartItemRepository;
-import com.switix.onlinebookstore.repository.ShoppingSessionRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ShoppingServiceImpl implements ShoppingService {
 
 
-    private final CartItemRepository cartItemRepository;
+    private final CartStore cartStore;
     private final BookRepository bookRepository;
-    private final ShoppingSessionRepository shoppingSessionRepository;
+    private final int maxUpsertedItems;
 
-    public ShoppingServiceImpl(CartItemRepository cartItemRepository, BookRepository bookRepository, ShoppingSessionRepository shoppingSessionRepository) {
-        this.cartItemRepository = cartItemRepository;
+    public ShoppingServiceImpl(CartStore cartStore, BookRepository bookRepository,
+                               @Value("${shopping.cart.max-upserted-items:100}") int maxUpsertedItems) {
+        this.cartStore = cartStore;
         this.bookRepository = bookRepository;
-        this.shoppingSessionRepository = shoppingSessionRepository;
+        this.maxUpsertedItems = maxUpsertedItems;
     }
 
 
     @Override
     public List<CartItemDto> getCartItems(Long shoppingSessionId) {
-        List<CartItem> cartItems = cartItemRepository.findAllByShoppingSession_IdOrderById(shoppingSessionId);
-
-        return cartItems.stream()
-                .map(this::mapToCartItemDto)
-                .collect(Collectors.toList());
+        return cartStore.getItems(shoppingSessionId);
     }
 
     @Override
     public CartItem addCartItem(CartItemRequestDto cartItemRequestDto, Long shoppingSessionId) {
+        requirePositiveQuantity(cartItemRequestDto);
 
         Book book = bookRepository.findById(cartItemRequestDto.getBookId())
                 .orElseThrow(() -> new BookNotFoundException("Book not found"));
 
-        ShoppingSession shoppingSession = shoppingSessionRepository.findById(shoppingSessionId)
-                .orElseThrow(() -> new ShoppingSessionNotFoundException("Shopping session not found"));
-
-        CartItem cartItem = new CartItem();
-        cartItem.setBook(book);
-        cartItem.setShoppingSession(shoppingSession);
-        cartItem.setQuantity(cartItemRequestDto.getQuantity());
-
-        CartItem savedCartItem = cartItemRepository.save(cartItem);
-        calculateShoppingCartTotal(shoppingSession);
-
-        return savedCartItem;
+        return cartStore.addItem(shoppingSessionId, book, cartItemRequestDto.getQuantity());
     }
 
     @Override
-    public void updateCartItem(Long cartItemId, CartItemRequestDto cartItemRequestDto) {
-
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new CartItemNotFoundException("Cart item not found"));
-
-        cartItem.setQuantity(cartItemRequestDto.getQuantity());
-        cartItemRepository.save(cartItem);
-
-        calculateShoppingCartTotal(cartItem.getShoppingSession());
+    public void updateCartItem(Long shoppingSessionId, Long cartItemId, CartItemRequestDto cartItemRequestDto) {
+        requirePositiveQuantity(cartItemRequestDto);
+        cartStore.updateItem(shoppingSessionId, cartItemId, cartItemRequestDto.getQuantity());
     }
 
     @Override
-    public void deleteCartItem(Long cartItemId) {
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new CartItemNotFoundException("Cart item not found"));
-
-        cartItemRepository.delete(cartItem);
-
-        calculateShoppingCartTotal(cartItem.getShoppingSession());
+    public void upsertCartItems(Long shoppingSessionId, List<CartItemRequestDto> cartItemRequestDtos) {
+        // books of the list are read and written in a single batch, its size is bounded
+        if (cartItemRequestDtos.size() > maxUpsertedItems) {
+            throw new InvalidCartItemException("At most " + maxUpsertedItems + " items can be set at once");
+        }
+        // a quantity of 0 removes the book, there's nothing to remove below it
+        cartItemRequestDtos.forEach(cartItemRequestDto -> {
+            if (cartItemRequestDto == null || cartItemRequestDto.getBookId() == null) {
+                throw new InvalidCartItemException("Book id is required");
+            }
+            if (cartItemRequestDto.getQuantity() == null || cartItemRequestDto.getQuantity() < 0) {
+                throw new InvalidCartItemException("Quantity of book " + cartItemRequestDto.getBookId() + " must be 0 or more");
+            }
+        });
+        // the last quantity given for a book wins
+        Map<Long, Integer> quantitiesByBookId = new LinkedHashMap<>();
+        cartItemRequestDtos.forEach(cartItemRequestDto -> quantitiesByBookId.put(cartItemRequestDto.getBookId(), cartItemRequestDto.getQuantity()));
+
+        Map<Long, Book> booksById = bookRepository.findAllById(quantitiesByBookId.keySet()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Long> missingBookIds = quantitiesByBookId.keySet().stream()
+                .filter(bookId -> !booksById.containsKey(bookId))
+                .toList();
+        if (!missingBookIds.isEmpty()) {
+            throw new BookNotFoundException("Books not found: " + missingBookIds);
+        }
+
+        List<CartItemDto> items = quantitiesByBookId.entrySet().stream()
+                .map(entry -> new CartItemDto(null, booksById.get(entry.getKey()), entry.getValue()))
+                .toList();
+        cartStore.upsertItems(shoppingSessionId, items);
     }
 
     @Override
-    public BigDecimal getShoppingCartTotal(Long shoppingSessionId) {
-        return shoppingSessionRepository.findById(shoppingSessionId)
-                .orElseThrow(() -> new ShoppingSessionNotFoundException("Shopping session not found"))
-                .getTotal();
+    public void deleteCartItem(Long shoppingSessionId, Long cartItemId) {
+        cartStore.deleteItem(shoppingSessionId, cartItemId);
     }
 
-    public void deleteAllCartItems(List<Long> cartItemIds){
-        cartItemRepository.deleteAllById(cartItemIds);
+    @Override
+    public BigDecimal getShoppingCartTotal(Long shoppingSessionId) {
+        return cartStore.getTotal(shoppingSessionId);
     }
 
-    private CartItemDto mapToCartItemDto(CartItem cartItem) {
-        CartItemDto cartItemDto = new CartItemDto();
-        cartItemDto.setId(cartItem.getId());
-        cartItemDto.setBook(cartItem.getBook());
-        cartItemDto.setQuantity(cartItem.getQuantity());
-
-        return cartItemDto;
+    @Override
+    public void deleteCartItems(Long shoppingSessionId, List<Long> cartItemIds) {
+        cartStore.deleteItems(shoppingSessionId, cartItemIds);
     }
 
-    public void calculateShoppingCartTotal(ShoppingSession shoppingSession) {
-
-        List<CartItem> cartItems = cartItemRepository.findAllByShoppingSession_IdOrderById(shoppingSession.getId());
-
-        BigDecimal total = cartItems.stream()
-                .map(cartItem -> cartItem.getBook().getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        shoppingSession.setTotal(total);
-        shoppingSessionRepository.save(shoppingSession);
+    private static void requirePositiveQuantity(CartItemRequestDto cartItemRequestDto) {
+        if (cartItemRequestDto.getQuantity() == null || cartItemRequestDto.getQuantity() <= 0) {
+            throw new InvalidCartItemException("Quantity must be positive");
+        }
     }
 }
@@ -0,0 +1,10 @@
+-- executed by Hibernate after schema creation (spring.jpa.hibernate.ddl-auto=create / create-drop)
+-- trigram indexes make substring searches (ILIKE '%q%') index scans instead of sequential scans, see *Repository.searchBy*(..)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS book_title_trgm_idx ON book USING gin (title gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS author_name_trgm_idx ON author USING gin (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS category_name_trgm_idx ON category USING gin (name gin_trgm_ops);
+-- derived "LikeIgnoreCase" finders compare upper-cased values, hence these expression indexes
+CREATE INDEX IF NOT EXISTS book_upper_title_trgm_idx ON book USING gin (upper(title) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS author_upper_name_trgm_idx ON author USING gin (upper(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS category_upper_name_trgm_idx ON category USING gin (upper(name) gin_trgm_ops);
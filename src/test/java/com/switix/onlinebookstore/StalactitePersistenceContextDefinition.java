@@ -2,6 +2,7 @@ package com.switix.onlinebookstore;
 
 import javax.annotation.Nullable;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 import com.switix.onlinebookstore.model.Address;
 import com.switix.onlinebookstore.model.AppUser;
@@ -45,6 +46,7 @@ import org.junit.jupiter.api.Test;
 import org.postgresql.ds.PGSimpleDataSource;
 
 import static org.codefilarete.stalactite.dsl.idpolicy.IdentifierPolicy.databaseAutoIncrement;
+import static org.codefilarete.stalactite.dsl.idpolicy.IdentifierPolicy.pooledHiLoSequence;
 import static org.codefilarete.stalactite.dsl.naming.AssociationTableNamingStrategy.HIBERNATE;
 import static org.codefilarete.stalactite.dsl.naming.IndexNamingStrategy.SnakeCaseIndexNamingStrategy.DEFAULT_SUFFIX;
 
@@ -97,6 +99,10 @@ public class StalactitePersistenceContextDefinition {
 		
 		DDLDeployer ddlDeployer = new DDLDeployer(persistenceContext);
 		ddlDeployer.deployDDL();
+		// composite unique key, which the mapping can't declare, required by the cart item upsert (ON CONFLICT)
+		try (Statement statement = persistenceContext.getConnectionProvider().giveConnection().createStatement()) {
+			statement.execute("ALTER TABLE cart_item ADD CONSTRAINT cart_item_session_book_uk UNIQUE (shopping_session_id, book_id)");
+		}
 		persistenceContext.getConnectionProvider().giveConnection().commit();
 	}
 	
@@ -203,6 +209,7 @@ public class StalactitePersistenceContextDefinition {
 						.mapKey(BookInventory::getId, databaseAutoIncrement())
 					.map(BookInventory::getQuantity).mandatory())
 				.mandatory()
+				// authors are joined in the same select as books (no fetchSeparately()), so there's no N+1 on them
 				.mapManyToMany(Book::getBookAuthors, adaptedEntityBuilder(Author.class, Long.class)
 						.mapKey(Author::getId, databaseAutoIncrement())
 					.map(Author::getName).mandatory())
@@ -248,7 +255,8 @@ public class StalactitePersistenceContextDefinition {
 				.mapManyToOne(OrderDetail::getShippingAddress, shippingAddressConfiguration)
 					.mandatory()
 				.mapOneToMany(OrderDetail::getOrderItems, adaptedEntityBuilder(OrderItem.class, Long.class)
-						.mapKey(OrderItem::getId, databaseAutoIncrement())
+						// ids known before insertion let the items of an order be inserted in a single batch
+						.mapKey(OrderItem::getId, pooledHiLoSequence())
 						.mapManyToOne(OrderItem::getBook, bookConfiguration).mandatory()
 						.map(OrderItem::getQuantity).mandatory())
 				.mappedBy(OrderItem::getOrderDetail).mandatory()
@@ -270,7 +278,7 @@ public class StalactitePersistenceContextDefinition {
 	
 	private FluentEntityMappingBuilder<CartItem, Long> cartItemConfiguration(FluentEntityMappingBuilder<ShoppingSession, Long> shoppingSessionConfiguration, FluentEntityMappingBuilder<Book, Long> bookConfiguration) {
 		return adaptedEntityBuilder(CartItem.class, Long.class)
-				.mapKey(CartItem::getId, databaseAutoIncrement())
+				.mapKey(CartItem::getId, pooledHiLoSequence())
 				.map(CartItem::getQuantity).mandatory()
 				.mapManyToOne(CartItem::getBook, bookConfiguration).mandatory()
 				.mapManyToOne(CartItem::getShoppingSession, shoppingSessionConfiguration).mandatory();
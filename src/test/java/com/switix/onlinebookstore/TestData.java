@@ -0,0 +1,20 @@
+package com.switix.onlinebookstore;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.switix.onlinebookstore.seed.FixtureSeeder;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Loads the fixture of {@link FixtureSeeder} while the test context is created, tests expecting it before they run
+ * (the application loads it before serving requests, see DataSeeding).
+ */
+@Configuration
+public class TestData {
+
+    public TestData(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, PasswordEncoder passwordEncoder) {
+        new FixtureSeeder(jdbcTemplate, transactionTemplate, passwordEncoder, new ObjectMapper()).seed();
+    }
+}
@@ -0,0 +1,61 @@
+package com.switix.onlinebookstore.bookimport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.switix.onlinebookstore.dto.ImportBookDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookImportFormatTest {
+
+    @Test
+    void of_matchesContentTypeIgnoringParameters() {
+        assertThat(BookImportFormat.of(MediaType.parseMediaType("text/csv;charset=UTF-8"))).contains(BookImportFormat.CSV);
+        assertThat(BookImportFormat.of(MediaType.APPLICATION_NDJSON)).contains(BookImportFormat.JSONL);
+        assertThat(BookImportFormat.of(MediaType.APPLICATION_JSON)).isEmpty();
+    }
+
+    @Test
+    void csvParser_mapsColumnsByHeaderAndUnquotesFields() throws Exception {
+        BookImportFormat.LineParser testInstance = BookImportFormat.CSV.newParser(new ObjectMapper());
+
+        ImportBookDto header = testInstance.parse("\uFEFFisbn,title,description,price,imageUrl,publicationYear,category,authors");
+        ImportBookDto book = testInstance.parse("123,\"Pan Tadeusz, czyli \"\"Ostatni zajazd\"\"\",Epic,19.99,pan.jpg,1834,Poetry,Adam Mickiewicz; ");
+
+        assertThat(header).isNull();
+        assertThat(book.getIsbn()).isEqualTo("123");
+        assertThat(book.getTitle()).isEqualTo("Pan Tadeusz, czyli \"Ostatni zajazd\"");
+        assertThat(book.getPrice()).isEqualByComparingTo(new BigDecimal("19.99"));
+        assertThat(book.getPublicationYear()).isEqualTo(1834);
+        assertThat(book.getAuthors()).containsExactly("Adam Mickiewicz");
+        // missing column
+        assertThat(book.getQuantity()).isNull();
+        assertThatThrownBy(() -> testInstance.parse("123,\"unterminated")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void csvParser_keepsQuotedAuthorNamesHoldingSeparators() throws Exception {
+        BookImportFormat.LineParser testInstance = BookImportFormat.CSV.newParser(new ObjectMapper());
+        testInstance.parse("isbn,authors");
+
+        ImportBookDto book = testInstance.parse("123,\"\"\"Smith; Jr., John\"\"; \"\"Dwayne \"\"\"\"The Rock\"\"\"\" Johnson\"\";Jane Doe\"");
+
+        assertThat(book.getAuthors()).containsExactly("Smith; Jr., John", "Dwayne \"The Rock\" Johnson", "Jane Doe");
+    }
+
+    @Test
+    void jsonLinesParser_readsOneBookPerLine() throws Exception {
+        BookImportFormat.LineParser testInstance = BookImportFormat.JSONL.newParser(new ObjectMapper());
+
+        ImportBookDto book = testInstance.parse("{\"title\":\"Lalka\",\"price\":25.50,\"authors\":[\"Bolesław Prus\"],\"quantity\":3}");
+
+        assertThat(book.getTitle()).isEqualTo("Lalka");
+        assertThat(book.getPrice()).isEqualByComparingTo(new BigDecimal("25.50"));
+        assertThat(book.getAuthors()).containsExactly("Bolesław Prus");
+        assertThat(book.getQuantity()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,145 @@
+package com.switix.onlinebookstore.bookimport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.switix.onlinebookstore.NoOpPasswordEncoder;
+import com.switix.onlinebookstore.TestData;
+import com.switix.onlinebookstore.dto.BookImportErrorDto;
+import com.switix.onlinebookstore.dto.BookImportReportDto;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.repository.BookRepository;
+import com.switix.onlinebookstore.search.CatalogSuggestions;
+import com.switix.onlinebookstore.service.BookCounts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
+
+@EntityScan(basePackageClasses = Book.class)
+@EnableJpaRepositories(basePackageClasses = BookRepository.class,
+        // we only want to scan for JpaRepository to avoid picking Stalactite repositories here, else we get bean conflicts
+        includeFilters = @ComponentScan.Filter(type = ASSIGNABLE_TYPE, classes = JpaRepository.class)
+)
+@ContextConfiguration(classes = {
+        BookImporter.class,
+        BookCounts.class,
+        CatalogSuggestions.class,
+        ObjectMapper.class,
+        // required for TestData
+        NoOpPasswordEncoder.class})
+// several chunks are written from a small file
+@DataJpaTest(properties = "catalog.import.chunk-size=2")
+
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+
+@Import({TestData.class, BookImporterTest.TestDataSourceConfig.class})
+
+// chunks are committed by the importer, not rolled back with the transaction of the test
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookImporterTest {
+
+    private static final String CSV_CONTENT = """
+            isbn,title,description,price,imageUrl,publicationYear,category,authors,quantity
+            IMP-1,Lalka,Powieść Bolesława Prusa,25.50,lalka.jpg,1890,Powieść,Bolesław Prus,3
+            IMP-2,Dobry omen,Komedia o końcu świata,39.90,omen.jpg,1990,fantasy,\"""Pratchett; Terry"";Neil Gaiman",2
+            IMP-3,Bez ceny,Brak ceny,,bez-ceny.jpg,2000,Fantasy,Ktoś,1
+            IMP-4,Talizman,Powieść grozy,45.00,talizman.jpg,1984,Horror,Stephen King;Peter Straub,
+            """;
+
+    @Autowired
+    private BookImporter bookImporter;
+
+    @Autowired
+    private BookCounts bookCounts;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importBooks_insertsBooksWithTheirLinksAndCounts() throws Exception {
+        // books of TestData are written without BookService, counters are rebuilt as at application startup
+        bookCounts.rebuild();
+        long horrorCount = categoryBookCount("Horror");
+        long fantasyCount = categoryBookCount("Fantasy");
+        long stephenKingCount = authorBookCount("Stephen King");
+        long authorCount = jdbcTemplate.queryForObject("SELECT count(*) FROM author", Long.class);
+
+        BookImportReportDto report = bookImporter.importBooks(new ByteArrayInputStream(CSV_CONTENT.getBytes(StandardCharsets.UTF_8)), BookImportFormat.CSV);
+
+        assertThat(report.getImportedCount()).isEqualTo(3);
+        assertThat(report.getFailedCount()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(BookImportErrorDto::getLineNumber).containsExactly(4L);
+
+        assertThat(jdbcTemplate.queryForList("SELECT b.isbn || ' ' || c.name || ' ' || i.quantity FROM book b JOIN category c ON c.id = b.category_id" +
+                " JOIN book_inventory i ON i.id = b.inventory_id WHERE b.isbn LIKE 'IMP-%' ORDER BY b.isbn", String.class))
+                .containsExactly("IMP-1 Powieść 3", "IMP-2 Fantasy 2", "IMP-4 Horror 0");
+        // names holding the separator are kept whole, known authors are linked rather than created again
+        assertThat(authorNames("IMP-2")).containsExactly("Neil Gaiman", "Pratchett; Terry");
+        assertThat(authorNames("IMP-4")).containsExactly("Peter Straub", "Stephen King");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM author", Long.class)).isEqualTo(authorCount + 3);
+
+        assertThat(categoryBookCount("Powieść")).isEqualTo(1);
+        assertThat(categoryBookCount("Fantasy")).isEqualTo(fantasyCount + 1);
+        assertThat(categoryBookCount("Horror")).isEqualTo(horrorCount + 1);
+        assertThat(authorBookCount("Stephen King")).isEqualTo(stephenKingCount + 1);
+        assertThat(authorBookCount("Pratchett; Terry")).isEqualTo(1);
+    }
+
+    private List<String> authorNames(String isbn) {
+        return jdbcTemplate.queryForList("SELECT a.name FROM book b JOIN book_author ba ON ba.book_id = b.id JOIN author a ON a.id = ba.author_id" +
+                " WHERE b.isbn = ? ORDER BY a.name", String.class, isbn);
+    }
+
+    private long categoryBookCount(String categoryName) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(n.book_count), 0) FROM category c JOIN category_book_count n ON n.category_id = c.id" +
+                " WHERE c.name = ?", Long.class, categoryName);
+    }
+
+    private long authorBookCount(String authorName) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(n.book_count), 0) FROM author a JOIN author_book_count n ON n.author_id = a.id" +
+                " WHERE a.name = ?", Long.class, authorName);
+    }
+
+    @TestConfiguration
+    public static class TestDataSourceConfig {
+
+        @Bean
+        public PostgreSQLContainer<?> database() {
+            PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:14.11");
+            postgreSQLContainer.start();
+            return postgreSQLContainer;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(JdbcDatabaseContainer<?> database) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource();
+            dataSource.setUrl(database.getJdbcUrl());
+            dataSource.setUsername(database.getUsername());
+            dataSource.setPassword(database.getPassword());
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.switix.onlinebookstore.cache;
+
+import com.switix.onlinebookstore.model.City;
+import com.switix.onlinebookstore.model.OrderStatus;
+import com.switix.onlinebookstore.model.PayMethod;
+import com.switix.onlinebookstore.model.Role;
+import com.switix.onlinebookstore.repository.CityRepository;
+import com.switix.onlinebookstore.repository.CountryRepository;
+import com.switix.onlinebookstore.repository.OrderStatusRepository;
+import com.switix.onlinebookstore.repository.PayMethodRepository;
+import com.switix.onlinebookstore.repository.RoleRepository;
+import com.switix.onlinebookstore.repository.ShipmentMethodRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ReferenceDataTest {
+
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final OrderStatusRepository orderStatusRepository = mock(OrderStatusRepository.class);
+    private final PayMethodRepository payMethodRepository = mock(PayMethodRepository.class);
+    private final ShipmentMethodRepository shipmentMethodRepository = mock(ShipmentMethodRepository.class);
+    private final CountryRepository countryRepository = mock(CountryRepository.class);
+    private final CityRepository cityRepository = mock(CityRepository.class);
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+    private final ReferenceData testInstance = new ReferenceData(roleRepository, orderStatusRepository, payMethodRepository,
+            shipmentMethodRepository, countryRepository, cityRepository, catalogVersion);
+
+    @BeforeEach
+    void referenceData() {
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, "ROLE_CUSTOMER"), role(2L, "ROLE_ADMIN")));
+        when(orderStatusRepository.findAll()).thenReturn(List.of(orderStatus(1L, "Nieopłacone"), orderStatus(2L, "Opłacone")));
+        when(payMethodRepository.findAll()).thenReturn(List.of(payMethod(1L, "Przedpłata - Blik")));
+        when(cityRepository.findAll()).thenReturn(List.of(city(1L, "Nakło nad Notecią"), city(2L, "Bydgoszcz")));
+    }
+
+    @Test
+    void lookups_loadAllReferenceDataOnFirstAccessOnly() {
+        verifyNoInteractions(roleRepository, orderStatusRepository, payMethodRepository, shipmentMethodRepository, countryRepository, cityRepository);
+
+        assertThat(testInstance.role("ROLE_ADMIN")).get().extracting(Role::getId).isEqualTo(2L);
+        assertThat(testInstance.orderStatus(2L)).get().extracting(OrderStatus::getStatus).isEqualTo("Opłacone");
+        assertThat(testInstance.orderStatus("Nieopłacone")).get().extracting(OrderStatus::getId).isEqualTo(1L);
+        assertThat(testInstance.payMethod(1L)).get().extracting(PayMethod::getName).isEqualTo("Przedpłata - Blik");
+        assertThat(testInstance.city(2L)).get().extracting(City::getCityName).isEqualTo("Bydgoszcz");
+        assertThat(testInstance.cities()).extracting(City::getId).containsExactly(1L, 2L);
+        assertThat(testInstance.shipmentMethods()).isEmpty();
+        // unknown and missing keys
+        assertThat(testInstance.role("ROLE_UNKNOWN")).isEmpty();
+        assertThat(testInstance.orderStatus(42L)).isEmpty();
+        assertThat(testInstance.orderStatus((Long) null)).isEmpty();
+        assertThat(testInstance.country(1L)).isEmpty();
+
+        verify(roleRepository, times(1)).findAll();
+        verify(orderStatusRepository, times(1)).findAll();
+        verify(cityRepository, times(1)).findAll();
+    }
+
+    @Test
+    void reload_replacesTheSnapshotAndMovesTheReferenceDataVersion() {
+        assertThat(testInstance.payMethods()).extracting(PayMethod::getName).containsExactly("Przedpłata - Blik");
+        CatalogVersion.Version referenceDataVersion = catalogVersion.referenceData();
+        CatalogVersion.Version catalogVersionBefore = catalogVersion.current();
+
+        when(payMethodRepository.findAll()).thenReturn(List.of(payMethod(1L, "Blik"), payMethod(2L, "PayPal")));
+        testInstance.reload();
+
+        assertThat(testInstance.payMethods()).extracting(PayMethod::getName).containsExactly("Blik", "PayPal");
+        assertThat(testInstance.payMethod(2L)).get().extracting(PayMethod::getName).isEqualTo("PayPal");
+        assertThat(catalogVersion.referenceData().number()).isGreaterThan(referenceDataVersion.number());
+        assertThat(catalogVersion.referenceData().eTag()).isNotEqualTo(referenceDataVersion.eTag());
+        // the catalog has a version of its own
+        assertThat(catalogVersion.current()).isSameAs(catalogVersionBefore);
+    }
+
+    private static Role role(Long id, String name) {
+        Role role = new Role();
+        role.setId(id);
+        role.setName(name);
+        return role;
+    }
+
+    private static OrderStatus orderStatus(Long id, String status) {
+        OrderStatus orderStatus = new OrderStatus();
+        orderStatus.setId(id);
+        orderStatus.setStatus(status);
+        return orderStatus;
+    }
+
+    private static PayMethod payMethod(Long id, String name) {
+        PayMethod payMethod = new PayMethod();
+        payMethod.setId(id);
+        payMethod.setName(name);
+        return payMethod;
+    }
+
+    private static City city(Long id, String name) {
+        City city = new City();
+        city.setId(id);
+        city.setCityName(name);
+        return city;
+    }
+}
@@ -0,0 +1,134 @@
+package com.switix.onlinebookstore.cart;
+
+import com.switix.onlinebookstore.NoOpPasswordEncoder;
+import com.switix.onlinebookstore.TestData;
+import com.switix.onlinebookstore.dto.CartItemDto;
+import com.switix.onlinebookstore.exception.ShoppingSessionNotFoundException;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
+
+@EntityScan(basePackageClasses = Book.class)
+@EnableJpaRepositories(basePackageClasses = BookRepository.class,
+        // we only want to scan for JpaRepository to avoid picking Stalactite repositories here, else we get bean conflicts
+        includeFilters = @ComponentScan.Filter(type = ASSIGNABLE_TYPE, classes = JpaRepository.class)
+)
+@ContextConfiguration(classes = {
+        // database store, the default one
+        CartStoreConfig.class,
+        // required for TestData
+        NoOpPasswordEncoder.class})
+@DataJpaTest
+
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+
+@Import({TestData.class, DatabaseCartStoreTest.TestDataSourceConfig.class})
+class DatabaseCartStoreTest {
+
+    // sessions of TestData : the first cart is empty, the second one holds one copy of the first book and two of the
+    // third one
+    private static final long EMPTY_SESSION_ID = 1;
+    private static final long SESSION_ID = 2;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void upsertItems_insertsUpdatesAndDeletesItemsThenRecomputesTheTotal() {
+        Book first = bookRepository.findById(1L).orElseThrow();
+        Book third = bookRepository.findById(3L).orElseThrow();
+        Book fifth = bookRepository.findById(5L).orElseThrow();
+        Book sixth = bookRepository.findById(6L).orElseThrow();
+        Long firstItemId = cartStore.getItems(SESSION_ID).get(0).getId();
+
+        cartStore.upsertItems(SESSION_ID, List.of(new CartItemDto(null, first, 3), new CartItemDto(null, third, 0),
+                new CartItemDto(null, fifth, 2), new CartItemDto(null, sixth, 1)));
+
+        assertThat(cartStore.getItems(SESSION_ID))
+                .extracting(cartItem -> cartItem.getBook().getId(), CartItemDto::getQuantity)
+                .containsExactly(tuple(1L, 3), tuple(5L, 2), tuple(6L, 1));
+        // an item already in the cart is updated rather than replaced
+        assertThat(cartStore.getItems(SESSION_ID).get(0).getId()).isEqualTo(firstItemId);
+        assertThat(total(SESSION_ID)).isEqualByComparingTo(first.getPrice().multiply(BigDecimal.valueOf(3))
+                .add(fifth.getPrice().multiply(BigDecimal.valueOf(2)))
+                .add(sixth.getPrice()));
+        // other carts are left as they are
+        assertThat(cartStore.getItems(EMPTY_SESSION_ID)).isEmpty();
+        assertThat(total(EMPTY_SESSION_ID)).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void upsertItems_removingTheLastItemsEmptiesTheCart() {
+        Book first = bookRepository.findById(1L).orElseThrow();
+        Book third = bookRepository.findById(3L).orElseThrow();
+
+        cartStore.upsertItems(SESSION_ID, List.of(new CartItemDto(null, first, 0), new CartItemDto(null, third, 0)));
+
+        assertThat(cartStore.getItems(SESSION_ID)).isEmpty();
+        assertThat(total(SESSION_ID)).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void upsertItems_rejectsUnknownSessions() {
+        Book first = bookRepository.findById(1L).orElseThrow();
+
+        assertThatThrownBy(() -> cartStore.upsertItems(999L, List.of(new CartItemDto(null, first, 1))))
+                .isInstanceOf(ShoppingSessionNotFoundException.class);
+    }
+
+    private BigDecimal total(long shoppingSessionId) {
+        return jdbcTemplate.queryForObject("SELECT total FROM shopping_session WHERE id = ?", BigDecimal.class, shoppingSessionId);
+    }
+
+    @TestConfiguration
+    public static class TestDataSourceConfig {
+
+        @Bean
+        public PostgreSQLContainer<?> database() {
+            PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:14.11");
+            postgreSQLContainer.start();
+            return postgreSQLContainer;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(JdbcDatabaseContainer<?> database) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource();
+            dataSource.setUrl(database.getJdbcUrl());
+            dataSource.setUsername(database.getUsername());
+            dataSource.setPassword(database.getPassword());
+            return dataSource;
+        }
+    }
+}
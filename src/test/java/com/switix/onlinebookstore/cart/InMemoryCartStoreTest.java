@@ -0,0 +1,203 @@
+package com.switix.onlinebookstore.cart;
+
+import com.switix.onlinebookstore.dto.CartItemDto;
+import com.switix.onlinebookstore.exception.CartItemNotFoundException;
+import com.switix.onlinebookstore.exception.ShoppingSessionNotFoundException;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.model.CartItem;
+import com.switix.onlinebookstore.repository.BookRepository;
+import com.switix.onlinebookstore.repository.ShoppingSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InMemoryCartStoreTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final ShoppingSessionRepository shoppingSessionRepository = mock(ShoppingSessionRepository.class);
+    private final Clock clock = mock(Clock.class);
+    private final InMemoryCartStore testInstance = new InMemoryCartStore(bookRepository, shoppingSessionRepository, Duration.ofMinutes(30), clock);
+
+    @BeforeEach
+    void knownSessions() {
+        when(shoppingSessionRepository.existsById(any())).thenAnswer(invocation -> invocation.<Long>getArgument(0) < 10);
+    }
+
+    private static Book book(long id, String price) {
+        Book book = new Book();
+        book.setId(id);
+        book.setPrice(new BigDecimal(price));
+        return book;
+    }
+
+    @Test
+    void cartOperations_areIsolatedBySessionAndMaintainTotal() {
+        Book hobbit = book(1, "39.99");
+        Book dune = book(2, "25.00");
+        when(bookRepository.findAllById(any())).thenReturn(List.of(hobbit, dune));
+
+        Long hobbitItemId = testInstance.addItem(1L, hobbit, 1).getId();
+        Long duneItemId = testInstance.addItem(1L, dune, 1).getId();
+        // adding a book again increases the quantity of its item
+        CartItem hobbitItem = testInstance.addItem(1L, hobbit, 1);
+        assertThat(hobbitItem.getId()).isEqualTo(hobbitItemId);
+        assertThat(hobbitItem.getQuantity()).isEqualTo(2);
+        testInstance.updateItem(1L, duneItemId, 3);
+
+        assertThat(testInstance.getTotal(1L)).isEqualByComparingTo("154.98");
+        assertThat(testInstance.getItems(1L))
+                .extracting(cartItem -> cartItem.getBook().getId(), CartItemDto::getQuantity)
+                .containsExactly(tuple(1L, 2), tuple(2L, 3));
+        // items of a session can't be changed through another one
+        assertThatThrownBy(() -> testInstance.deleteItem(2L, hobbitItemId)).isInstanceOf(CartItemNotFoundException.class);
+        assertThat(testInstance.getTotal(2L)).isEqualByComparingTo("0");
+
+        testInstance.deleteItems(1L, List.of(hobbitItemId, duneItemId));
+
+        assertThat(testInstance.getItems(1L)).isEmpty();
+        assertThat(testInstance.size()).isZero();
+    }
+
+    @Test
+    void upsertItems_setsQuantitiesOfListedBooksOnly() {
+        Book hobbit = book(1, "39.99");
+        Book dune = book(2, "25.00");
+        Book solaris = book(3, "20.00");
+        when(bookRepository.findAllById(any())).thenReturn(List.of(hobbit, dune, solaris));
+        Long hobbitItemId = testInstance.addItem(1L, hobbit, 1).getId();
+        testInstance.addItem(1L, dune, 1);
+
+        testInstance.upsertItems(1L, List.of(new CartItemDto(null, hobbit, 3), new CartItemDto(null, dune, 0), new CartItemDto(null, solaris, 2)));
+
+        assertThat(testInstance.getItems(1L))
+                .extracting(CartItemDto::getId, cartItem -> cartItem.getBook().getId(), CartItemDto::getQuantity)
+                .containsExactly(tuple(hobbitItemId, 1L, 3), tuple(hobbitItemId + 2, 3L, 2));
+        assertThat(testInstance.getTotal(1L)).isEqualByComparingTo("159.97");
+    }
+
+    @Test
+    void addItem_and_upsertItems_rejectUnknownSessions() {
+        Book hobbit = book(1, "39.99");
+
+        assertThatThrownBy(() -> testInstance.addItem(42L, hobbit, 1)).isInstanceOf(ShoppingSessionNotFoundException.class);
+        assertThatThrownBy(() -> testInstance.upsertItems(42L, List.of(new CartItemDto(null, hobbit, 1))))
+                .isInstanceOf(ShoppingSessionNotFoundException.class);
+        assertThat(testInstance.size()).isZero();
+
+        // the session is only looked up when its cart is created
+        testInstance.addItem(1L, hobbit, 1);
+        testInstance.upsertItems(1L, List.of(new CartItemDto(null, hobbit, 2)));
+        verify(shoppingSessionRepository, times(1)).existsById(1L);
+    }
+
+    @Test
+    void deleteItems_failsWhenItemsAreNoLongerInTheCart() {
+        Long hobbitItemId = testInstance.addItem(1L, book(1, "39.99"), 1).getId();
+        Long duneItemId = testInstance.addItem(1L, book(2, "25.00"), 1).getId();
+        testInstance.deleteItem(1L, duneItemId);
+
+        // e.g. the cart was ordered meanwhile by a concurrent checkout
+        assertThatThrownBy(() -> testInstance.deleteItems(1L, List.of(hobbitItemId, duneItemId)))
+                .isInstanceOf(CartItemNotFoundException.class);
+        assertThatThrownBy(() -> testInstance.deleteItems(2L, List.of(hobbitItemId)))
+                .isInstanceOf(CartItemNotFoundException.class);
+        assertThat(testInstance.getTotal(1L)).isEqualByComparingTo("39.99");
+    }
+
+    @Test
+    void deleteItems_concurrentCheckoutsOfTheSameCartOrderItOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 200; round++) {
+                Long hobbitItemId = testInstance.addItem(1L, book(1, "39.99"), 1).getId();
+                Long duneItemId = testInstance.addItem(1L, book(2, "25.00"), 2).getId();
+                CyclicBarrier start = new CyclicBarrier(2);
+                Callable<Boolean> checkout = () -> {
+                    start.await();
+                    try {
+                        testInstance.deleteItems(1L, List.of(hobbitItemId, duneItemId));
+                        return true;
+                    } catch (CartItemNotFoundException e) {
+                        return false;
+                    }
+                };
+                List<Future<Boolean>> checkouts = executor.invokeAll(List.of(checkout, checkout));
+
+                assertThat(checkouts.stream().filter(this::succeeded).count()).isEqualTo(1);
+                assertThat(testInstance.size()).isZero();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void deleteItems_givesItemsBackWhenTheOrderIsRolledBack() {
+        Long hobbitItemId = testInstance.addItem(1L, book(1, "39.99"), 1).getId();
+        Long duneItemId = testInstance.addItem(1L, book(2, "25.00"), 2).getId();
+
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> synchronizations;
+        try {
+            testInstance.deleteItems(1L, List.of(hobbitItemId, duneItemId));
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        // items are taken out of the cart until the order completes
+        assertThat(testInstance.size()).isZero();
+        assertThatThrownBy(() -> testInstance.deleteItems(1L, List.of(hobbitItemId, duneItemId)))
+                .isInstanceOf(CartItemNotFoundException.class);
+        // the book is added again meanwhile
+        testInstance.addItem(1L, book(2, "25.00"), 1);
+
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(testInstance.getTotal(1L)).isEqualByComparingTo("114.99");
+        testInstance.deleteItems(1L, List.of(hobbitItemId, duneItemId));
+        assertThat(testInstance.size()).isZero();
+    }
+
+    @Test
+    void evictExpiredCarts_removesCartsNotAccessedForTheirTimeToLive() {
+        when(clock.millis()).thenReturn(0L);
+        testInstance.addItem(1L, book(1, "10.00"), 1);
+        when(clock.millis()).thenReturn(Duration.ofMinutes(20).toMillis());
+        testInstance.addItem(2L, book(1, "10.00"), 1);
+
+        when(clock.millis()).thenReturn(Duration.ofMinutes(40).toMillis());
+        testInstance.evictExpiredCarts();
+
+        assertThat(testInstance.getTotal(1L)).isEqualByComparingTo("0");
+        assertThat(testInstance.getTotal(2L)).isEqualByComparingTo("10.00");
+    }
+
+    private boolean succeeded(Future<Boolean> checkout) {
+        try {
+            return checkout.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
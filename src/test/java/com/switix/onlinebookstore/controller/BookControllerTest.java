@@ -3,6 +3,8 @@ package com.switix.onlinebookstore.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.switix.onlinebookstore.NoOpPasswordEncoder;
 import com.switix.onlinebookstore.TestData;
+import com.switix.onlinebookstore.cache.CatalogVersion;
+import com.switix.onlinebookstore.dto.BookSummaryDto;
 import com.switix.onlinebookstore.dto.SaveBookDto;
 import com.switix.onlinebookstore.dto.UpdateBookDto;
 import com.switix.onlinebookstore.exception.BookNotFoundException;
@@ -11,7 +13,9 @@ import com.switix.onlinebookstore.model.*;
 import com.switix.onlinebookstore.repository.OrderDetailRepository;
 import com.switix.onlinebookstore.service.AppUserDetailsService;
 import com.switix.onlinebookstore.service.BookService;
+import com.switix.onlinebookstore.service.BookCounts;
 import com.switix.onlinebookstore.service.BookServiceImpl;
+import com.switix.onlinebookstore.service.CatalogChangedEvent;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
@@ -22,6 +26,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureTestEnti
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
@@ -66,6 +71,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         // adding classes required by controller
         BookController.class,
         BookServiceImpl.class,
+        BookCounts.class,
+        CatalogVersion.class,
         AppUserDetailsService.class})
 
 // we can't use @DataJpaTest because its @BootstrapWith conflicts with @WebMvcTest: Spring doesn't allow to above both of them in same test
@@ -87,6 +94,9 @@ class BookControllerTest {
     @MockBean
     private BookService bookService;
 
+    @Autowired
+    private CatalogVersion catalogVersion;
+
     @Test
     void getBooks_shouldReturnListOfBooks() throws Exception {
         List<Book> books = Arrays.asList(new Book(), new Book());
@@ -99,6 +109,81 @@ class BookControllerTest {
         verify(bookService).getAllBooks(false);
     }
 
+    @Test
+    void getBooks_whenETagMatchesCatalogVersion_shouldReturn304WithoutLoadingBooks() throws Exception {
+        when(bookService.getAllBooks(false)).thenReturn(List.of(new Book()));
+        String eTag = mockMvc.perform(get("/api/books"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(bookService, times(1)).getAllBooks(false);
+
+        // a catalog change makes the client ETag outdated
+        catalogVersion.onCatalogChanged(new CatalogChangedEvent(CatalogChangedEvent.Subject.BOOK, CatalogChangedEvent.Change.UPDATED, 1L));
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        verify(bookService, times(2)).getAllBooks(false);
+    }
+
+    @Test
+    void getBooks_whenSizeGiven_shouldReturnPageWithNextPageToken() throws Exception {
+        Book book1 = new Book();
+        book1.setId(1L);
+        Book book2 = new Book();
+        book2.setId(2L);
+        when(bookService.getBooksAfter(0L, 2, false)).thenReturn(Arrays.asList(book1, book2));
+
+        mockMvc.perform(get("/api/books").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.nextPageToken").value(ContinuationTokens.encode(2L)));
+
+        verify(bookService).getBooksAfter(0L, 2, false);
+    }
+
+    @Test
+    void getBooks_whenLastPage_shouldReturnPageWithoutNextPageToken() throws Exception {
+        Book book = new Book();
+        book.setId(3L);
+        when(bookService.getBooksAfter(2L, 2, false)).thenReturn(List.of(book));
+
+        mockMvc.perform(get("/api/books").param("size", "2").param("pageToken", ContinuationTokens.encode(2L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextPageToken").doesNotExist());
+
+        verify(bookService).getBooksAfter(2L, 2, false);
+    }
+
+    @Test
+    void getBooks_whenPageTokenIsInvalid_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/books").param("size", "2").param("pageToken", "not a token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBookSummaries_shouldReturnPageOfSummaries() throws Exception {
+        BookSummaryDto summary = new BookSummaryDto(1L, "Title", null, "title.jpg", "Fantasy", 3);
+        summary.addAuthorName("Author 1");
+        summary.addAuthorName("Author; 2");
+        when(bookService.getBookSummariesAfter(0L, 20, false)).thenReturn(List.of(summary));
+
+        mockMvc.perform(get("/api/books/summaries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].inStock").value(true))
+                .andExpect(jsonPath("$.items[0].authorNames.length()").value(2))
+                .andExpect(jsonPath("$.items[0].description").doesNotExist())
+                .andExpect(jsonPath("$.nextPageToken").doesNotExist());
+
+        verify(bookService).getBookSummariesAfter(0L, 20, false);
+    }
+
     @Test
     void getBook_whenBookExists_shouldReturnBook() throws Exception {
         Book book = new Book();
@@ -3,6 +3,8 @@ package com.switix.onlinebookstore.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.switix.onlinebookstore.NoOpPasswordEncoder;
 import com.switix.onlinebookstore.TestData;
+import com.switix.onlinebookstore.cache.CatalogVersion;
+import com.switix.onlinebookstore.cache.ReferenceData;
 import com.switix.onlinebookstore.dto.OrderDetailCreationDto;
 import com.switix.onlinebookstore.dto.OrderDetailDto;
 import com.switix.onlinebookstore.dto.OrderItemDto;
@@ -23,18 +25,26 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureTestEnti
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -68,7 +78,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         // required for TestData
         NoOpPasswordEncoder.class,
         // adding classes required for controller
-        OrderController.class
+        OrderController.class,
+        CatalogVersion.class,
+        ReferenceData.class
 })
 
 // we can't use @DataJpaTest because its @BootstrapWith conflicts with @WebMvcTest: Spring doesn't allow to above both of them in same test
@@ -135,6 +147,40 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.length()").value(2));
     }
 
+    @Test
+    void exportOrderDetailsAdmin_shouldStreamCsv() throws Exception {
+        OrderStatus orderStatus = new OrderStatus();
+        orderStatus.setStatus("Delivered, paid");
+        doAnswer(invocation -> {
+            Consumer<OrderDetailDto> consumer = invocation.getArgument(4);
+            consumer.accept(new OrderDetailDto(1L, new BigDecimal("12.50"), Instant.parse("2024-01-01T10:00:00Z"), orderStatus));
+            consumer.accept(new OrderDetailDto(2L, new BigDecimal("3.00"), Instant.parse("2024-01-02T10:00:00Z"), null));
+            consumer.accept(new OrderDetailDto(3L, new BigDecimal("7.00"), null, orderStatus));
+            return null;
+        }).when(orderService).exportOrdersDetail(eq(2L), isNull(), isNull(), isNull(), any());
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/orders/admin/export")
+                        .param("format", "csv")
+                        .param("orderStatusId", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.csv\""))
+                .andExpect(content().string("id,total,createdAt,orderStatus\r\n"
+                        + "1,12.50,2024-01-01T10:00:00Z,\"Delivered, paid\"\r\n"
+                        + "2,3.00,2024-01-02T10:00:00Z,\r\n"
+                        + "3,7.00,,\"Delivered, paid\"\r\n"));
+    }
+
+    @Test
+    void exportOrderDetailsAdmin_shouldReturnBadRequestWhenFormatUnknown() throws Exception {
+        mockMvc.perform(get("/api/orders/admin/export")
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getOrderItems_shouldReturnOk() throws Exception {
         when(orderService.getOrderItems(1L))
@@ -244,6 +290,18 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.length()").value(2));
     }
 
+    @Test
+    void getPayMethods_whenETagMatches_shouldReturn304() throws Exception {
+        String eTag = mockMvc.perform(get("/api/orders/payMethods"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/orders/payMethods").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getShipmentMethods_shouldReturnOk() throws Exception {
 //        when(shipmentMethodRepository.findAll())
@@ -0,0 +1,62 @@
+package com.switix.onlinebookstore.controller;
+
+import com.switix.onlinebookstore.cache.ReferenceData;
+import com.switix.onlinebookstore.security.SecurityConfig;
+import com.switix.onlinebookstore.service.AppUserDetailsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// unlike other controller tests, security is kept here : the reload endpoint is only for admins
+@ContextConfiguration(classes = {
+        ReferenceDataController.class,
+        SecurityConfig.class
+})
+@WebMvcTest(ReferenceDataController.class)
+class ReferenceDataControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReferenceData referenceData;
+
+    // required for SecurityConfig
+    @MockBean
+    private AppUserDetailsService appUserDetailsService;
+
+    @Test
+    void reload_shouldReturnUnauthorizedForAnonymousUser() throws Exception {
+        mockMvc.perform(post("/api/referenceData/admin/reload"))
+                .andExpect(status().isUnauthorized());
+
+        verify(referenceData, never()).reload();
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void reload_shouldReturnForbiddenForCustomer() throws Exception {
+        mockMvc.perform(post("/api/referenceData/admin/reload"))
+                .andExpect(status().isForbidden());
+
+        verify(referenceData, never()).reload();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void reload_shouldReturnNoContentForAdmin() throws Exception {
+        mockMvc.perform(post("/api/referenceData/admin/reload"))
+                .andExpect(status().isNoContent());
+
+        verify(referenceData).reload();
+    }
+}
@@ -0,0 +1,77 @@
+package com.switix.onlinebookstore.image;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageSenderTest {
+
+    private final ImageSender testInstance = new ImageSender();
+
+    @TempDir
+    Path imageDirectory;
+
+    @Test
+    void send_wholeFileWithImmutableCacheHeaders() throws Exception {
+        Path image = Files.writeString(imageDirectory.resolve("cover_1.png"), "0123456789");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        testInstance.send(image, new MockHttpServletRequest("GET", "/api/images/cover_1.png"), response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("max-age=31536000, public, immutable");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotNull();
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("0123456789");
+    }
+
+    @Test
+    void send_whenETagMatches_returns304WithoutBody() throws Exception {
+        Path image = Files.writeString(imageDirectory.resolve("cover_1.jpg"), "0123456789");
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        testInstance.send(image, new MockHttpServletRequest("GET", "/api/images/cover_1.jpg"), firstResponse);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/cover_1.jpg");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, firstResponse.getHeader(HttpHeaders.ETAG));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        testInstance.send(image, request, response);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void send_range() throws Exception {
+        Path image = Files.writeString(imageDirectory.resolve("cover_1.jpg"), "0123456789");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/cover_1.jpg");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        testInstance.send(image, request, response);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("2345");
+    }
+
+    @Test
+    void send_whenRangeStartsAfterEnd_returns416() throws Exception {
+        Path image = Files.writeString(imageDirectory.resolve("cover_1.jpg"), "0123456789");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/cover_1.jpg");
+        request.addHeader(HttpHeaders.RANGE, "bytes=20-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        testInstance.send(image, request, response);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+}
@@ -0,0 +1,57 @@
+package com.switix.onlinebookstore.image;
+
+import com.switix.onlinebookstore.exception.ImageTooLargeException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageUploadsTest {
+
+    @TempDir
+    Path imageDirectory;
+
+    private ImageUploads newTestInstance(DataSize maxSize) {
+        ImageStore imageStore = new ImageStore(imageDirectory.toString());
+        // variants generation isn't part of these tests
+        TaskExecutor noOpExecutor = task -> {};
+        return new ImageUploads(imageStore, new ImageVariants(imageStore, noOpExecutor, 40_000_000), noOpExecutor, maxSize);
+    }
+
+    @Test
+    void store_identicalContentIsStoredOnce() throws Exception {
+        ImageUploads testInstance = newTestInstance(DataSize.ofKilobytes(1));
+        byte[] cover = "cover".getBytes(StandardCharsets.UTF_8);
+
+        String name = testInstance.store(new ByteArrayInputStream(cover), "../Pan Tadeusz.jpg");
+        String duplicateName = testInstance.store(new ByteArrayInputStream(cover), "other.jpg");
+        String otherName = testInstance.store(new ByteArrayInputStream("other cover".getBytes(StandardCharsets.UTF_8)), "other.jpg");
+
+        assertThat(name).matches("Pan_Tadeusz_\\d+\\.jpg");
+        assertThat(duplicateName).isEqualTo(name);
+        assertThat(otherName).isNotEqualTo(name);
+        assertThat(Files.readAllBytes(imageDirectory.resolve(name))).isEqualTo(cover);
+        try (var files = Files.list(imageDirectory)) {
+            assertThat(files).hasSize(2);
+        }
+    }
+
+    @Test
+    void store_whenContentExceedsMaxSize_throwsExceptionAndStoresNothing() throws Exception {
+        ImageUploads testInstance = newTestInstance(DataSize.ofBytes(4));
+
+        assertThatThrownBy(() -> testInstance.store(new ByteArrayInputStream(new byte[5]), "cover.jpg"))
+                .isInstanceOf(ImageTooLargeException.class);
+        try (var files = Files.list(imageDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.switix.onlinebookstore.image;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageVariantsTest {
+
+    @TempDir
+    Path imageDirectory;
+
+    @Test
+    void backfill_generatesMissingVariantsKeepingRatio() throws Exception {
+        Path cover = imageDirectory.resolve("cover_1.jpg");
+        ImageIO.write(new BufferedImage(1000, 1500, BufferedImage.TYPE_INT_RGB), "jpg", cover.toFile());
+        Path smallCover = imageDirectory.resolve("small_1.png");
+        ImageIO.write(new BufferedImage(200, 100, BufferedImage.TYPE_INT_ARGB), "png", smallCover.toFile());
+        ImageStore imageStore = new ImageStore(imageDirectory.toString());
+        // runs generation in the calling thread
+        ImageVariants testInstance = new ImageVariants(imageStore, Runnable::run, 40_000_000);
+
+        testInstance.backfill();
+
+        BufferedImage thumbnail = ImageIO.read(imageStore.find("cover_1.jpg", ImageVariant.THUMBNAIL).orElseThrow().toFile());
+        assertThat(thumbnail.getWidth()).isEqualTo(120);
+        assertThat(thumbnail.getHeight()).isEqualTo(180);
+        BufferedImage detail = ImageIO.read(imageStore.find("cover_1.jpg", ImageVariant.DETAIL).orElseThrow().toFile());
+        assertThat(detail.getWidth()).isEqualTo(600);
+        assertThat(Files.size(imageStore.find("cover_1.jpg", ImageVariant.DETAIL).orElseThrow())).isLessThan(Files.size(cover));
+        // images aren't scaled up
+        BufferedImage smallDetail = ImageIO.read(imageStore.find("small_1.png", ImageVariant.DETAIL).orElseThrow().toFile());
+        assertThat(smallDetail.getWidth()).isEqualTo(200);
+        // only variants are left in variant directories
+        try (var files = Files.list(imageDirectory.resolve(ImageVariant.LIST.getName()))) {
+            assertThat(files.map(path -> path.getFileName().toString())).containsExactlyInAnyOrder("cover_1.jpg", "small_1.png");
+        }
+    }
+
+    @Test
+    void generate_skipsImagesAboveThePixelLimitAndMalformedOnes() throws Exception {
+        Path largeCover = imageDirectory.resolve("large_1.png");
+        ImageIO.write(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "png", largeCover.toFile());
+        Path cover = imageDirectory.resolve("cover_1.png");
+        ImageIO.write(new BufferedImage(1000, 1000, BufferedImage.TYPE_INT_RGB), "png", cover.toFile());
+        // a PNG cut after its header
+        Path brokenCover = imageDirectory.resolve("broken_1.png");
+        Files.write(brokenCover, Arrays.copyOf(Files.readAllBytes(cover), 40));
+        ImageStore imageStore = new ImageStore(imageDirectory.toString());
+        ImageVariants testInstance = new ImageVariants(imageStore, Runnable::run, 1_000_000);
+
+        testInstance.generate(largeCover);
+        testInstance.generate(brokenCover);
+        testInstance.generate(cover);
+
+        assertThat(imageStore.find("large_1.png", ImageVariant.THUMBNAIL)).isEmpty();
+        assertThat(imageStore.find("broken_1.png", ImageVariant.THUMBNAIL)).isEmpty();
+        assertThat(imageStore.find("cover_1.png", ImageVariant.THUMBNAIL)).isPresent();
+    }
+}
@@ -2,19 +2,32 @@ package com.switix.onlinebookstore.repository;
 
 import com.switix.onlinebookstore.NoOpPasswordEncoder;
 import com.switix.onlinebookstore.TestData;
+import com.switix.onlinebookstore.dto.BookAuthorNameDto;
+import com.switix.onlinebookstore.dto.BookSummaryDto;
 import com.switix.onlinebookstore.model.*;
+import com.switix.onlinebookstore.service.SearchQueries;
 import org.codefilarete.reflection.AccessorDefinition;
 import org.codefilarete.stalactite.dsl.entity.FluentEntityMappingBuilder;
 import org.codefilarete.stalactite.dsl.naming.AssociationTableNamingStrategy;
 import org.codefilarete.stalactite.engine.EntityPersister;
+import org.codefilarete.stalactite.engine.ExecutableQuery;
 import org.codefilarete.stalactite.engine.PersistenceContext;
+import org.codefilarete.stalactite.query.model.OrderByChain;
+import org.codefilarete.stalactite.query.model.QueryEase;
 import org.codefilarete.stalactite.spring.repository.config.EnableStalactiteRepositories;
+import org.codefilarete.stalactite.spring.repository.query.BeanQuery;
 import org.codefilarete.stalactite.sql.ddl.Size;
+import org.codefilarete.stalactite.sql.ddl.structure.Column;
 import org.codefilarete.stalactite.sql.ddl.structure.PrimaryKey;
 import org.codefilarete.stalactite.sql.ddl.structure.Table;
 import org.codefilarete.tool.Strings;
 import org.codefilarete.tool.trace.Chrono;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
@@ -24,6 +37,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
@@ -32,11 +46,16 @@ import org.testcontainers.containers.JdbcDatabaseContainer;
 import org.testcontainers.containers.PostgreSQLContainer;
 
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.codefilarete.stalactite.dsl.MappingEase.entityBuilder;
 import static org.codefilarete.stalactite.dsl.idpolicy.IdentifierPolicy.databaseAutoIncrement;
+import static org.codefilarete.stalactite.query.model.Operators.eq;
 import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
 
 @EntityScan(basePackageClasses = {
@@ -82,6 +101,12 @@ class BookRepositoryTest {
     @Autowired
     private StalactiteBookRepository stalactiteBookRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @RepeatedTest(10)
     void findAllByIsRemoved() {
         Chrono chrono = new Chrono();
@@ -182,6 +207,103 @@ class BookRepositoryTest {
         System.out.println("Time spent by Stalactite to fully load entities: " + timeSpentByStalactite + " ms");
     }
 
+    @RepeatedTest(10)
+    void findAllByIsRemovedAndIdGreaterThanOrderByIdAsc() {
+        Chrono chrono = new Chrono();
+        List<Book> firstPage_JPA = bookRepository.findAllByIsRemovedAndIdGreaterThanOrderByIdAsc(false, 0L, PageRequest.ofSize(5));
+        assertThat(firstPage_JPA).hasSize(5);
+        List<Book> secondPage_JPA = bookRepository.findAllByIsRemovedAndIdGreaterThanOrderByIdAsc(false, firstPage_JPA.get(4).getId(), PageRequest.ofSize(5));
+        assertThat(secondPage_JPA).isNotEmpty();
+        assertThat(secondPage_JPA.get(0).getId()).isGreaterThan(firstPage_JPA.get(4).getId());
+        long timeSpentByJPA = chrono.getElapsedTime();
+        chrono.start();
+        List<Book> firstPage_Stalactite = stalactiteBookRepository.findAllByIsRemovedAndIdGreaterThanOrderByIdAsc(false, 0L, PageRequest.ofSize(5));
+        List<Book> secondPage_Stalactite = stalactiteBookRepository.findAllByIsRemovedAndIdGreaterThanOrderByIdAsc(false, firstPage_Stalactite.get(4).getId(), PageRequest.ofSize(5));
+        long timeSpentByStalactite = chrono.getElapsedTime();
+        assertThat(firstPage_JPA).usingRecursiveComparison().isEqualTo(firstPage_Stalactite);
+        assertThat(secondPage_JPA).usingRecursiveComparison().isEqualTo(secondPage_Stalactite);
+        System.out.println("Time spent by JPA to load 2 pages: " + timeSpentByJPA + " ms");
+        System.out.println("Time spent by Stalactite to load 2 pages: " + timeSpentByStalactite + " ms");
+    }
+
+    @RepeatedTest(10)
+    void findSummaries() {
+        Chrono chrono = new Chrono();
+        List<BookSummaryDto> summaries_JPA = bookRepository.findSummariesAfter(false, 0L, PageRequest.ofSize(100));
+        assertThat(summaries_JPA).isNotEmpty();
+        Map<Long, BookSummaryDto> summariesById_JPA = summaries_JPA.stream().collect(Collectors.toMap(BookSummaryDto::getId, Function.identity()));
+        bookRepository.findAuthorNames(summariesById_JPA.keySet())
+                .forEach(authorName -> summariesById_JPA.get(authorName.getBookId()).addAuthorName(authorName.getAuthorName()));
+        long timeSpentByJPA = chrono.getElapsedTime();
+        chrono.start();
+        List<BookSummaryDto> summaries_Stalactite = stalactiteBookRepository.findAllSummaries();
+        assertThat(summaries_Stalactite).isNotEmpty();
+        long timeSpentByStalactite = chrono.getElapsedTime();
+        assertThat(summaries_JPA)
+                .usingRecursiveComparison()
+                // JPA reads author names sorted, whereas Stalactite accumulates them in row order
+                .ignoringCollectionOrderInFields("authorNames")
+                .isEqualTo(summaries_Stalactite);
+        System.out.println("Time spent by JPA to load summaries: " + timeSpentByJPA + " ms");
+        System.out.println("Time spent by Stalactite to load summaries: " + timeSpentByStalactite + " ms");
+    }
+
+    @Test
+    void findAuthorNames_keepsNamesHoldingSeparators() {
+        Author author = new Author();
+        author.setName("Smith; Jr., John");
+        entityManager.persist(author);
+        Book book = bookRepository.findById(1L).orElseThrow();
+        book.getBookAuthors().add(author);
+        entityManager.flush();
+
+        assertThat(bookRepository.findAuthorNames(List.of(1L)))
+                .extracting(BookAuthorNameDto::getAuthorName)
+                .contains("Smith; Jr., John", "J.K. Rowling");
+    }
+
+    @Test
+    void searchIdsByTitle() {
+        List<Long> bookIds = bookRepository.searchIdsByTitle("harry", SearchQueries.containsPattern("harry"), false, 10);
+        assertThat(bookRepository.findAllById(bookIds))
+                .extracting(Book::getTitle)
+                .isNotEmpty()
+                .allMatch(title -> title.toLowerCase().contains("harry"));
+        // user typed wildcards are escaped, so they must not match everything
+        assertThat(bookRepository.searchIdsByTitle("%", SearchQueries.containsPattern("%"), false, 10)).isEmpty();
+    }
+
+    @Test
+    void findAllByIsRemoved_authorsAreLoadedWithBooks() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        List<Book> books = bookRepository.findAllByIsRemoved(false);
+        assertThat(books).isNotEmpty();
+        statistics.clear();
+        // this is what AuthorSerializer does while serializing books
+        books.forEach(book -> book.getBookAuthors().forEach(Author::getName));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void findAllByIsRemovedAndIdGreaterThanOrderByIdAsc_statementCountDoesNotDependOnPageSize() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        long statementCountForSmallPage = countStatementsToLoadPageWithAuthors(statistics, 2);
+        // books and authors of first page must not come from the persistence context
+        entityManager.clear();
+        long statementCountForLargePage = countStatementsToLoadPageWithAuthors(statistics, 10);
+        assertThat(statementCountForLargePage).isEqualTo(statementCountForSmallPage);
+    }
+
+    private long countStatementsToLoadPageWithAuthors(Statistics statistics, int pageSize) {
+        statistics.clear();
+        List<Book> books = bookRepository.findAllByIsRemovedAndIdGreaterThanOrderByIdAsc(false, 0L, PageRequest.ofSize(pageSize));
+        assertThat(books).hasSize(pageSize);
+        books.forEach(book -> book.getBookAuthors().forEach(Author::getName));
+        return statistics.getPrepareStatementCount();
+    }
+
     @TestConfiguration
     public static class TestDataSourceConfig {
 		
@@ -207,6 +329,48 @@ class BookRepositoryTest {
             return new PersistenceContext(dataSource);
         }
 
+        @BeanQuery
+        public ExecutableQuery<BookSummaryDto> findAllSummaries(PersistenceContext persistenceContext) {
+            Table<?> bookTable = new Table<>("Book");
+            Column<?, Long> bookIdColumn = bookTable.addColumn("id", Long.class);
+            Column<?, String> bookTitleColumn = bookTable.addColumn("title", String.class);
+            Column<?, BigDecimal> bookPriceColumn = bookTable.addColumn("price", BigDecimal.class);
+            Column<?, String> bookImageUrlColumn = bookTable.addColumn("image_url", String.class);
+            Column<?, Boolean> bookIsRemovedColumn = bookTable.addColumn("is_removed", Boolean.class);
+            Column<?, Long> bookCategoryIdColumn = bookTable.addColumn("category_id", Long.class);
+            Column<?, Long> bookInventoryIdColumn = bookTable.addColumn("inventory_id", Long.class);
+            Table<?> categoryTable = new Table<>("Category");
+            Column<?, Long> categoryIdColumn = categoryTable.addColumn("id", Long.class);
+            Column<?, String> categoryNameColumn = categoryTable.addColumn("name", String.class);
+            Table<?> inventoryTable = new Table<>("Book_Inventory");
+            Column<?, Long> inventoryIdColumn = inventoryTable.addColumn("id", Long.class);
+            Column<?, Integer> inventoryQuantityColumn = inventoryTable.addColumn("quantity", Integer.class);
+            Table<?> bookAuthorTable = new Table<>("Book_Author");
+            Column<?, Long> bookAuthorBookIdColumn = bookAuthorTable.addColumn("book_id", Long.class);
+            Column<?, Long> bookAuthorAuthorIdColumn = bookAuthorTable.addColumn("author_id", Long.class);
+            Table<?> authorTable = new Table<>("Author");
+            Column<?, Long> authorIdColumn = authorTable.addColumn("id", Long.class);
+            Column<?, String> authorNameColumn = authorTable.addColumn("name", String.class);
+
+            // one row per book and author : rows of a same book are merged by the key mapping, authors being accumulated
+            return persistenceContext.newQuery(QueryEase.
+                    select(bookIdColumn, bookTitleColumn, bookPriceColumn, bookImageUrlColumn, categoryNameColumn, inventoryQuantityColumn, authorNameColumn)
+                        .from(bookTable)
+                        .innerJoin(bookInventoryIdColumn, inventoryIdColumn)
+                        .leftOuterJoin(bookCategoryIdColumn, categoryIdColumn)
+                        .leftOuterJoin(bookIdColumn, bookAuthorBookIdColumn)
+                        .leftOuterJoin(bookAuthorAuthorIdColumn, authorIdColumn)
+                        .where(bookIsRemovedColumn, eq(false))
+                        .orderBy(bookIdColumn, OrderByChain.Order.ASC), BookSummaryDto.class)
+                    .mapKey(BookSummaryDto::new, bookIdColumn)
+                    .map(BookSummaryDto::setTitle, bookTitleColumn)
+                    .map(BookSummaryDto::setPrice, bookPriceColumn)
+                    .map(BookSummaryDto::setImageUrl, bookImageUrlColumn)
+                    .map(BookSummaryDto::setCategoryName, categoryNameColumn)
+                    .map(BookSummaryDto::setQuantity, inventoryQuantityColumn)
+                    .map(BookSummaryDto::addAuthorName, authorNameColumn);
+        }
+
         @Bean
         public EntityPersister<Book, Long> bookEntityPersister(PersistenceContext persistenceContext) {
             FluentEntityMappingBuilder<Book, Long> bookEntityMappingBuilder = entityBuilder(Book.class, Long.class)
@@ -229,6 +393,7 @@ class BookRepositoryTest {
                             .map(BookInventory::getQuantity).mandatory()
                             .onTable("book_inventory")).columnName("inventory_id")
                        .mandatory()
+                    // authors are joined in the same select as books (no fetchSeparately()), so there's no N+1 on them
                     .mapManyToMany(Book::getBookAuthors, entityBuilder(Author.class, Long.class)
                             .mapKey(Author::getId, databaseAutoIncrement())
                             .map(Author::getName).mandatory())
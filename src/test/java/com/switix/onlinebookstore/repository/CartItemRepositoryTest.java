@@ -0,0 +1,98 @@
+package com.switix.onlinebookstore.repository;
+
+import com.switix.onlinebookstore.NoOpPasswordEncoder;
+import com.switix.onlinebookstore.TestData;
+import com.switix.onlinebookstore.model.CartItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
+
+@EntityScan(basePackageClasses = CartItem.class)
+@EnableJpaRepositories(basePackageClasses = CartItemRepository.class,
+        // we only want to scan for JpaRepository to avoid picking Stalactite repositories here, else we get bean conflicts
+        includeFilters = @ComponentScan.Filter(type = ASSIGNABLE_TYPE, classes = JpaRepository.class)
+)
+@ContextConfiguration(classes = {
+        // required for TestData
+        NoOpPasswordEncoder.class,
+        CartItemRepository.class})
+@DataJpaTest
+
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+
+@Import({TestData.class, CartItemRepositoryTest.TestDataSourceConfig.class})
+class CartItemRepositoryTest {
+
+    // empty cart of TestData
+    private static final long SESSION_ID = 1;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void upsertQuantity_sumsQuantitiesOfTheSameBookInASingleItem() {
+        Long cartItemId = cartItemRepository.upsertQuantity(SESSION_ID, 5L, 2);
+        // the id was just fetched from the sequence, in this session
+        assertThat(cartItemId).isEqualTo(currentSequenceValue());
+
+        assertThat(cartItemRepository.upsertQuantity(SESSION_ID, 5L, 3)).isEqualTo(cartItemId);
+        // the second statement fetched an id too, but kept the one of the existing item
+        assertThat(currentSequenceValue()).isGreaterThan(cartItemId);
+
+        assertThat(jdbcTemplate.queryForList("SELECT id || ' ' || quantity FROM cart_item WHERE shopping_session_id = ? AND book_id = ?",
+                String.class, SESSION_ID, 5L)).containsExactly(cartItemId + " 5");
+        // another book gets its own item
+        assertThat(cartItemRepository.upsertQuantity(SESSION_ID, 6L, 1)).isNotEqualTo(cartItemId);
+        assertThat(cartItemRepository.findAllByShoppingSession_IdOrderById(SESSION_ID))
+                .extracting(cartItem -> cartItem.getBook().getId(), CartItem::getQuantity)
+                .containsExactly(tuple(5L, 5), tuple(6L, 1));
+    }
+
+    private long currentSequenceValue() {
+        return jdbcTemplate.queryForObject("SELECT currval('cart_item_seq')", Long.class);
+    }
+
+    @TestConfiguration
+    public static class TestDataSourceConfig {
+
+        @Bean
+        public PostgreSQLContainer<?> database() {
+            PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:14.11");
+            postgreSQLContainer.start();
+            return postgreSQLContainer;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(JdbcDatabaseContainer<?> database) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource();
+            dataSource.setUrl(database.getJdbcUrl());
+            dataSource.setUsername(database.getUsername());
+            dataSource.setPassword(database.getPassword());
+            return dataSource;
+        }
+    }
+}
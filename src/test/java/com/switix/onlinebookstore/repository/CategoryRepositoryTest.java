@@ -24,8 +24,6 @@ import com.switix.onlinebookstore.model.Role;
 import com.switix.onlinebookstore.model.ShipmentMethod;
 import com.switix.onlinebookstore.model.ShippingAddress;
 import com.switix.onlinebookstore.model.ShoppingSession;
-import org.codefilarete.reflection.AccessorDefinition;
-import org.codefilarete.stalactite.dsl.naming.AssociationTableNamingStrategy;
 import org.codefilarete.stalactite.engine.EntityPersister;
 import org.codefilarete.stalactite.engine.ExecutableQuery;
 import org.codefilarete.stalactite.engine.PersistenceContext;
@@ -33,13 +31,13 @@ import org.codefilarete.stalactite.query.model.OrderByChain;
 import org.codefilarete.stalactite.query.model.QueryEase;
 import org.codefilarete.stalactite.spring.repository.config.EnableStalactiteRepositories;
 import org.codefilarete.stalactite.spring.repository.query.BeanQuery;
-import org.codefilarete.stalactite.sql.ddl.Size;
 import org.codefilarete.stalactite.sql.ddl.structure.Column;
-import org.codefilarete.stalactite.sql.ddl.structure.PrimaryKey;
 import org.codefilarete.stalactite.sql.ddl.structure.Table;
-import org.codefilarete.tool.Strings;
 import org.codefilarete.tool.trace.Chrono;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
@@ -53,13 +51,15 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.JdbcDatabaseContainer;
 import org.testcontainers.containers.PostgreSQLContainer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.codefilarete.stalactite.dsl.MappingEase.entityBuilder;
 import static org.codefilarete.stalactite.dsl.idpolicy.IdentifierPolicy.databaseAutoIncrement;
-import static org.codefilarete.stalactite.query.model.Operators.count;
 import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
 
 @EntityScan(basePackageClasses = {
@@ -105,11 +105,27 @@ class CategoryRepositoryTest {
     @Autowired
     private StalactiteCategoryRepository stalactiteCategoryRepository;
 
+    @Autowired
+    private CategoryBookCountRepository categoryBookCountRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void rebuildBookCounts() {
+        // books of TestData are written without BookService, counters are rebuilt as at application startup
+        categoryBookCountRepository.rebuild();
+    }
+
     @RepeatedTest(10)
     void findAllByNameLikeIgnoreCase() {
         Chrono chrono = new Chrono();
         List<Category> allByCategoryIdAndIsRemoved_JPA = categoryRepository.findAllByNameLikeIgnoreCase("Fantasy");
         assertThat(allByCategoryIdAndIsRemoved_JPA).isNotEmpty();
+        assertThat(allByCategoryIdAndIsRemoved_JPA).noneMatch(category -> Hibernate.isInitialized(category.getCategoryBooks()));
         long timeSpentByJPA = chrono.getElapsedTime();
         chrono.start();
         List<Category> allByCategoryIdAndIsRemoved_Stalactite = stalactiteCategoryRepository.findAllByNameLikeIgnoreCase("Fantasy");
@@ -118,13 +134,13 @@ class CategoryRepositoryTest {
         chrono.start();
         assertThat(allByCategoryIdAndIsRemoved_JPA)
                 .usingRecursiveComparison()
-                .ignoringFields("categoryBooks.price", "categoryBooks.category", "categoryBooks.bookAuthors", "categoryBooks.inventory")
+                .ignoringFields("categoryBooks")
                 .isEqualTo(allByCategoryIdAndIsRemoved_Stalactite);
         long timeSpentComparingJPAvsStalactiteResults = chrono.getElapsedTime();
         chrono.start();
         assertThat(allByCategoryIdAndIsRemoved_JPA)
                 .usingRecursiveComparison()
-                        .ignoringFields("categoryBooks.price", "categoryBooks.category", "categoryBooks.bookAuthors", "categoryBooks.inventory")
+                        .ignoringFields("categoryBooks")
                 .isEqualTo(allByCategoryIdAndIsRemoved_Stalactite);
 
         long timeSpentInPureComparison = chrono.getElapsedTime();
@@ -133,6 +149,17 @@ class CategoryRepositoryTest {
         System.out.println("Time spent by Stalactite to fully load entities: " + timeSpentByStalactite + " ms");
     }
 
+    @Test
+    void clearCategory() {
+        Long categoryId = categoryRepository.findAllByNameLikeIgnoreCase("Fantasy").get(0).getId();
+        int bookCount = bookRepository.findAllByCategory_IdAndIsRemoved(categoryId, false).size()
+                + bookRepository.findAllByCategory_IdAndIsRemoved(categoryId, true).size();
+        assertThat(bookCount).isPositive();
+
+        assertThat(bookRepository.clearCategory(categoryId)).isEqualTo(bookCount);
+        assertThat(bookRepository.findAllByCategory_IdAndIsRemoved(categoryId, false)).isEmpty();
+    }
+
     @RepeatedTest(10)
     void countBooksByCategory() {
         Chrono chrono = new Chrono();
@@ -159,6 +186,31 @@ class CategoryRepositoryTest {
         System.out.println("Time spent by Stalactite to fully load entities: " + timeSpentByStalactite + " ms");
     }
 
+    @Test
+    void countBooksByCategory_listsCategoriesWithoutBooks() {
+        // committed apart from the test transaction so that both repositories see it, after counters were rebuilt : the
+        // category has neither books nor a counter row
+        TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Category emptyCategory = new Category();
+        emptyCategory.setName("Poezja");
+        Long emptyCategoryId = newTransaction.execute(status -> categoryRepository.save(emptyCategory).getId());
+        try {
+            List<CategoryBookCountDto> countsByCategory_JPA = categoryRepository.countBooksByCategory();
+            List<CategoryBookCountDto> countsByCategory_Stalactite = stalactiteCategoryRepository.countBooksByCategory();
+
+            assertThat(countsByCategory_JPA)
+                    .filteredOn(categoryBookCount -> categoryBookCount.getId().equals(emptyCategoryId))
+                    .extracting(CategoryBookCountDto::getCount)
+                    .containsExactly(0L);
+            assertThat(countsByCategory_Stalactite)
+                    .usingRecursiveComparison()
+                    .isEqualTo(countsByCategory_JPA);
+        } finally {
+            newTransaction.executeWithoutResult(status -> categoryRepository.deleteById(emptyCategoryId));
+        }
+    }
+
     @TestConfiguration
     public static class TestDataSourceConfig {
 		
@@ -189,16 +241,17 @@ class CategoryRepositoryTest {
             Table<?> categoryTable = new Table<>("Category");
             Column<?, Long> categoryIdColumn = categoryTable.addColumn("id", Long.class);
             Column<?, String> categoryNameColumn = categoryTable.addColumn("name", String.class);
-            Table<?> bookTable = new Table<>("Book");
-            Column<?, Long> bookIdColumn = bookTable.addColumn("id", Long.class);
-            Column<?, Long> categoryBookIdColumn = bookTable.addColumn("category_Id", Long.class);
+            Table<?> categoryBookCountTable = new Table<>("Category_Book_Count");
+            Column<?, Long> countCategoryIdColumn = categoryBookCountTable.addColumn("category_id", Long.class);
+            Column<?, Long> countBookCountColumn = categoryBookCountTable.addColumn("book_count", Long.class);
 
+            // counts are maintained by BookCounts, a category without books may have no counter row yet : it's counted 0
             return persistenceContext.newQuery(QueryEase.
-                    select(categoryIdColumn, categoryNameColumn, count(bookIdColumn))
-                        .from(categoryTable).innerJoin(categoryIdColumn, categoryBookIdColumn)
-                        .groupBy(categoryIdColumn, categoryNameColumn)
+                    select(categoryIdColumn, categoryNameColumn, countBookCountColumn)
+                        .from(categoryTable).leftOuterJoin(categoryIdColumn, countCategoryIdColumn)
                         .orderBy(categoryNameColumn, OrderByChain.Order.ASC), CategoryBookCountDto.class)
-                    .mapKey(CategoryBookCountDto::new, categoryIdColumn, categoryNameColumn, count(bookIdColumn));
+                    .mapKey((Long id, String name, Long bookCount) -> new CategoryBookCountDto(id, name, bookCount == null ? 0L : bookCount),
+                            categoryIdColumn, categoryNameColumn, countBookCountColumn);
         }
 
         @Bean
@@ -206,46 +259,7 @@ class CategoryRepositoryTest {
             return entityBuilder(Category.class, Long.class)
                     .mapKey(Category::getId, databaseAutoIncrement())
                     .map(Category::getName).mandatory()
-                    .mapOneToMany(Category::getCategoryBooks, entityBuilder(Book.class, Long.class)
-                            .mapKey(Book::getId, databaseAutoIncrement())
-                            .map(Book::getIsRemoved).mandatory().columnName("is_removed")
-                            .map(Book::getTitle).mandatory()
-                            .map(Book::getDescription).mandatory().columnSize(Size.length(2048))
-                            .map(Book::getPrice).mandatory().columnSize(Size.fixedPoint(10, 2))
-                            .map(Book::getImageUrl).columnName("image_url").mandatory()
-                            .map(Book::getPublicationYear).columnName("publication_year").mandatory()
-                            .map(Book::getIsbn).mandatory()
-                            .mapManyToMany(Book::getBookAuthors, entityBuilder(Author.class, Long.class)
-                                    .mapKey(Author::getId, databaseAutoIncrement())
-                                    .map(Author::getName).mandatory())
-                            .withAssociationTableNaming(new AssociationTableNamingStrategy.HibernateAssociationTableNamingStrategy() {
-
-                                @Override
-                                public <LEFTTABLE extends Table<LEFTTABLE>, RIGHTTABLE extends Table<RIGHTTABLE>, LEFTID, RIGHTID> ReferencedColumnNames<LEFTTABLE, RIGHTTABLE> giveColumnNames(
-                                        AccessorDefinition accessor,
-                                        PrimaryKey<LEFTTABLE, LEFTID> leftPrimaryKey,
-                                        PrimaryKey<RIGHTTABLE, RIGHTID> rightPrimaryKey) {
-                                    if (accessor.getName().equals("bookAuthors")) {
-                                        // customizing column names for bookAuthors association table
-                                        ReferencedColumnNames<LEFTTABLE, RIGHTTABLE> result = new ReferencedColumnNames<>();
-
-                                        // columns pointing to left table get same names as original ones
-                                        leftPrimaryKey.getColumns().forEach(column -> {
-                                            String leftColumnName = Strings.uncapitalize(leftPrimaryKey.getTable().getName()) + "_" + column.getName();
-                                            result.setLeftColumnName(column, leftColumnName);
-                                        });
-                                        // columns pointing to right table get a name that contains accessor definition name
-                                        rightPrimaryKey.getColumns().forEach(column -> {
-                                            result.setRightColumnName(column, "author_id");
-                                        });
-                                        return result;
-                                    }
-                                    return super.giveColumnNames(accessor, leftPrimaryKey, rightPrimaryKey);
-                                }
-                            })
-                    )
-                    .mappedBy(Book::getCategory)
-                    .mappedBy("category_id")
+                    // books of the category aren't mapped, as in the JPA model where they're lazy
                     .build(persistenceContext);
         }
     }
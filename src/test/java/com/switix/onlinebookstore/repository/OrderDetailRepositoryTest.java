@@ -0,0 +1,260 @@
+package com.switix.onlinebookstore.repository;
+
+import com.switix.onlinebookstore.NoOpPasswordEncoder;
+import com.switix.onlinebookstore.TestData;
+import com.switix.onlinebookstore.dto.OrderDetailDto;
+import com.switix.onlinebookstore.model.*;
+import jakarta.persistence.EntityManager;
+import org.codefilarete.stalactite.engine.EntityPersister;
+import org.codefilarete.stalactite.engine.ExecutableQuery;
+import org.codefilarete.stalactite.engine.PersistenceContext;
+import org.codefilarete.stalactite.query.model.OrderByChain;
+import org.codefilarete.stalactite.query.model.QueryEase;
+import org.codefilarete.stalactite.spring.repository.config.EnableStalactiteRepositories;
+import org.codefilarete.stalactite.spring.repository.query.BeanQuery;
+import org.codefilarete.stalactite.sql.ddl.structure.Column;
+import org.codefilarete.stalactite.sql.ddl.structure.Table;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.codefilarete.stalactite.dsl.MappingEase.entityBuilder;
+import static org.codefilarete.stalactite.dsl.idpolicy.IdentifierPolicy.databaseAutoIncrement;
+import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
+
+@EntityScan(basePackageClasses = {
+        Address.class,
+        AppUser.class,
+        Author.class,
+        BillingAddress.class,
+        Book.class,
+        BookInventory.class,
+        CartItem.class,
+        Category.class,
+        City.class,
+        Country.class,
+        OrderDetail.class,
+        OrderItem.class,
+        OrderStatus.class,
+        PayMethod.class,
+        Role.class,
+        ShipmentMethod.class,
+        ShippingAddress.class,
+        ShoppingSession.class
+})
+@EnableJpaRepositories(basePackageClasses = OrderDetailRepository.class,
+        // we only want to scan for JpaRepository to avoid picking Stalactite repositories here, else we get bean conflicts
+        includeFilters = @ComponentScan.Filter(type = ASSIGNABLE_TYPE, classes = JpaRepository.class)
+)
+@ContextConfiguration(classes = {
+        // required for TestData
+        NoOpPasswordEncoder.class,
+        OrderDetailRepository.class})
+@DataJpaTest
+
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+
+@Import({TestData.class, OrderDetailRepositoryTest.TestDataSourceConfig.class})
+
+@EnableStalactiteRepositories(includeFilters = @ComponentScan.Filter(type = ASSIGNABLE_TYPE, classes = StalactiteOrderDetailRepository.class))
+class OrderDetailRepositoryTest {
+
+    @Autowired
+    private OrderDetailRepository orderDetailRepository;
+
+    @Autowired
+    private StalactiteOrderDetailRepository stalactiteOrderDetailRepository;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private BillingAddressRepository billingAddressRepository;
+
+    @Autowired
+    private ShippingAddressRepository shippingAddressRepository;
+
+    @Autowired
+    private PayMethodRepository payMethodRepository;
+
+    @Autowired
+    private ShipmentMethodRepository shipmentMethodRepository;
+
+    @Autowired
+    private OrderStatusRepository orderStatusRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private AppUser appUser;
+
+    @BeforeEach
+    void createOrders() {
+        appUser = appUserRepository.findByEmail("user@example.com").orElseThrow();
+        List<OrderDetail> orderDetails = new ArrayList<>();
+        // one order per day of January 2024
+        for (int day = 1; day <= 31; day++) {
+            OrderDetail orderDetail = new OrderDetail();
+            orderDetail.setAppUser(appUser);
+            orderDetail.setTotal(BigDecimal.valueOf(day));
+            orderDetail.setBillingAddress(billingAddressRepository.findAll().get(0));
+            orderDetail.setShippingAddress(shippingAddressRepository.findAll().get(0));
+            orderDetail.setPayMethod(payMethodRepository.findAll().get(0));
+            orderDetail.setShipmentMethod(shipmentMethodRepository.findAll().get(0));
+            orderDetail.setOrderStatus(orderStatusRepository.findAll().get(0));
+            orderDetails.add(orderDetail);
+        }
+        orderDetailRepository.saveAllAndFlush(orderDetails);
+        // creation timestamp is set by Hibernate, it's overwritten to spread orders over the month
+        entityManager.createNativeQuery("UPDATE order_detail SET created_at = TIMESTAMP WITH TIME ZONE '2024-01-01 00:00:00+00' + (total - 1) * INTERVAL '1 day'")
+                .executeUpdate();
+        entityManager.clear();
+    }
+
+    @Test
+    void findHistoryBefore_pagesThroughDateRangeNewestFirst() {
+        Instant from = Instant.parse("2024-01-10T00:00:00Z");
+        Instant to = Instant.parse("2024-01-20T00:00:00Z");
+
+        List<OrderDetailDto> firstPage = orderDetailRepository.findHistoryBefore(appUser.getId(), Long.MAX_VALUE, from, to, PageRequest.ofSize(6));
+        List<OrderDetailDto> secondPage = orderDetailRepository.findHistoryBefore(appUser.getId(), firstPage.get(firstPage.size() - 1).getId(), from, to, PageRequest.ofSize(6));
+
+        assertThat(firstPage).extracting(orderDetail -> orderDetail.getTotal().intValue()).containsExactly(19, 18, 17, 16, 15, 14);
+        assertThat(secondPage).extracting(orderDetail -> orderDetail.getTotal().intValue()).containsExactly(13, 12, 11, 10);
+        assertThat(firstPage.get(0).getOrderStatus().getStatus()).isEqualTo(orderStatusRepository.findAll().get(0).getStatus());
+        assertThat(orderDetailRepository.findHistoryBefore(appUser.getId() + 1, Long.MAX_VALUE, from, to, PageRequest.ofSize(6))).isEmpty();
+    }
+
+    @Test
+    void findHistoryAfter_pagesThroughStatusUserAndDateRangeOldestFirst() {
+        // status of orders of the second half of the month is changed, the first ones keep the default one
+        OrderStatus otherStatus = orderStatusRepository.findAll().get(1);
+        entityManager.createNativeQuery("UPDATE order_detail SET order_status_id = :orderStatusId WHERE total > 15")
+                .setParameter("orderStatusId", otherStatus.getId())
+                .executeUpdate();
+        Instant from = Instant.parse("2024-01-10T00:00:00Z");
+        Instant to = Instant.parse("2024-01-20T00:00:00Z");
+
+        List<OrderDetailDto> firstChunk = orderDetailRepository.findHistoryAfter(otherStatus.getId(), appUser.getId(), 0L, from, to, PageRequest.ofSize(3));
+        List<OrderDetailDto> secondChunk = orderDetailRepository.findHistoryAfter(otherStatus.getId(), appUser.getId(), firstChunk.get(2).getId(), from, to, PageRequest.ofSize(3));
+
+        assertThat(firstChunk).extracting(orderDetail -> orderDetail.getTotal().intValue()).containsExactly(16, 17, 18);
+        assertThat(secondChunk).extracting(orderDetail -> orderDetail.getTotal().intValue()).containsExactly(19);
+        assertThat(orderDetailRepository.findHistoryAfter(null, null, 0L, from, to, PageRequest.ofSize(100))).hasSize(10);
+    }
+
+    @Test
+    void findHistoryBefore_keepsOrdersWithoutCreationDateWhenRangeIsOpen() {
+        entityManager.createNativeQuery("UPDATE order_detail SET created_at = NULL WHERE total = 31").executeUpdate();
+
+        List<OrderDetailDto> unbounded = orderDetailRepository.findHistoryBefore(appUser.getId(), Long.MAX_VALUE, null, null, PageRequest.ofSize(100));
+        assertThat(unbounded).hasSize(31);
+        assertThat(unbounded.get(0).getCreatedAt()).isNull();
+        assertThat(orderDetailRepository.findAllHistoryBefore(Long.MAX_VALUE, null, null, PageRequest.ofSize(100))).hasSize(31);
+        assertThat(orderDetailRepository.findHistoryAfter(null, null, 0L, null, null, PageRequest.ofSize(100))).hasSize(31);
+
+        // a bound excludes orders of unknown date
+        List<OrderDetailDto> sinceMidMonth = orderDetailRepository.findHistoryBefore(appUser.getId(), Long.MAX_VALUE,
+                Instant.parse("2024-01-16T00:00:00Z"), null, PageRequest.ofSize(100));
+        assertThat(sinceMidMonth).extracting(orderDetail -> orderDetail.getTotal().intValue())
+                .containsExactly(30, 29, 28, 27, 26, 25, 24, 23, 22, 21, 20, 19, 18, 17, 16);
+    }
+
+    @Test
+    void findHistory() {
+        List<OrderDetailDto> history_JPA = orderDetailRepository.findAllHistoryBefore(Long.MAX_VALUE, null, null, PageRequest.ofSize(100));
+        List<OrderDetailDto> history_Stalactite = stalactiteOrderDetailRepository.findHistory();
+
+        assertThat(history_JPA).hasSize(31);
+        assertThat(history_Stalactite)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(history_JPA);
+    }
+
+    @TestConfiguration
+    public static class TestDataSourceConfig {
+
+        @Bean
+        public PostgreSQLContainer<?> database() {
+            PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:14.11");
+            postgreSQLContainer.start();
+            return postgreSQLContainer;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(JdbcDatabaseContainer<?> database) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource();
+            dataSource.setUrl(database.getJdbcUrl());
+            dataSource.setUsername(database.getUsername());
+            dataSource.setPassword(database.getPassword());
+            return dataSource;
+        }
+
+        @Bean
+        public PersistenceContext persistenceContext(DataSource dataSource) {
+            return new PersistenceContext(dataSource);
+        }
+
+        @BeanQuery
+        public ExecutableQuery<OrderDetailDto> findHistory(PersistenceContext persistenceContext) {
+            Table<?> orderDetailTable = new Table<>("Order_Detail");
+            Column<?, Long> orderDetailIdColumn = orderDetailTable.addColumn("id", Long.class);
+            Column<?, BigDecimal> orderDetailTotalColumn = orderDetailTable.addColumn("total", BigDecimal.class);
+            Column<?, Instant> orderDetailCreatedAtColumn = orderDetailTable.addColumn("created_at", Instant.class);
+            Column<?, Long> orderDetailStatusIdColumn = orderDetailTable.addColumn("order_status_id", Long.class);
+            Table<?> orderStatusTable = new Table<>("Order_Status");
+            Column<?, Long> orderStatusIdColumn = orderStatusTable.addColumn("id", Long.class);
+            Column<?, String> orderStatusStatusColumn = orderStatusTable.addColumn("status", String.class);
+
+            // same columns as the JPA projection of OrderDetailRepository : other many-to-ones of the order aren't read
+            return persistenceContext.newQuery(QueryEase.
+                    select(orderDetailIdColumn, orderDetailTotalColumn, orderDetailCreatedAtColumn, orderStatusIdColumn, orderStatusStatusColumn)
+                        .from(orderDetailTable)
+                        .leftOuterJoin(orderDetailStatusIdColumn, orderStatusIdColumn)
+                        .orderBy(orderDetailIdColumn, OrderByChain.Order.DESC), OrderDetailDto.class)
+                    .mapKey(OrderDetailDto::new, orderDetailIdColumn)
+                    .map(OrderDetailDto::setTotal, orderDetailTotalColumn)
+                    .map(OrderDetailDto::setCreatedAt, orderDetailCreatedAtColumn)
+                    .map(OrderDetailDto::setOrderStatusId, orderStatusIdColumn)
+                    .map(OrderDetailDto::setOrderStatusName, orderStatusStatusColumn);
+        }
+
+        @Bean
+        public EntityPersister<OrderDetail, Long> orderDetailEntityPersister(PersistenceContext persistenceContext) {
+            // only what the history reads is mapped, orders are written by JPA in these tests
+            return entityBuilder(OrderDetail.class, Long.class)
+                    .mapKey(OrderDetail::getId, databaseAutoIncrement())
+                    .map(OrderDetail::getTotal).mandatory()
+                    .map(OrderDetail::getCreatedAt).columnName("created_at")
+                    .mapManyToOne(OrderDetail::getOrderStatus, entityBuilder(OrderStatus.class, Long.class)
+                            .mapKey(OrderStatus::getId, databaseAutoIncrement())
+                            .map(OrderStatus::getStatus).mandatory()
+                            .onTable("order_status")).columnName("order_status_id")
+                    .onTable("order_detail")
+                    .build(persistenceContext);
+        }
+    }
+}
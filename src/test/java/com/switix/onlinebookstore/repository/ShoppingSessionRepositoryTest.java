@@ -0,0 +1,125 @@
+package com.switix.onlinebookstore.repository;
+
+import com.switix.onlinebookstore.NoOpPasswordEncoder;
+import com.switix.onlinebookstore.TestData;
+import com.switix.onlinebookstore.model.ShoppingSession;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
+
+@EntityScan(basePackageClasses = ShoppingSession.class)
+@EnableJpaRepositories(basePackageClasses = ShoppingSessionRepository.class,
+        // we only want to scan for JpaRepository to avoid picking Stalactite repositories here, else we get bean conflicts
+        includeFilters = @ComponentScan.Filter(type = ASSIGNABLE_TYPE, classes = JpaRepository.class)
+)
+@ContextConfiguration(classes = {
+        // required for TestData
+        NoOpPasswordEncoder.class,
+        ShoppingSessionRepository.class})
+@DataJpaTest
+
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+
+@Import({TestData.class, ShoppingSessionRepositoryTest.TestDataSourceConfig.class})
+class ShoppingSessionRepositoryTest {
+
+    // sessions of TestData : the first cart is empty, the second one holds one copy of the first book (78.90) and two
+    // of the third one (154.34)
+    private static final long EMPTY_SESSION_ID = 1;
+    private static final long SESSION_ID = 2;
+    private static final BigDecimal SESSION_TOTAL = new BigDecimal("387.58");
+    private static final long UNKNOWN_SESSION_ID = 999;
+
+    @Autowired
+    private ShoppingSessionRepository shoppingSessionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void addToTotal() {
+        assertThat(shoppingSessionRepository.addToTotal(SESSION_ID, new BigDecimal("-78.90"))).isEqualTo(1);
+        assertThat(total(SESSION_ID)).isEqualByComparingTo("308.68");
+
+        assertThat(shoppingSessionRepository.addToTotal(UNKNOWN_SESSION_ID, BigDecimal.TEN)).isZero();
+    }
+
+    @Test
+    void recomputeTotal() {
+        shoppingSessionRepository.addToTotal(SESSION_ID, BigDecimal.TEN);
+        shoppingSessionRepository.addToTotal(EMPTY_SESSION_ID, BigDecimal.TEN);
+
+        assertThat(shoppingSessionRepository.recomputeTotal(SESSION_ID)).isEqualTo(1);
+        assertThat(shoppingSessionRepository.recomputeTotal(EMPTY_SESSION_ID)).isEqualTo(1);
+        assertThat(shoppingSessionRepository.recomputeTotal(UNKNOWN_SESSION_ID)).isZero();
+
+        assertThat(total(SESSION_ID)).isEqualByComparingTo(SESSION_TOTAL);
+        assertThat(total(EMPTY_SESSION_ID)).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void reconcileTotals_onlyWritesDriftedTotals() {
+        assertThat(shoppingSessionRepository.reconcileTotals()).isZero();
+
+        // a price change of a book in the cart isn't applied to its total
+        jdbcTemplate.update("UPDATE book SET price = price + 1 WHERE id = 3");
+        shoppingSessionRepository.addToTotal(EMPTY_SESSION_ID, BigDecimal.ONE);
+
+        assertThat(shoppingSessionRepository.reconcileTotals()).isEqualTo(2);
+        assertThat(total(SESSION_ID)).isEqualByComparingTo("389.58");
+        assertThat(total(EMPTY_SESSION_ID)).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(shoppingSessionRepository.reconcileTotals()).isZero();
+    }
+
+    @Test
+    void lockById() {
+        assertThat(shoppingSessionRepository.lockById(SESSION_ID)).contains(SESSION_ID);
+        assertThat(shoppingSessionRepository.lockById(UNKNOWN_SESSION_ID)).isEmpty();
+    }
+
+    // read with JDBC : bulk updates bypass the persistence context
+    private BigDecimal total(long shoppingSessionId) {
+        return jdbcTemplate.queryForObject("SELECT total FROM shopping_session WHERE id = ?", BigDecimal.class, shoppingSessionId);
+    }
+
+    @TestConfiguration
+    public static class TestDataSourceConfig {
+
+        @Bean
+        public PostgreSQLContainer<?> database() {
+            PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:14.11");
+            postgreSQLContainer.start();
+            return postgreSQLContainer;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(JdbcDatabaseContainer<?> database) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource();
+            dataSource.setUrl(database.getJdbcUrl());
+            dataSource.setUsername(database.getUsername());
+            dataSource.setPassword(database.getPassword());
+            return dataSource;
+        }
+    }
+}
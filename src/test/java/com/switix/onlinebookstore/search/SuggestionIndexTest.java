@@ -0,0 +1,55 @@
+package com.switix.onlinebookstore.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionIndexTest {
+
+    @Test
+    void suggest_matchesWordPrefixesIgnoringCaseAndPolishDiacritics() {
+        SuggestionIndex<String> testInstance = new SuggestionIndex<>();
+        testInstance.put(1L, "Łódź i okolice", "Łódź i okolice");
+        testInstance.put(2L, "Pan Tadeusz", "Pan Tadeusz");
+        testInstance.put(3L, "Żółć", "Żółć");
+
+        assertThat(testInstance.suggest("lodz", 10)).containsExactly("Łódź i okolice");
+        assertThat(testInstance.suggest("OKOL", 10)).containsExactly("Łódź i okolice");
+        assertThat(testInstance.suggest("zolc", 10)).containsExactly("Żółć");
+        assertThat(testInstance.suggest("tad pan", 10)).containsExactly("Pan Tadeusz");
+        assertThat(testInstance.suggest("tad lodz", 10)).isEmpty();
+        assertThat(testInstance.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void suggest_shorterWordsFirstUpToLimit() {
+        SuggestionIndex<String> testInstance = new SuggestionIndex<>();
+        testInstance.put(1L, "Harry Potter i Komnata Tajemnic", "Komnata");
+        testInstance.put(2L, "Harry Potter i Kamień Filozoficzny", "Kamień");
+        testInstance.put(3L, "Hobbit", "Hobbit");
+        testInstance.put(4L, "Ha", "Ha");
+
+        assertThat(testInstance.suggest("h", 10)).containsExactly("Ha", "Komnata", "Kamień", "Hobbit");
+        assertThat(testInstance.suggest("h", 2)).containsExactly("Ha", "Komnata");
+    }
+
+    @Test
+    void putAndRemove_keepIndexInSync() {
+        SuggestionIndex<String> testInstance = new SuggestionIndex<>();
+        testInstance.put(1L, "Sapkowski", "Sapkowski");
+        testInstance.put(2L, "Lem", "Lem");
+
+        testInstance.put(1L, "Andrzej Sapkowski", "Andrzej Sapkowski");
+        assertThat(testInstance.suggest("sap", 10)).containsExactly("Andrzej Sapkowski");
+        assertThat(testInstance.get(1L)).isEqualTo("Andrzej Sapkowski");
+
+        testInstance.remove(2L);
+        assertThat(testInstance.suggest("lem", 10)).isEmpty();
+        assertThat(testInstance.get(2L)).isNull();
+
+        // released slot is reused
+        testInstance.put(3L, "Stanisław Lem", "Stanisław Lem");
+        assertThat(testInstance.suggest("stanislaw", 10)).containsExactly("Stanisław Lem");
+        assertThat(testInstance.suggest("le", 10)).containsExactly("Stanisław Lem");
+    }
+}
@@ -0,0 +1,81 @@
+package com.switix.onlinebookstore.search;
+
+import com.switix.onlinebookstore.dto.SearchDto;
+import com.switix.onlinebookstore.model.Author;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.model.Category;
+import com.switix.onlinebookstore.service.AuthorService;
+import com.switix.onlinebookstore.service.BookService;
+import com.switix.onlinebookstore.service.CategoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SuggestionPipelineTest {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(200);
+
+    // not loaded, suggestions are looked up by services
+    private final CatalogSuggestions catalogSuggestions = mock(CatalogSuggestions.class);
+    private final AuthorService authorService = mock(AuthorService.class);
+    private final CategoryService categoryService = mock(CategoryService.class);
+    private final BookService bookService = mock(BookService.class);
+
+    @Test
+    void suggest_leavesBranchesStillRunningAtTheDeadlineEmpty() {
+        Author author = new Author();
+        author.setName("Stephen King");
+        Category category = new Category();
+        category.setName("Horror");
+        when(authorService.searchAuthorsByName(anyString(), anyInt())).thenReturn(List.of(author));
+        when(categoryService.searchCategoriesByName(anyString(), anyInt())).thenReturn(List.of(category));
+        CountDownLatch slowLookup = new CountDownLatch(1);
+        when(bookService.searchBooksByTitle(anyString(), anyInt(), anyBoolean())).thenAnswer(invocation -> {
+            slowLookup.await();
+            return List.of(new Book());
+        });
+        ThreadPoolTaskExecutor executor = new SuggestionExecutorConfig().suggestionExecutor(3, 10);
+        executor.initialize();
+        try {
+            SuggestionPipeline testInstance = new SuggestionPipeline(catalogSuggestions, authorService, categoryService, bookService, executor, TIMEOUT);
+
+            long start = System.nanoTime();
+            SearchDto result = testInstance.suggest("king");
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            assertThat(result.getSuggestedAuthors()).containsExactly(author);
+            assertThat(result.getSuggestedCategories()).containsExactly(category);
+            assertThat(result.getSuggestedBooks()).isEmpty();
+            assertThat(elapsed).isGreaterThanOrEqualTo(TIMEOUT).isLessThan(TIMEOUT.multipliedBy(5));
+        } finally {
+            slowLookup.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void suggest_leavesBranchesRejectedByTheExecutorEmpty() {
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        doThrow(new TaskRejectedException("saturated")).when(executor).execute(any(Runnable.class));
+        SuggestionPipeline testInstance = new SuggestionPipeline(catalogSuggestions, authorService, categoryService, bookService, executor, TIMEOUT);
+
+        SearchDto result = testInstance.suggest("king");
+
+        assertThat(result.getSuggestedAuthors()).isEmpty();
+        assertThat(result.getSuggestedCategories()).isEmpty();
+        assertThat(result.getSuggestedBooks()).isEmpty();
+    }
+}
@@ -0,0 +1,149 @@
+package com.switix.onlinebookstore.seed;
+
+import com.switix.onlinebookstore.NoOpPasswordEncoder;
+import com.switix.onlinebookstore.TestData;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
+
+@EntityScan(basePackageClasses = Book.class)
+@EnableJpaRepositories(basePackageClasses = BookRepository.class,
+        // we only want to scan for JpaRepository to avoid picking Stalactite repositories here, else we get bean conflicts
+        includeFilters = @ComponentScan.Filter(type = ASSIGNABLE_TYPE, classes = JpaRepository.class)
+)
+@ContextConfiguration(classes = {
+        SyntheticDataSeeder.class,
+        // required for TestData
+        NoOpPasswordEncoder.class})
+@DataJpaTest(properties = {"seed.synthetic.books=5", "seed.synthetic.users=3", "seed.synthetic.orders=7"})
+
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+
+@Import({TestData.class, SyntheticDataSeederTest.TestDataSourceConfig.class})
+
+// chunks are committed by the seeder, not rolled back with the transaction of the test
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SyntheticDataSeederTest {
+
+    @Autowired
+    private SyntheticDataSeeder syntheticDataSeeder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void seed_generatesOnlyTheMissingRows() throws Exception {
+        assertThat(syntheticDataSeeder.seed()).isTrue();
+
+        assertThat(syntheticIsbns()).containsExactly("SYN-000000001", "SYN-000000002", "SYN-000000003", "SYN-000000004", "SYN-000000005");
+        assertThat(count("SELECT count(*) FROM book_author ba JOIN book b ON b.id = ba.book_id WHERE b.isbn LIKE 'SYN-%'")).isEqualTo(5);
+        assertThat(count("SELECT count(*) FROM app_user WHERE email LIKE 'synthetic-user-%'")).isEqualTo(3);
+        // each synthetic user gets what a registration creates
+        assertThat(count("SELECT count(*) FROM shopping_session s JOIN app_user u ON u.id = s.app_user_id WHERE u.email LIKE 'synthetic-user-%'")).isEqualTo(3);
+        assertThat(count("SELECT count(*) FROM billing_address b JOIN app_user u ON u.id = b.app_user_id WHERE u.email LIKE 'synthetic-user-%'")).isEqualTo(3);
+        assertThat(count("SELECT count(*) FROM shipping_address s JOIN app_user u ON u.id = s.app_user_id WHERE u.email LIKE 'synthetic-user-%'")).isEqualTo(3);
+        assertThat(syntheticOrderCount()).isEqualTo(7);
+        // totals are the shipment price plus the price of the items
+        assertThat(count("SELECT count(*) FROM order_detail o JOIN shipment_method m ON m.id = o.shipment_method_id" +
+                " JOIN app_user u ON u.id = o.app_user_id WHERE u.email LIKE 'synthetic-user-%' AND o.total <> m.price + (SELECT sum(b.price * i.quantity) FROM order_item i JOIN book b ON b.id = i.book_id WHERE i.order_detail_id = o.id)")).isZero();
+
+        // a second start writes nothing
+        assertThat(syntheticDataSeeder.seed()).isFalse();
+        assertThat(syntheticIsbns()).hasSize(5);
+        assertThat(syntheticOrderCount()).isEqualTo(7);
+
+        // a larger volume is reached by generating the rows following the existing ones
+        assertThat(new SyntheticDataSeeder(jdbcTemplate, transactionTemplate, passwordEncoder, 7, 3, 10).seed()).isTrue();
+        assertThat(syntheticIsbns()).containsExactly("SYN-000000001", "SYN-000000002", "SYN-000000003", "SYN-000000004", "SYN-000000005",
+                "SYN-000000006", "SYN-000000007");
+        assertThat(count("SELECT count(*) FROM app_user WHERE email LIKE 'synthetic-user-%'")).isEqualTo(3);
+        assertThat(syntheticOrderCount()).isEqualTo(10);
+        // orders of the top-up are dated after the existing ones
+        List<Long> orderIdsByDate = jdbcTemplate.queryForList("SELECT o.id FROM order_detail o JOIN app_user u ON u.id = o.app_user_id" +
+                " WHERE u.email LIKE 'synthetic-user-%' ORDER BY o.created_at", Long.class);
+        assertThat(orderIdsByDate).isSorted();
+
+        // instances started together don't generate the same rows twice
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<Boolean> start = () -> new SyntheticDataSeeder(jdbcTemplate, transactionTemplate, passwordEncoder, 2500, 5, 12).seed();
+            for (Future<Boolean> seeding : executor.invokeAll(List.of(start, start))) {
+                seeding.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(syntheticIsbns()).hasSize(2500).doesNotHaveDuplicates();
+        assertThat(count("SELECT count(*) FROM app_user WHERE email LIKE 'synthetic-user-%'")).isEqualTo(5);
+        assertThat(syntheticOrderCount()).isEqualTo(12);
+    }
+
+    private List<String> syntheticIsbns() {
+        return jdbcTemplate.queryForList("SELECT isbn FROM book WHERE isbn LIKE 'SYN-%' ORDER BY isbn", String.class);
+    }
+
+    private long syntheticOrderCount() {
+        return count("SELECT count(*) FROM order_detail o JOIN app_user u ON u.id = o.app_user_id WHERE u.email LIKE 'synthetic-user-%'");
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    @TestConfiguration
+    public static class TestDataSourceConfig {
+
+        @Bean
+        public PostgreSQLContainer<?> database() {
+            PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:14.11");
+            postgreSQLContainer.start();
+            return postgreSQLContainer;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(JdbcDatabaseContainer<?> database) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource();
+            dataSource.setUrl(database.getJdbcUrl());
+            dataSource.setUsername(database.getUsername());
+            dataSource.setPassword(database.getPassword());
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.switix.onlinebookstore.service;
+
+import com.switix.onlinebookstore.NoOpPasswordEncoder;
+import com.switix.onlinebookstore.TestData;
+import com.switix.onlinebookstore.exception.AuthorNotFoundException;
+import com.switix.onlinebookstore.model.Author;
+import com.switix.onlinebookstore.model.AuthorBookCount;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.repository.AuthorBookCountRepository;
+import com.switix.onlinebookstore.repository.AuthorRepository;
+import com.switix.onlinebookstore.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
+
+@EntityScan(basePackageClasses = Author.class)
+@EnableJpaRepositories(basePackageClasses = AuthorRepository.class,
+        // we only want to scan for JpaRepository to avoid picking Stalactite repositories here, else we get bean conflicts
+        includeFilters = @ComponentScan.Filter(type = ASSIGNABLE_TYPE, classes = JpaRepository.class)
+)
+@ContextConfiguration(classes = {
+        AuthorServiceImpl.class,
+        // required for TestData
+        NoOpPasswordEncoder.class})
+@DataJpaTest
+
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+
+@Import({TestData.class, AuthorServiceImplTest.TestDataSourceConfig.class})
+class AuthorServiceImplTest {
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private AuthorBookCountRepository authorBookCountRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void rebuildBookCounts() {
+        // books of TestData are written without BookService, counters are rebuilt as at application startup
+        authorBookCountRepository.rebuild();
+    }
+
+    @Test
+    void deleteAuthor_unlinksItsBooksAndDropsItsCounter() {
+        Long stephenKingId = authorRepository.findByNameLikeIgnoreCase("Stephen King").get(0).getId();
+        Long peterStraubId = authorRepository.findByNameLikeIgnoreCase("Peter Straub").get(0).getId();
+        long bookCount = bookRepository.count();
+        // loaded before the deletion : it mustn't be written back with its former authors
+        Book coWrittenBook = bookRepository.findAllByBookAuthors_IdAndIsRemoved(peterStraubId, false).get(0);
+
+        assertThat(authorService.deleteAuthor(stephenKingId)).isEqualTo(6);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM book_author WHERE author_id = ?", Long.class, stephenKingId)).isZero();
+        assertThat(authorRepository.existsById(stephenKingId)).isFalse();
+        assertThat(authorBookCountRepository.existsById(stephenKingId)).isFalse();
+        // books stay in the catalog, co-authors keep theirs
+        assertThat(bookRepository.count()).isEqualTo(bookCount);
+        assertThat(bookRepository.findById(coWrittenBook.getId()).orElseThrow().getBookAuthors())
+                .extracting(Author::getName)
+                .containsExactly("Peter Straub");
+        assertThat(authorBookCountRepository.findById(peterStraubId)).get().extracting(AuthorBookCount::getBookCount).isEqualTo(1L);
+    }
+
+    @Test
+    void deleteAuthor_failsOnUnknownAuthor() {
+        assertThatThrownBy(() -> authorService.deleteAuthor(999L)).isInstanceOf(AuthorNotFoundException.class);
+    }
+
+    @TestConfiguration
+    public static class TestDataSourceConfig {
+
+        @Bean
+        public PostgreSQLContainer<?> database() {
+            PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:14.11");
+            postgreSQLContainer.start();
+            return postgreSQLContainer;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(JdbcDatabaseContainer<?> database) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource();
+            dataSource.setUrl(database.getJdbcUrl());
+            dataSource.setUsername(database.getUsername());
+            dataSource.setPassword(database.getPassword());
+            return dataSource;
+        }
+    }
+}
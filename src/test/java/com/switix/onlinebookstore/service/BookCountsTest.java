@@ -0,0 +1,226 @@
+package com.switix.onlinebookstore.service;
+
+import com.switix.onlinebookstore.NoOpPasswordEncoder;
+import com.switix.onlinebookstore.TestData;
+import com.switix.onlinebookstore.dto.SaveBookDto;
+import com.switix.onlinebookstore.dto.UpdateBookDto;
+import com.switix.onlinebookstore.model.Author;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.model.BookInventory;
+import com.switix.onlinebookstore.model.Category;
+import com.switix.onlinebookstore.repository.AuthorRepository;
+import com.switix.onlinebookstore.repository.BookRepository;
+import com.switix.onlinebookstore.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
+
+@EntityScan(basePackageClasses = Book.class)
+@EnableJpaRepositories(basePackageClasses = BookRepository.class,
+        // we only want to scan for JpaRepository to avoid picking Stalactite repositories here, else we get bean conflicts
+        includeFilters = @ComponentScan.Filter(type = ASSIGNABLE_TYPE, classes = JpaRepository.class)
+)
+@ContextConfiguration(classes = {
+        BookServiceImpl.class,
+        CategoryServiceImpl.class,
+        BookCounts.class,
+        // required for TestData
+        NoOpPasswordEncoder.class})
+@DataJpaTest
+
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+
+@Import({TestData.class, BookCountsTest.TestDataSourceConfig.class})
+class BookCountsTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private BookCounts bookCounts;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void countFixtureBooks() {
+        // books of TestData are written without BookService, counters are rebuilt as at application startup
+        bookCounts.rebuild();
+    }
+
+    @Test
+    void saveBook_countsTheBookForItsCategoryAndAuthors() {
+        long horrorCount = categoryBookCount("Horror");
+        long stephenKingCount = authorBookCount("Stephen King");
+        long joeHillCount = authorBookCount("Joe Hill");
+
+        SaveBookDto saveBookDto = new SaveBookDto();
+        saveBookDto.setTitle("Czarny telefon");
+        saveBookDto.setDescription("Opowiadanie grozy");
+        saveBookDto.setPrice(new BigDecimal("29.90"));
+        saveBookDto.setImageUrl("telefon.jpg");
+        saveBookDto.setPublicationYear(2021);
+        saveBookDto.setIsbn("COUNT-1");
+        saveBookDto.setCategory(category("Horror"));
+        saveBookDto.setInventory(new BookInventory());
+        saveBookDto.setBookAuthors(Set.of(author("Stephen King"), author("Joe Hill")));
+        bookService.saveBook(saveBookDto);
+
+        assertThat(categoryBookCount("Horror")).isEqualTo(horrorCount + 1);
+        assertThat(authorBookCount("Stephen King")).isEqualTo(stephenKingCount + 1);
+        assertThat(authorBookCount("Joe Hill")).isEqualTo(joeHillCount + 1);
+    }
+
+    @Test
+    void updateBook_movesTheCountsOfAChangedCategoryAndOfChangedAuthorsOnly() {
+        long fantasyCount = categoryBookCount("Fantasy");
+        long romansCount = categoryBookCount("Romans");
+        long rowlingCount = authorBookCount("J.K. Rowling");
+        long tolkienCount = authorBookCount("J.R.R. Tolkien");
+        long austenCount = authorBookCount("Jane Austen");
+
+        // an author is added, the category is unchanged
+        Book book = bookRepository.findById(1L).orElseThrow();
+        UpdateBookDto updateBookDto = updateBookDto(book);
+        updateBookDto.getBookAuthors().add(author("J.R.R. Tolkien"));
+        bookService.updateBook(updateBookDto);
+
+        assertThat(categoryBookCount("Fantasy")).isEqualTo(fantasyCount);
+        assertThat(authorBookCount("J.K. Rowling")).isEqualTo(rowlingCount);
+        assertThat(authorBookCount("J.R.R. Tolkien")).isEqualTo(tolkienCount + 1);
+
+        // the book is moved to another category, and its authors replaced
+        updateBookDto = updateBookDto(book);
+        updateBookDto.setCategory(category("Romans"));
+        updateBookDto.setBookAuthors(new HashSet<>(Set.of(author("Jane Austen"))));
+        bookService.updateBook(updateBookDto);
+
+        assertThat(categoryBookCount("Fantasy")).isEqualTo(fantasyCount - 1);
+        assertThat(categoryBookCount("Romans")).isEqualTo(romansCount + 1);
+        assertThat(authorBookCount("J.K. Rowling")).isEqualTo(rowlingCount - 1);
+        assertThat(authorBookCount("J.R.R. Tolkien")).isEqualTo(tolkienCount);
+        assertThat(authorBookCount("Jane Austen")).isEqualTo(austenCount + 1);
+    }
+
+    @Test
+    void deleteBook_uncountsTheBookWhichIsntCountedAgainByLaterUpdates() {
+        long fantasyCount = categoryBookCount("Fantasy");
+        long rowlingCount = authorBookCount("J.K. Rowling");
+
+        bookService.deleteBook(1L);
+
+        assertThat(categoryBookCount("Fantasy")).isEqualTo(fantasyCount - 1);
+        assertThat(authorBookCount("J.K. Rowling")).isEqualTo(rowlingCount - 1);
+
+        // a removed book counts for nothing, whatever its category and authors
+        UpdateBookDto updateBookDto = updateBookDto(bookRepository.findById(1L).orElseThrow());
+        updateBookDto.setCategory(category("Romans"));
+        long romansCount = categoryBookCount("Romans");
+        bookService.updateBook(updateBookDto);
+
+        assertThat(categoryBookCount("Fantasy")).isEqualTo(fantasyCount - 1);
+        assertThat(categoryBookCount("Romans")).isEqualTo(romansCount);
+        assertThat(authorBookCount("J.K. Rowling")).isEqualTo(rowlingCount - 1);
+    }
+
+    @Test
+    void deleteCategory_dropsItsCounterAndKeepsTheOnesOfAuthors() {
+        long stephenKingCount = authorBookCount("Stephen King");
+        Long horrorId = category("Horror").getId();
+        assertThat(categoryBookCount("Horror")).isPositive();
+
+        categoryService.deleteCategory(horrorId);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM category_book_count WHERE category_id = ?", Long.class, horrorId)).isZero();
+        assertThat(authorBookCount("Stephen King")).isEqualTo(stephenKingCount);
+    }
+
+    private UpdateBookDto updateBookDto(Book book) {
+        UpdateBookDto updateBookDto = new UpdateBookDto();
+        updateBookDto.setId(book.getId());
+        updateBookDto.setTitle(book.getTitle());
+        updateBookDto.setDescription(book.getDescription());
+        updateBookDto.setPrice(book.getPrice());
+        updateBookDto.setImageUrl(book.getImageUrl());
+        updateBookDto.setPublicationYear(book.getPublicationYear());
+        updateBookDto.setIsbn(book.getIsbn());
+        updateBookDto.setCategory(book.getCategory());
+        updateBookDto.setInventory(book.getInventory());
+        updateBookDto.setBookAuthors(new HashSet<>(book.getBookAuthors()));
+        return updateBookDto;
+    }
+
+    private Category category(String name) {
+        return categoryRepository.findAll().stream().filter(category -> category.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private Author author(String name) {
+        return authorRepository.findAll().stream().filter(author -> author.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private long categoryBookCount(String categoryName) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(n.book_count), 0) FROM category c JOIN category_book_count n ON n.category_id = c.id" +
+                " WHERE c.name = ?", Long.class, categoryName);
+    }
+
+    private long authorBookCount(String authorName) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(n.book_count), 0) FROM author a JOIN author_book_count n ON n.author_id = a.id" +
+                " WHERE a.name = ?", Long.class, authorName);
+    }
+
+    @TestConfiguration
+    public static class TestDataSourceConfig {
+
+        @Bean
+        public PostgreSQLContainer<?> database() {
+            PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:14.11");
+            postgreSQLContainer.start();
+            return postgreSQLContainer;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(JdbcDatabaseContainer<?> database) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource();
+            dataSource.setUrl(database.getJdbcUrl());
+            dataSource.setUsername(database.getUsername());
+            dataSource.setPassword(database.getPassword());
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.switix.onlinebookstore.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.switix.onlinebookstore.NoOpPasswordEncoder;
+import com.switix.onlinebookstore.TestData;
+import com.switix.onlinebookstore.cache.CatalogCacheConfig;
+import com.switix.onlinebookstore.cache.CatalogCacheInvalidator;
+import com.switix.onlinebookstore.cache.CatalogCaches;
+import com.switix.onlinebookstore.dto.UpdateBookDto;
+import com.switix.onlinebookstore.model.Author;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
+
+@EntityScan(basePackageClasses = Book.class)
+@EnableJpaRepositories(basePackageClasses = BookRepository.class,
+        // we only want to scan for JpaRepository to avoid picking Stalactite repositories here, else we get bean conflicts
+        includeFilters = @ComponentScan.Filter(type = ASSIGNABLE_TYPE, classes = JpaRepository.class)
+)
+@ContextConfiguration(classes = {
+        BookServiceImpl.class,
+        BookCounts.class,
+        CatalogCacheConfig.class,
+        CatalogCacheInvalidator.class,
+        // required for TestData
+        NoOpPasswordEncoder.class})
+// queries are counted by Hibernate statistics
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+
+@Import({TestData.class, BookServiceImplTest.TestDataSourceConfig.class})
+
+// books must be cached by a transaction that ended, as they are when served to another request
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookServiceImplTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void getBooksAfter_cachedPageIsServedWithItsAuthorsAndEvictedOnUpdate() throws Exception {
+        List<Book> page = bookService.getBooksAfter(0L, 5, false);
+        List<Book> cachedPage = bookService.getBooksAfter(0L, 5, false);
+
+        assertThat(cachedPage).isSameAs(page);
+        // the loading session is closed, lazy authors would fail here
+        assertThat(cachedPage).allMatch(book -> Hibernate.isInitialized(book.getBookAuthors()));
+        assertThat(cachedPage.get(0).getBookAuthors()).extracting(Author::getName).containsExactly("J.K. Rowling");
+        assertThat(new ObjectMapper().writeValueAsString(cachedPage)).contains("J.K. Rowling");
+
+        Book book = cachedPage.get(1);
+        UpdateBookDto updateBookDto = new UpdateBookDto();
+        updateBookDto.setId(book.getId());
+        updateBookDto.setTitle(book.getTitle() + " (2nd edition)");
+        updateBookDto.setDescription(book.getDescription());
+        updateBookDto.setPrice(book.getPrice());
+        updateBookDto.setImageUrl(book.getImageUrl());
+        updateBookDto.setPublicationYear(book.getPublicationYear());
+        updateBookDto.setIsbn(book.getIsbn());
+        updateBookDto.setCategory(book.getCategory());
+        updateBookDto.setInventory(book.getInventory());
+        updateBookDto.setBookAuthors(book.getBookAuthors());
+        bookService.updateBook(updateBookDto);
+
+        List<Book> reloadedPage = bookService.getBooksAfter(0L, 5, false);
+        assertThat(reloadedPage).isNotSameAs(page);
+        assertThat(reloadedPage.get(1).getTitle()).isEqualTo(book.getTitle() + " (2nd edition)");
+    }
+
+    @Test
+    void getBooksByCategoryAfter_loadsThePageAndTheAuthorsOfAllItsBooksInTwoQueries() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Book> page = bookService.getBooksByCategoryAfter(3L, 0L, 10, false);
+
+        // Horror books of TestData, some of them written by several authors
+        assertThat(page).hasSizeGreaterThan(1);
+        assertThat(page).allMatch(book -> Hibernate.isInitialized(book.getBookAuthors()));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getBook_cachedBookIsEvictedOnDelete() {
+        Book book = bookService.getBook(12L).orElseThrow();
+        assertThat(bookService.getBook(12L)).containsSame(book);
+        assertThat(Hibernate.isInitialized(book.getBookAuthors())).isTrue();
+
+        bookService.deleteBook(12L);
+
+        assertThat(bookService.getBook(12L)).get().isNotSameAs(book).extracting(Book::getIsRemoved).isEqualTo(true);
+    }
+
+    @TestConfiguration
+    public static class TestDataSourceConfig {
+
+        @Bean
+        public PostgreSQLContainer<?> database() {
+            PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:14.11");
+            postgreSQLContainer.start();
+            return postgreSQLContainer;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(JdbcDatabaseContainer<?> database) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource();
+            dataSource.setUrl(database.getJdbcUrl());
+            dataSource.setUsername(database.getUsername());
+            dataSource.setPassword(database.getPassword());
+            return dataSource;
+        }
+
+        // test slices replace caching by a no-op cache manager
+        @Bean
+        public CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CatalogCaches.BOOKS, CatalogCaches.BOOK_LISTS);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.switix.onlinebookstore.service;
+
+import com.switix.onlinebookstore.dto.CartItemDto;
+import com.switix.onlinebookstore.exception.BookInsufficientStockException;
+import com.switix.onlinebookstore.model.*;
+import com.switix.onlinebookstore.repository.BookInventoryRepository;
+import org.codefilarete.tool.trace.Chrono;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
+
+@EntityScan(basePackageClasses = BookInventory.class)
+@EnableJpaRepositories(basePackageClasses = BookInventoryRepository.class,
+        // we only want to scan for JpaRepository to avoid picking Stalactite repositories here, else we get bean conflicts
+        includeFilters = @ComponentScan.Filter(type = ASSIGNABLE_TYPE, classes = JpaRepository.class)
+)
+@ContextConfiguration(classes = {
+        InventoryServiceImpl.class,
+        BookInventoryRepository.class})
+@DataJpaTest
+
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+
+@Import(InventoryServiceImplTest.TestDataSourceConfig.class)
+
+// reservations are made by concurrent committed transactions, not in the rolled back transaction of the test
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryServiceImplTest {
+
+    private static final int BOOK_COUNT = 5;
+    private static final int STOCK_PER_BOOK = 200;
+    private static final int THREAD_COUNT = 16;
+    private static final int CHECKOUTS_PER_THREAD = 100;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private BookInventoryRepository bookInventoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void reserve_concurrentCheckoutsNeverOversell() throws Exception {
+        List<Book> books = new ArrayList<>();
+        for (long i = 0; i < BOOK_COUNT; i++) {
+            BookInventory inventory = new BookInventory();
+            inventory.setQuantity(STOCK_PER_BOOK);
+            Book book = new Book();
+            book.setId(i);
+            book.setInventory(bookInventoryRepository.save(inventory));
+            books.add(book);
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger reservedQuantity = new AtomicInteger();
+        AtomicInteger rejectedCheckouts = new AtomicInteger();
+
+        Chrono chrono = new Chrono();
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            futures.add(executor.submit(() -> {
+                for (int c = 0; c < CHECKOUTS_PER_THREAD; c++) {
+                    // carts share books and list them in random order, as a deadlock prone workload would
+                    List<CartItemDto> cartItems = new ArrayList<>();
+                    int cartQuantity = 0;
+                    for (Book book : books) {
+                        if (ThreadLocalRandom.current().nextBoolean()) {
+                            CartItemDto cartItem = new CartItemDto();
+                            cartItem.setBook(book);
+                            cartItem.setQuantity(ThreadLocalRandom.current().nextInt(1, 4));
+                            cartItems.add(ThreadLocalRandom.current().nextInt(cartItems.size() + 1), cartItem);
+                            cartQuantity += cartItem.getQuantity();
+                        }
+                    }
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> inventoryService.reserve(cartItems));
+                        reservedQuantity.addAndGet(cartQuantity);
+                    } catch (BookInsufficientStockException e) {
+                        rejectedCheckouts.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        long elapsedTime = chrono.getElapsedTime();
+
+        List<BookInventory> inventories = bookInventoryRepository.findAllById(books.stream().map(book -> book.getInventory().getId()).toList());
+        assertThat(inventories).allSatisfy(inventory -> assertThat(inventory.getQuantity()).isBetween(0, STOCK_PER_BOOK));
+        int remainingQuantity = inventories.stream().mapToInt(BookInventory::getQuantity).sum();
+        assertThat(reservedQuantity.get() + remainingQuantity).isEqualTo(BOOK_COUNT * STOCK_PER_BOOK);
+        System.out.println(THREAD_COUNT * CHECKOUTS_PER_THREAD + " checkouts (" + rejectedCheckouts.get() + " rejected) done in " + elapsedTime + " ms, "
+                + (THREAD_COUNT * CHECKOUTS_PER_THREAD * 1000L / Math.max(1, elapsedTime)) + " checkouts/s");
+    }
+
+    @TestConfiguration
+    public static class TestDataSourceConfig {
+
+        @Bean
+        public PostgreSQLContainer<?> database() {
+            PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:14.11");
+            postgreSQLContainer.start();
+            return postgreSQLContainer;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(JdbcDatabaseContainer<?> database) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource();
+            dataSource.setUrl(database.getJdbcUrl());
+            dataSource.setUsername(database.getUsername());
+            dataSource.setPassword(database.getPassword());
+            return dataSource;
+        }
+
+        @Bean
+        public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+    }
+}
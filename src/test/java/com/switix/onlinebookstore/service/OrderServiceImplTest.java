@@ -0,0 +1,134 @@
+package com.switix.onlinebookstore.service;
+
+import com.switix.onlinebookstore.NoOpPasswordEncoder;
+import com.switix.onlinebookstore.TestData;
+import com.switix.onlinebookstore.cache.CatalogCacheInvalidator;
+import com.switix.onlinebookstore.cache.CatalogCaches;
+import com.switix.onlinebookstore.cache.CatalogVersion;
+import com.switix.onlinebookstore.cache.ReferenceData;
+import com.switix.onlinebookstore.cart.CartStoreConfig;
+import com.switix.onlinebookstore.dto.OrderDetailCreationDto;
+import com.switix.onlinebookstore.model.Book;
+import com.switix.onlinebookstore.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
+
+@EntityScan(basePackageClasses = Book.class)
+@EnableJpaRepositories(basePackageClasses = BookRepository.class,
+        // we only want to scan for JpaRepository to avoid picking Stalactite repositories here, else we get bean conflicts
+        includeFilters = @ComponentScan.Filter(type = ASSIGNABLE_TYPE, classes = JpaRepository.class)
+)
+@ContextConfiguration(classes = {
+        OrderServiceImpl.class,
+        ShoppingServiceImpl.class,
+        CartStoreConfig.class,
+        BillingAddressServiceImpl.class,
+        ShippingAddressServiceImpl.class,
+        InventoryServiceImpl.class,
+        ReferenceData.class,
+        CatalogVersion.class,
+        CatalogCacheInvalidator.class,
+        // required for TestData
+        NoOpPasswordEncoder.class})
+@DataJpaTest
+
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+
+@Import({TestData.class, OrderServiceImplTest.TestDataSourceConfig.class})
+
+// catalog change listeners are invoked once the order is committed, not in the rolled back transaction of the test
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderServiceImplTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createOrderDetail_evictsOrderedBooksButKeepsBookListsAndCatalogVersion() {
+        Cache books = cacheManager.getCache(CatalogCaches.BOOKS);
+        Cache bookLists = cacheManager.getCache(CatalogCaches.BOOK_LISTS);
+        books.put(1L, "book 1");
+        books.put(2L, "book 2");
+        books.put(3L, "book 3");
+        bookLists.put("first page", List.of("book 1", "book 2", "book 3"));
+        String eTag = catalogVersion.current().eTag();
+        int stock = stock(1L);
+
+        // cart of the first customer holds one copy of the first book and two of the third one
+        orderService.createOrderDetail(new OrderDetailCreationDto(1L, 1L, 1L, 1L), 2L);
+
+        assertThat(stock(1L)).isEqualTo(stock - 1);
+        assertThat(books.get(1L)).isNull();
+        assertThat(books.get(3L)).isNull();
+        assertThat(books.get(2L)).isNotNull();
+        assertThat(bookLists.get("first page")).isNotNull();
+        assertThat(catalogVersion.current().eTag()).isEqualTo(eTag);
+    }
+
+    private int stock(long bookId) {
+        return jdbcTemplate.queryForObject("SELECT i.quantity FROM book b JOIN book_inventory i ON i.id = b.inventory_id WHERE b.id = ?",
+                Integer.class, bookId);
+    }
+
+    @TestConfiguration
+    public static class TestDataSourceConfig {
+
+        @Bean
+        public PostgreSQLContainer<?> database() {
+            PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:14.11");
+            postgreSQLContainer.start();
+            return postgreSQLContainer;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(JdbcDatabaseContainer<?> database) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource();
+            dataSource.setUrl(database.getJdbcUrl());
+            dataSource.setUsername(database.getUsername());
+            dataSource.setPassword(database.getPassword());
+            return dataSource;
+        }
+
+        // test slices replace caching by a no-op cache manager
+        @Bean
+        public CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CatalogCaches.BOOKS, CatalogCaches.BOOK_LISTS);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.switix.onlinebookstore.service;
+
+import com.switix.onlinebookstore.cart.CartStore;
+import com.switix.onlinebookstore.dto.CartItemRequestDto;
+import com.switix.onlinebookstore.exception.InvalidCartItemException;
+import com.switix.onlinebookstore.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ShoppingServiceImplTest {
+
+    private final CartStore cartStore = mock(CartStore.class);
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final ShoppingServiceImpl testInstance = new ShoppingServiceImpl(cartStore, bookRepository, 3);
+
+    @Test
+    void upsertCartItems_rejectsListsAboveTheMaximumBeforeReadingBooks() {
+        List<CartItemRequestDto> items = LongStream.rangeClosed(1, 4)
+                .mapToObj(bookId -> new CartItemRequestDto(bookId, 1))
+                .toList();
+
+        assertThatThrownBy(() -> testInstance.upsertCartItems(1L, items)).isInstanceOf(InvalidCartItemException.class);
+        verifyNoInteractions(bookRepository, cartStore);
+    }
+}